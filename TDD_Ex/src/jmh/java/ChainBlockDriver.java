@@ -0,0 +1,377 @@
+import benchmark.BlockDriver;
+import benchmark.Workload;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class ChainBlockDriver implements BlockDriver {
+
+    private static final Status[] STATUSES = Status.values();
+
+    private final String implementation;
+    private final List<Transaction> transactions;
+    private final Transaction[] transactionsById;
+    private final Transaction[] probes;
+    private ChainBlock chainBlock;
+
+    public ChainBlockDriver(String implementation, Workload workload) {
+        this.implementation = implementation;
+        this.transactions = new ArrayList<>(workload.size);
+        this.transactionsById = new Transaction[workload.size];
+
+        for (int i = 0; i < workload.size; i++) {
+            Transaction transaction = new TransactionImpl(workload.ids[i], STATUSES[workload.statuses[i]],
+                    workload.senders[i], workload.receivers[i], workload.amounts[i]);
+            transactions.add(transaction);
+            transactionsById[transaction.getId()] = transaction;
+        }
+
+        this.probes = new Transaction[workload.probeIds.length];
+
+        for (int i = 0; i < probes.length; i++) {
+            probes[i] = transactionsById[workload.probeIds[i]];
+        }
+
+        this.chainBlock = newChainBlock();
+    }
+
+    @Override
+    public void load() {
+        chainBlock = newChainBlock();
+        transactions.forEach(chainBlock::add);
+    }
+
+    @Override
+    public void bulkLoad() {
+        chainBlock = newChainBlock();
+        chainBlock.addAll(Collections.unmodifiableList(transactions));
+
+        if (implementation.equals("MappedChainBlock"))
+            chainBlock = snapshot(chainBlock);
+    }
+
+    @Override
+    public int getCount() {
+        return chainBlock.getCount();
+    }
+
+    @Override
+    public void add(int id, int status, String sender, String receiver, double amount) {
+        chainBlock.add(new TransactionImpl(id, STATUSES[status], sender, receiver, amount));
+    }
+
+    @Override
+    public boolean contains(int probe) {
+        return chainBlock.contains(probes[probe]);
+    }
+
+    @Override
+    public boolean containsId(int id) {
+        return chainBlock.contains(id);
+    }
+
+    @Override
+    public void changeTransactionStatus(int id, int status) {
+        chainBlock.changeTransactionStatus(id, STATUSES[status]);
+    }
+
+    @Override
+    public void removeTransactionById(int id) {
+        chainBlock.removeTransactionById(id);
+    }
+
+    @Override
+    public int removeEachWithStatus(int status) {
+        List<Integer> ids = new ArrayList<>();
+
+        for (Transaction transaction : chainBlock) {
+            if (transaction.getStatus() == STATUSES[status])
+                ids.add(transaction.getId());
+        }
+
+        ids.forEach(chainBlock::removeTransactionById);
+
+        return ids.size();
+    }
+
+    @Override
+    public int removeAllWithStatus(int status) {
+        return chainBlock.removeAll(t -> t.getStatus() == STATUSES[status]);
+    }
+
+    @Override
+    public void restore(int id) {
+        chainBlock.add(transactionsById[id]);
+    }
+
+    @Override
+    public Object getById(int id) {
+        return chainBlock.getById(id);
+    }
+
+    @Override
+    public Object findById(int id) {
+        return chainBlock.findById(id);
+    }
+
+    @Override
+    public Object getByTransactionStatus(int status) {
+        return chainBlock.getByTransactionStatus(STATUSES[status]);
+    }
+
+    @Override
+    public Object getAllSendersWithTransactionStatus(int status) {
+        return chainBlock.getAllSendersWithTransactionStatus(STATUSES[status]);
+    }
+
+    @Override
+    public Object getAllReceiversWithTransactionStatus(int status) {
+        return chainBlock.getAllReceiversWithTransactionStatus(STATUSES[status]);
+    }
+
+    @Override
+    public Object getAllOrderedByAmountDescendingThenById() {
+        return chainBlock.getAllOrderedByAmountDescendingThenById();
+    }
+
+    @Override
+    public Object getBySenderOrderedByAmountDescending(String sender) {
+        return chainBlock.getBySenderOrderedByAmountDescending(sender);
+    }
+
+    @Override
+    public Object findBySenderOrderedByAmountDescending(String sender) {
+        return chainBlock.findBySenderOrderedByAmountDescending(sender);
+    }
+
+    @Override
+    public Object getByReceiverOrderedByAmountThenById(String receiver) {
+        return chainBlock.getByReceiverOrderedByAmountThenById(receiver);
+    }
+
+    @Override
+    public Object getByTransactionStatusAndMaximumAmount(int status, double amount) {
+        return chainBlock.getByTransactionStatusAndMaximumAmount(STATUSES[status], amount);
+    }
+
+    @Override
+    public Object getBySenderAndMinimumAmountDescending(String sender, double amount) {
+        return chainBlock.getBySenderAndMinimumAmountDescending(sender, amount);
+    }
+
+    @Override
+    public Object getByReceiverAndAmountRange(String receiver, double lo, double hi) {
+        return chainBlock.getByReceiverAndAmountRange(receiver, lo, hi);
+    }
+
+    @Override
+    public Object getAllInAmountRange(double lo, double hi) {
+        return chainBlock.getAllInAmountRange(lo, hi);
+    }
+
+    @Override
+    public Object getAllOrderedByAmountDescendingThenById(int limit) {
+        return chainBlock.getAllOrderedByAmountDescendingThenById(limit);
+    }
+
+    @Override
+    public Object getBySenderOrderedByAmountDescending(String sender, int limit) {
+        return chainBlock.getBySenderOrderedByAmountDescending(sender, limit);
+    }
+
+    @Override
+    public Object getByTransactionStatus(int status, int limit) {
+        return chainBlock.getByTransactionStatus(STATUSES[status], limit);
+    }
+
+    @Override
+    public Object getByReceiverOrderedByAmountThenById(String receiver, int limit) {
+        return chainBlock.getByReceiverOrderedByAmountThenById(receiver, limit);
+    }
+
+    @Override
+    public Object getByTransactionStatusAndMaximumAmount(int status, double amount, int limit) {
+        return chainBlock.getByTransactionStatusAndMaximumAmount(STATUSES[status], amount, limit);
+    }
+
+    @Override
+    public Object getBySenderAndMinimumAmountDescending(String sender, double amount, int limit) {
+        return chainBlock.getBySenderAndMinimumAmountDescending(sender, amount, limit);
+    }
+
+    @Override
+    public Object getByReceiverAndAmountRange(String receiver, double lo, double hi, int limit) {
+        return chainBlock.getByReceiverAndAmountRange(receiver, lo, hi, limit);
+    }
+
+    @Override
+    public Object streamByTransactionStatus(int status, int limit) {
+        return first(chainBlock.streamByTransactionStatus(STATUSES[status]), limit);
+    }
+
+    @Override
+    public Object streamAllSendersWithTransactionStatus(int status, int limit) {
+        return first(chainBlock.streamAllSendersWithTransactionStatus(STATUSES[status]), limit);
+    }
+
+    @Override
+    public Object streamAllReceiversWithTransactionStatus(int status, int limit) {
+        return first(chainBlock.streamAllReceiversWithTransactionStatus(STATUSES[status]), limit);
+    }
+
+    @Override
+    public Object streamAllOrderedByAmountDescendingThenById(int limit) {
+        return first(chainBlock.streamAllOrderedByAmountDescendingThenById(), limit);
+    }
+
+    @Override
+    public Object streamBySenderOrderedByAmountDescending(String sender, int limit) {
+        return first(chainBlock.streamBySenderOrderedByAmountDescending(sender), limit);
+    }
+
+    @Override
+    public Object streamByReceiverOrderedByAmountThenById(String receiver, int limit) {
+        return first(chainBlock.streamByReceiverOrderedByAmountThenById(receiver), limit);
+    }
+
+    @Override
+    public Object streamByTransactionStatusAndMaximumAmount(int status, double amount, int limit) {
+        return first(chainBlock.streamByTransactionStatusAndMaximumAmount(STATUSES[status], amount), limit);
+    }
+
+    @Override
+    public Object streamBySenderAndMinimumAmountDescending(String sender, double amount, int limit) {
+        return first(chainBlock.streamBySenderAndMinimumAmountDescending(sender, amount), limit);
+    }
+
+    @Override
+    public Object streamByReceiverAndAmountRange(String receiver, double lo, double hi, int limit) {
+        return first(chainBlock.streamByReceiverAndAmountRange(receiver, lo, hi), limit);
+    }
+
+    @Override
+    public Object streamAllInAmountRange(double lo, double hi, int limit) {
+        return first(chainBlock.streamAllInAmountRange(lo, hi), limit);
+    }
+
+    @Override
+    public Object findByTransactionStatus(int status) {
+        return chainBlock.findByTransactionStatus(STATUSES[status]);
+    }
+
+    @Override
+    public Object findAllSendersWithTransactionStatus(int status) {
+        return chainBlock.findAllSendersWithTransactionStatus(STATUSES[status]);
+    }
+
+    @Override
+    public Object findAllReceiversWithTransactionStatus(int status) {
+        return chainBlock.findAllReceiversWithTransactionStatus(STATUSES[status]);
+    }
+
+    @Override
+    public Object findByReceiverOrderedByAmountThenById(String receiver) {
+        return chainBlock.findByReceiverOrderedByAmountThenById(receiver);
+    }
+
+    @Override
+    public Object findBySenderAndMinimumAmountDescending(String sender, double amount) {
+        return chainBlock.findBySenderAndMinimumAmountDescending(sender, amount);
+    }
+
+    @Override
+    public Object findByReceiverAndAmountRange(String receiver, double lo, double hi) {
+        return chainBlock.findByReceiverAndAmountRange(receiver, lo, hi);
+    }
+
+    @Override
+    public int getCountByTransactionStatus(int status) {
+        return chainBlock.getCountByTransactionStatus(STATUSES[status]);
+    }
+
+    @Override
+    public double getVolumeBySender(String sender) {
+        return chainBlock.getVolumeBySender(sender);
+    }
+
+    @Override
+    public double getVolumeByReceiver(String receiver) {
+        return chainBlock.getVolumeByReceiver(receiver);
+    }
+
+    @Override
+    public double getMinimumAmount() {
+        return chainBlock.getMinimumAmount();
+    }
+
+    @Override
+    public double getMaximumAmount() {
+        return chainBlock.getMaximumAmount();
+    }
+
+    @Override
+    public Object pageAllOrderedByAmountDescendingThenById(int probe, int pageSize) {
+        return chainBlock.pageAllOrderedByAmountDescendingThenById(PageToken.after(probes[probe]), pageSize);
+    }
+
+    @Override
+    public Object pageByReceiverOrderedByAmountThenById(String receiver, int probe, int pageSize) {
+        return chainBlock.pageByReceiverOrderedByAmountThenById(receiver, PageToken.after(probes[probe]), pageSize);
+    }
+
+    @Override
+    public long iterate() {
+        long checksum = 0;
+
+        for (Transaction transaction : chainBlock) {
+            checksum += transaction.getId();
+        }
+
+        return checksum;
+    }
+
+    private static <T> List<T> first(Stream<T> stream, int limit) {
+        return stream.limit(limit).collect(Collectors.toList());
+    }
+
+    private static ChainBlock snapshot(ChainBlock chainBlock) {
+        try {
+            Path path = Files.createTempFile("chain-block", ".snapshot");
+            path.toFile().deleteOnExit();
+            MappedChainBlock.write(chainBlock, path);
+
+            return MappedChainBlock.open(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private ChainBlock newChainBlock() {
+        switch (implementation) {
+            case "ChainBlockImpl":
+            case "MappedChainBlock":
+                return new ChainBlockImpl();
+            case "ColumnarChainBlock":
+                return new ColumnarChainBlock();
+            case "FixedPointColumnarChainBlock":
+                return ColumnarChainBlock.withFixedPointAmounts(2);
+            case "OffHeapChainBlock":
+                return new OffHeapChainBlock();
+            case "ConcurrentChainBlock":
+                return new ConcurrentChainBlock();
+            case "SnapshotChainBlock":
+                return new SnapshotChainBlock();
+            case "ShardedChainBlock":
+                return new ShardedChainBlock(Runtime.getRuntime().availableProcessors());
+            default:
+                throw new IllegalArgumentException(implementation);
+        }
+    }
+}
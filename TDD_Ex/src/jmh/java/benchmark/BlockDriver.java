@@ -0,0 +1,124 @@
+package benchmark;
+
+public interface BlockDriver {
+
+    static BlockDriver create(String implementation, Workload workload) {
+        try {
+            return (BlockDriver) Class.forName("ChainBlockDriver")
+                    .getConstructor(String.class, Workload.class)
+                    .newInstance(implementation, workload);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    void load();
+
+    void bulkLoad();
+
+    int getCount();
+
+    void add(int id, int status, String sender, String receiver, double amount);
+
+    boolean contains(int probe);
+
+    boolean containsId(int id);
+
+    void changeTransactionStatus(int id, int status);
+
+    void removeTransactionById(int id);
+
+    int removeEachWithStatus(int status);
+
+    int removeAllWithStatus(int status);
+
+    void restore(int id);
+
+    Object getById(int id);
+
+    Object findById(int id);
+
+    Object getByTransactionStatus(int status);
+
+    Object getAllSendersWithTransactionStatus(int status);
+
+    Object getAllReceiversWithTransactionStatus(int status);
+
+    Object getAllOrderedByAmountDescendingThenById();
+
+    Object getBySenderOrderedByAmountDescending(String sender);
+
+    Object findBySenderOrderedByAmountDescending(String sender);
+
+    Object getByReceiverOrderedByAmountThenById(String receiver);
+
+    Object getByTransactionStatusAndMaximumAmount(int status, double amount);
+
+    Object getBySenderAndMinimumAmountDescending(String sender, double amount);
+
+    Object getByReceiverAndAmountRange(String receiver, double lo, double hi);
+
+    Object getAllInAmountRange(double lo, double hi);
+
+    Object getAllOrderedByAmountDescendingThenById(int limit);
+
+    Object getBySenderOrderedByAmountDescending(String sender, int limit);
+
+    Object getByTransactionStatus(int status, int limit);
+
+    Object getByReceiverOrderedByAmountThenById(String receiver, int limit);
+
+    Object getByTransactionStatusAndMaximumAmount(int status, double amount, int limit);
+
+    Object getBySenderAndMinimumAmountDescending(String sender, double amount, int limit);
+
+    Object getByReceiverAndAmountRange(String receiver, double lo, double hi, int limit);
+
+    Object streamByTransactionStatus(int status, int limit);
+
+    Object streamAllSendersWithTransactionStatus(int status, int limit);
+
+    Object streamAllReceiversWithTransactionStatus(int status, int limit);
+
+    Object streamAllOrderedByAmountDescendingThenById(int limit);
+
+    Object streamBySenderOrderedByAmountDescending(String sender, int limit);
+
+    Object streamByReceiverOrderedByAmountThenById(String receiver, int limit);
+
+    Object streamByTransactionStatusAndMaximumAmount(int status, double amount, int limit);
+
+    Object streamBySenderAndMinimumAmountDescending(String sender, double amount, int limit);
+
+    Object streamByReceiverAndAmountRange(String receiver, double lo, double hi, int limit);
+
+    Object streamAllInAmountRange(double lo, double hi, int limit);
+
+    Object findByTransactionStatus(int status);
+
+    Object findAllSendersWithTransactionStatus(int status);
+
+    Object findAllReceiversWithTransactionStatus(int status);
+
+    Object findByReceiverOrderedByAmountThenById(String receiver);
+
+    Object findBySenderAndMinimumAmountDescending(String sender, double amount);
+
+    Object findByReceiverAndAmountRange(String receiver, double lo, double hi);
+
+    int getCountByTransactionStatus(int status);
+
+    double getVolumeBySender(String sender);
+
+    double getVolumeByReceiver(String receiver);
+
+    double getMinimumAmount();
+
+    double getMaximumAmount();
+
+    Object pageAllOrderedByAmountDescendingThenById(int probe, int pageSize);
+
+    Object pageByReceiverOrderedByAmountThenById(String receiver, int probe, int pageSize);
+
+    long iterate();
+}
@@ -0,0 +1,329 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChainBlockQueryBenchmark extends ChainBlockState {
+
+    private static final int LIMIT = 10;
+    private static final int PAGE_SIZE = 100;
+    private static final double NARROW_RANGE = 0.01;
+    private static final double WIDE_RANGE = 0.10;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        createDriver();
+        driver.bulkLoad();
+    }
+
+    @Benchmark
+    public int getCount() {
+        return driver.getCount();
+    }
+
+    @Benchmark
+    public boolean contains() {
+        return driver.contains(nextProbe());
+    }
+
+    @Benchmark
+    public boolean containsId() {
+        return driver.containsId(workload.probeIds[nextProbe()]);
+    }
+
+    @Benchmark
+    public boolean containsIdMiss() {
+        return driver.containsId(workload.missingIds[nextProbe()]);
+    }
+
+    @Benchmark
+    public Object getById() {
+        return driver.getById(workload.probeIds[nextProbe()]);
+    }
+
+    @Benchmark
+    public Object getByIdMiss() {
+        try {
+            return driver.getById(workload.missingIds[nextProbe()]);
+        } catch (IllegalArgumentException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Object findByIdMiss() {
+        return driver.findById(workload.missingIds[nextProbe()]);
+    }
+
+    @Benchmark
+    public Object getByTransactionStatus() {
+        return driver.getByTransactionStatus(workload.probeStatuses[nextProbe()]);
+    }
+
+    @Benchmark
+    public Object getAllSendersWithTransactionStatus() {
+        return driver.getAllSendersWithTransactionStatus(workload.probeStatuses[nextProbe()]);
+    }
+
+    @Benchmark
+    public Object getAllReceiversWithTransactionStatus() {
+        return driver.getAllReceiversWithTransactionStatus(workload.probeStatuses[nextProbe()]);
+    }
+
+    @Benchmark
+    public Object getAllOrderedByAmountDescendingThenById() {
+        return driver.getAllOrderedByAmountDescendingThenById();
+    }
+
+    @Benchmark
+    public Object getBySenderOrderedByAmountDescending() {
+        return driver.getBySenderOrderedByAmountDescending(workload.probeAccounts[nextProbe()]);
+    }
+
+    @Benchmark
+    public Object getBySenderOrderedByAmountDescendingMiss() {
+        try {
+            return driver.getBySenderOrderedByAmountDescending(workload.missingAccounts[nextProbe()]);
+        } catch (IllegalArgumentException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Object findBySenderOrderedByAmountDescendingMiss() {
+        return driver.findBySenderOrderedByAmountDescending(workload.missingAccounts[nextProbe()]);
+    }
+
+    @Benchmark
+    public Object getByReceiverOrderedByAmountThenById() {
+        return driver.getByReceiverOrderedByAmountThenById(workload.probeAccounts[nextProbe()]);
+    }
+
+    @Benchmark
+    public Object getByTransactionStatusAndMaximumAmount() {
+        int probe = nextProbe();
+        return driver.getByTransactionStatusAndMaximumAmount(workload.probeStatuses[probe],
+                workload.probeAmounts[probe]);
+    }
+
+    @Benchmark
+    public Object getBySenderAndMinimumAmountDescending() {
+        int probe = nextProbe();
+        return driver.getBySenderAndMinimumAmountDescending(workload.probeAccounts[probe],
+                Math.min(workload.probeAmounts[probe], workload.maximumAmount() * (1 - WIDE_RANGE)));
+    }
+
+    @Benchmark
+    public Object getByReceiverAndAmountRange() {
+        int probe = nextProbe();
+        double lo = Math.min(workload.probeAmounts[probe], workload.maximumAmount() * (1 - WIDE_RANGE));
+        return driver.getByReceiverAndAmountRange(workload.probeAccounts[probe], lo,
+                lo + workload.maximumAmount() * WIDE_RANGE);
+    }
+
+    @Benchmark
+    public Object getAllInAmountRange() {
+        double lo = workload.probeAmounts[nextProbe()];
+        return driver.getAllInAmountRange(lo, lo + workload.maximumAmount() * NARROW_RANGE);
+    }
+
+    @Benchmark
+    public Object getAllOrderedByAmountDescendingThenByIdTopK() {
+        return driver.getAllOrderedByAmountDescendingThenById(LIMIT);
+    }
+
+    @Benchmark
+    public Object getBySenderOrderedByAmountDescendingTopK() {
+        return driver.getBySenderOrderedByAmountDescending(workload.probeAccounts[nextProbe()], LIMIT);
+    }
+
+    @Benchmark
+    public Object getByTransactionStatusTopK() {
+        return driver.getByTransactionStatus(workload.probeStatuses[nextProbe()], LIMIT);
+    }
+
+    @Benchmark
+    public Object getByReceiverOrderedByAmountThenByIdTopK() {
+        return driver.getByReceiverOrderedByAmountThenById(workload.probeAccounts[nextProbe()], LIMIT);
+    }
+
+    @Benchmark
+    public Object getByTransactionStatusAndMaximumAmountTopK() {
+        int probe = nextProbe();
+        return driver.getByTransactionStatusAndMaximumAmount(workload.probeStatuses[probe],
+                workload.probeAmounts[probe], LIMIT);
+    }
+
+    @Benchmark
+    public Object getBySenderAndMinimumAmountDescendingTopK() {
+        int probe = nextProbe();
+        return driver.getBySenderAndMinimumAmountDescending(workload.probeAccounts[probe],
+                Math.min(workload.probeAmounts[probe], workload.maximumAmount() * (1 - WIDE_RANGE)), LIMIT);
+    }
+
+    @Benchmark
+    public Object getByReceiverAndAmountRangeTopK() {
+        int probe = nextProbe();
+        double lo = Math.min(workload.probeAmounts[probe], workload.maximumAmount() * (1 - WIDE_RANGE));
+        return driver.getByReceiverAndAmountRange(workload.probeAccounts[probe], lo,
+                lo + workload.maximumAmount() * WIDE_RANGE, LIMIT);
+    }
+
+    @Benchmark
+    public Object streamByTransactionStatus() {
+        return driver.streamByTransactionStatus(workload.probeStatuses[nextProbe()], LIMIT);
+    }
+
+    @Benchmark
+    public Object streamAllSendersWithTransactionStatus() {
+        return driver.streamAllSendersWithTransactionStatus(workload.probeStatuses[nextProbe()], LIMIT);
+    }
+
+    @Benchmark
+    public Object streamAllReceiversWithTransactionStatus() {
+        return driver.streamAllReceiversWithTransactionStatus(workload.probeStatuses[nextProbe()], LIMIT);
+    }
+
+    @Benchmark
+    public Object streamAllOrderedByAmountDescendingThenById() {
+        return driver.streamAllOrderedByAmountDescendingThenById(LIMIT);
+    }
+
+    @Benchmark
+    public Object streamBySenderOrderedByAmountDescending() {
+        return driver.streamBySenderOrderedByAmountDescending(workload.probeAccounts[nextProbe()], LIMIT);
+    }
+
+    @Benchmark
+    public Object streamByReceiverOrderedByAmountThenById() {
+        return driver.streamByReceiverOrderedByAmountThenById(workload.probeAccounts[nextProbe()], LIMIT);
+    }
+
+    @Benchmark
+    public Object streamByTransactionStatusAndMaximumAmount() {
+        int probe = nextProbe();
+        return driver.streamByTransactionStatusAndMaximumAmount(workload.probeStatuses[probe],
+                workload.probeAmounts[probe], LIMIT);
+    }
+
+    @Benchmark
+    public Object streamBySenderAndMinimumAmountDescending() {
+        int probe = nextProbe();
+        return driver.streamBySenderAndMinimumAmountDescending(workload.probeAccounts[probe],
+                Math.min(workload.probeAmounts[probe], workload.maximumAmount() * (1 - WIDE_RANGE)), LIMIT);
+    }
+
+    @Benchmark
+    public Object streamByReceiverAndAmountRange() {
+        int probe = nextProbe();
+        double lo = Math.min(workload.probeAmounts[probe], workload.maximumAmount() * (1 - WIDE_RANGE));
+        return driver.streamByReceiverAndAmountRange(workload.probeAccounts[probe], lo,
+                lo + workload.maximumAmount() * WIDE_RANGE, LIMIT);
+    }
+
+    @Benchmark
+    public Object streamAllInAmountRange() {
+        double lo = workload.probeAmounts[nextProbe()];
+        return driver.streamAllInAmountRange(lo, lo + workload.maximumAmount() * NARROW_RANGE, LIMIT);
+    }
+
+    @Benchmark
+    public Object findById() {
+        return driver.findById(workload.probeIds[nextProbe()]);
+    }
+
+    @Benchmark
+    public Object findByTransactionStatus() {
+        return driver.findByTransactionStatus(workload.probeStatuses[nextProbe()]);
+    }
+
+    @Benchmark
+    public Object findAllSendersWithTransactionStatus() {
+        return driver.findAllSendersWithTransactionStatus(workload.probeStatuses[nextProbe()]);
+    }
+
+    @Benchmark
+    public Object findAllReceiversWithTransactionStatus() {
+        return driver.findAllReceiversWithTransactionStatus(workload.probeStatuses[nextProbe()]);
+    }
+
+    @Benchmark
+    public Object findBySenderOrderedByAmountDescending() {
+        return driver.findBySenderOrderedByAmountDescending(workload.probeAccounts[nextProbe()]);
+    }
+
+    @Benchmark
+    public Object findByReceiverOrderedByAmountThenById() {
+        return driver.findByReceiverOrderedByAmountThenById(workload.probeAccounts[nextProbe()]);
+    }
+
+    @Benchmark
+    public Object findBySenderAndMinimumAmountDescending() {
+        int probe = nextProbe();
+        return driver.findBySenderAndMinimumAmountDescending(workload.probeAccounts[probe],
+                Math.min(workload.probeAmounts[probe], workload.maximumAmount() * (1 - WIDE_RANGE)));
+    }
+
+    @Benchmark
+    public Object findByReceiverAndAmountRange() {
+        int probe = nextProbe();
+        double lo = Math.min(workload.probeAmounts[probe], workload.maximumAmount() * (1 - WIDE_RANGE));
+        return driver.findByReceiverAndAmountRange(workload.probeAccounts[probe], lo,
+                lo + workload.maximumAmount() * WIDE_RANGE);
+    }
+
+    @Benchmark
+    public int getCountByTransactionStatus() {
+        return driver.getCountByTransactionStatus(workload.probeStatuses[nextProbe()]);
+    }
+
+    @Benchmark
+    public double getVolumeBySender() {
+        return driver.getVolumeBySender(workload.probeAccounts[nextProbe()]);
+    }
+
+    @Benchmark
+    public double getVolumeByReceiver() {
+        return driver.getVolumeByReceiver(workload.probeAccounts[nextProbe()]);
+    }
+
+    @Benchmark
+    public double getMinimumAmount() {
+        return driver.getMinimumAmount();
+    }
+
+    @Benchmark
+    public double getMaximumAmount() {
+        return driver.getMaximumAmount();
+    }
+
+    @Benchmark
+    public Object pageAllOrderedByAmountDescendingThenById() {
+        return driver.pageAllOrderedByAmountDescendingThenById(nextProbe(), PAGE_SIZE);
+    }
+
+    @Benchmark
+    public Object pageByReceiverOrderedByAmountThenById() {
+        int probe = nextProbe();
+        return driver.pageByReceiverOrderedByAmountThenById(workload.probeAccounts[probe], probe, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public long iterator() {
+        return driver.iterate();
+    }
+}
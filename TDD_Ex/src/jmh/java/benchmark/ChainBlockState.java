@@ -0,0 +1,42 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Thread)
+public abstract class ChainBlockState {
+
+    private static final long SEED = 42;
+
+    @Param({"ChainBlockImpl", "ColumnarChainBlock", "OffHeapChainBlock", "ConcurrentChainBlock",
+            "SnapshotChainBlock", "ShardedChainBlock"})
+    public String implementation;
+
+    @Param({"10000", "100000"})
+    public int size;
+
+    @Param({"100"})
+    public int accounts;
+
+    @Param({"40:30:20:10"})
+    public String statusMix;
+
+    @Param({"uniform"})
+    public String amounts;
+
+    protected Workload workload;
+    protected BlockDriver driver;
+
+    private int probe;
+
+    protected void createDriver() {
+        workload = new Workload(size, accounts, statusMix, amounts, SEED);
+        driver = BlockDriver.create(implementation, workload);
+    }
+
+    protected int nextProbe() {
+        probe = (probe + 1) & workload.probeMask();
+        return probe;
+    }
+}
@@ -0,0 +1,81 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChainBlockWriteBenchmark extends ChainBlockState {
+
+    private static final int PURGED_STATUS = 0;
+
+    private int nextId;
+    private int nextStatus;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        createDriver();
+    }
+
+    @Setup(Level.Iteration)
+    public void reload() {
+        driver.bulkLoad();
+        nextId = size;
+    }
+
+    @Benchmark
+    public void add() {
+        int probe = nextProbe();
+        driver.add(nextId++, workload.probeStatuses[probe], workload.probeAccounts[probe],
+                workload.probeAccounts[(probe + 1) & workload.probeMask()], workload.probeAmounts[probe]);
+    }
+
+    @Benchmark
+    public void changeTransactionStatus() {
+        nextStatus = (nextStatus + 1) % Workload.STATUS_COUNT;
+        driver.changeTransactionStatus(workload.probeIds[nextProbe()], nextStatus);
+    }
+
+    @Benchmark
+    public void removeTransactionByIdThenRestore() {
+        int id = workload.probeIds[nextProbe()];
+        driver.removeTransactionById(id);
+        driver.restore(id);
+    }
+
+    @Benchmark
+    public int addOneByOne() {
+        driver.load();
+        return driver.getCount();
+    }
+
+    @Benchmark
+    public int addAll() {
+        driver.bulkLoad();
+        return driver.getCount();
+    }
+
+    @Benchmark
+    public int addAllThenPurgeOneByOne() {
+        driver.bulkLoad();
+        return driver.removeEachWithStatus(PURGED_STATUS);
+    }
+
+    @Benchmark
+    public int addAllThenRemoveAll() {
+        driver.bulkLoad();
+        return driver.removeAllWithStatus(PURGED_STATUS);
+    }
+}
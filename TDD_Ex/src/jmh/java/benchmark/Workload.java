@@ -0,0 +1,172 @@
+package benchmark;
+
+import java.util.Random;
+
+public final class Workload {
+
+    public static final int STATUS_COUNT = 4;
+
+    private static final int PROBE_COUNT = 1 << 10;
+
+    public final int size;
+    public final int[] ids;
+    public final int[] statuses;
+    public final String[] senders;
+    public final String[] receivers;
+    public final double[] amounts;
+
+    public final int[] probeIds;
+    public final int[] missingIds;
+    public final int[] probeStatuses;
+    public final String[] probeAccounts;
+    public final String[] missingAccounts;
+    public final double[] probeAmounts;
+
+    private final int accountCount;
+    private final double maximumAmount;
+
+    public Workload(int size, int accountCount, String statusMix, String amountDistribution, long seed) {
+        if (size < 1 || accountCount < 1)
+            throw new IllegalArgumentException();
+
+        this.size = size;
+        this.accountCount = accountCount;
+
+        Random random = new Random(seed);
+        double[] statusWeights = parseStatusMix(statusMix);
+        AmountDistribution distribution = AmountDistribution.valueOf(amountDistribution.toUpperCase());
+
+        ids = new int[size];
+        statuses = new int[size];
+        senders = new String[size];
+        receivers = new String[size];
+        amounts = new double[size];
+
+        for (int i = 0; i < size; i++) {
+            ids[i] = i;
+        }
+
+        shuffle(ids, random);
+
+        String[] accounts = new String[accountCount];
+
+        for (int i = 0; i < accountCount; i++) {
+            accounts[i] = "account-" + i;
+        }
+
+        double maximum = 0;
+
+        for (int i = 0; i < size; i++) {
+            statuses[i] = pick(statusWeights, random.nextDouble());
+            senders[i] = new String(accounts[random.nextInt(accountCount)]);
+            receivers[i] = new String(accounts[random.nextInt(accountCount)]);
+            amounts[i] = distribution.next(random);
+            maximum = Math.max(maximum, amounts[i]);
+        }
+
+        maximumAmount = maximum;
+
+        probeIds = new int[PROBE_COUNT];
+        missingIds = new int[PROBE_COUNT];
+        probeStatuses = new int[PROBE_COUNT];
+        probeAccounts = new String[PROBE_COUNT];
+        missingAccounts = new String[PROBE_COUNT];
+        probeAmounts = new double[PROBE_COUNT];
+
+        for (int i = 0; i < PROBE_COUNT; i++) {
+            int row = random.nextInt(size);
+
+            probeIds[i] = ids[row];
+            missingIds[i] = size + random.nextInt(Integer.MAX_VALUE - size);
+            probeStatuses[i] = statuses[random.nextInt(size)];
+            probeAccounts[i] = accounts[random.nextInt(accountCount)];
+            missingAccounts[i] = "missing-" + i;
+            probeAmounts[i] = amounts[random.nextInt(size)];
+        }
+    }
+
+    public int probeMask() {
+        return PROBE_COUNT - 1;
+    }
+
+    public int accountCount() {
+        return accountCount;
+    }
+
+    public double maximumAmount() {
+        return maximumAmount;
+    }
+
+    private static double[] parseStatusMix(String statusMix) {
+        String[] parts = statusMix.split(":");
+
+        if (parts.length != STATUS_COUNT)
+            throw new IllegalArgumentException();
+
+        double[] cumulative = new double[STATUS_COUNT];
+        double total = 0;
+
+        for (int i = 0; i < STATUS_COUNT; i++) {
+            double weight = Double.parseDouble(parts[i]);
+
+            if (weight < 0)
+                throw new IllegalArgumentException();
+
+            total += weight;
+            cumulative[i] = total;
+        }
+
+        if (total <= 0)
+            throw new IllegalArgumentException();
+
+        for (int i = 0; i < STATUS_COUNT; i++) {
+            cumulative[i] /= total;
+        }
+
+        return cumulative;
+    }
+
+    private static int pick(double[] cumulative, double value) {
+        for (int i = 0; i < cumulative.length - 1; i++) {
+            if (value < cumulative[i])
+                return i;
+        }
+
+        return cumulative.length - 1;
+    }
+
+    private static void shuffle(int[] values, Random random) {
+        for (int i = values.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int value = values[i];
+            values[i] = values[j];
+            values[j] = value;
+        }
+    }
+
+    private enum AmountDistribution {
+
+        UNIFORM {
+            @Override
+            double next(Random random) {
+                return Math.round(random.nextDouble() * 1_000_000) / 100.0;
+            }
+        },
+
+        LOGNORMAL {
+            @Override
+            double next(Random random) {
+                return Math.round(Math.exp(4 + 1.5 * random.nextGaussian()) * 100) / 100.0;
+            }
+        },
+
+        DISCRETE {
+            @Override
+            double next(Random random) {
+                return 5 * (1 + random.nextInt(20));
+            }
+        };
+
+        abstract double next(Random random);
+    }
+}
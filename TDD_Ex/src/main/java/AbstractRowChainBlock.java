@@ -0,0 +1,714 @@
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+abstract class AbstractRowChainBlock implements ChainBlock {
+
+    static final int MISSING_ROW = -1;
+
+    private static final int DEFAULT_PARALLEL_THRESHOLD = 1 << 16;
+    private static final int MINIMUM_CHUNK_SIZE = 1 << 13;
+    private static final int CHUNKS_PER_THREAD = 4;
+    private static final int RADIX_SORT_THRESHOLD = 1 << 8;
+
+    private static final Status[] STATUSES = Status.values();
+
+    protected final SymbolTable accounts;
+
+    private ForkJoinPool pool = ForkJoinPool.commonPool();
+    private int parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+
+    private final RowOrder byAmountDescending = new RowOrder(true, false);
+    private final RowOrder byAmountDescendingThenIdDescending = new RowOrder(true, true);
+    private final RowOrder byAmountThenId = new RowOrder(false, true);
+
+    protected AbstractRowChainBlock() {
+        accounts = new SymbolTable();
+    }
+
+    public void setParallelism(ForkJoinPool pool, int parallelThreshold) {
+        if (parallelThreshold < 0)
+            throw new IllegalArgumentException();
+
+        this.pool = pool;
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    protected abstract int rowCount();
+
+    protected abstract int findRow(int id);
+
+    protected abstract int idAt(int row);
+
+    protected abstract double amountAt(int row);
+
+    protected long amountKeyAt(int row) {
+        return toSortableBits(amountAt(row));
+    }
+
+    protected double canonicalAmount(double amount) {
+        return amount;
+    }
+
+    protected abstract int statusAt(int row);
+
+    protected abstract int senderAt(int row);
+
+    protected abstract int receiverAt(int row);
+
+    protected abstract void setStatusAt(int row, int status);
+
+    protected abstract void appendRow(int id, double amount, int status, int sender, int receiver);
+
+    protected abstract void removeRow(int row);
+
+    @Override
+    public int getCount() {
+        return rowCount();
+    }
+
+    @Override
+    public void add(Transaction transaction) {
+        if (findRow(transaction.getId()) != MISSING_ROW)
+            throw new IllegalArgumentException();
+
+        appendRow(transaction.getId(), transaction.getAmount(), transaction.getStatus().ordinal(),
+                accounts.intern(transaction.getSender()), accounts.intern(transaction.getReceiver()));
+    }
+
+    @Override
+    public void addAll(Collection<? extends Transaction> transactions) {
+        IntIntHashMap batchIds = new IntIntHashMap(transactions.size());
+
+        for (Transaction transaction : transactions) {
+            if (findRow(transaction.getId()) != MISSING_ROW
+                    || batchIds.put(transaction.getId(), 0) != IntIntHashMap.MISSING)
+                throw new IllegalArgumentException();
+        }
+
+        for (Transaction transaction : transactions) {
+            add(transaction);
+        }
+    }
+
+    @Override
+    public boolean contains(Transaction transaction) {
+        int row = findRow(transaction.getId());
+
+        return row != MISSING_ROW
+                && Double.compare(amountAt(row), canonicalAmount(transaction.getAmount())) == 0
+                && statusAt(row) == transaction.getStatus().ordinal()
+                && senderAt(row) == accounts.codeOf(transaction.getSender())
+                && receiverAt(row) == accounts.codeOf(transaction.getReceiver());
+    }
+
+    @Override
+    public boolean contains(int id) {
+        return findRow(id) != MISSING_ROW;
+    }
+
+    @Override
+    public void changeTransactionStatus(int id, Status newStatus) {
+        setStatusAt(getRow(id), newStatus.ordinal());
+    }
+
+    @Override
+    public void removeTransactionById(int id) {
+        removeRow(getRow(id));
+    }
+
+    @Override
+    public int removeAll(Predicate<? super Transaction> filter) {
+        int removed = 0;
+
+        for (int row = rowCount() - 1; row >= 0; row--) {
+            if (filter.test(view(row))) {
+                removeRow(row);
+                removed++;
+            }
+        }
+
+        return removed;
+    }
+
+    @Override
+    public Transaction getById(int id) {
+        return view(getRow(id));
+    }
+
+    @Override
+    public Iterable<Transaction> getByTransactionStatus(Status status) {
+        return nonEmpty(findByTransactionStatus(status));
+    }
+
+    @Override
+    public Iterable<String> getAllSendersWithTransactionStatus(Status status) {
+        return nonEmpty(findAllSendersWithTransactionStatus(status));
+    }
+
+    @Override
+    public Iterable<String> getAllReceiversWithTransactionStatus(Status status) {
+        return nonEmpty(findAllReceiversWithTransactionStatus(status));
+    }
+
+    @Override
+    public Iterable<Transaction> getAllOrderedByAmountDescendingThenById() {
+        return views(select(r -> true, byAmountDescendingThenIdDescending));
+    }
+
+    @Override
+    public Iterable<Transaction> getBySenderOrderedByAmountDescending(String sender) {
+        return nonEmpty(findBySenderOrderedByAmountDescending(sender));
+    }
+
+    @Override
+    public Iterable<Transaction> getByReceiverOrderedByAmountThenById(String receiver) {
+        return nonEmpty(findByReceiverOrderedByAmountThenById(receiver));
+    }
+
+    @Override
+    public Iterable<Transaction> getByTransactionStatusAndMaximumAmount(Status status, double amount) {
+        int code = status.ordinal();
+        double maximum = canonicalAmount(amount);
+        return views(select(r -> statusAt(r) == code && amountAt(r) <= maximum, byAmountDescending));
+    }
+
+    @Override
+    public Iterable<Transaction> getBySenderAndMinimumAmountDescending(String sender, double amount) {
+        return nonEmpty(findBySenderAndMinimumAmountDescending(sender, amount));
+    }
+
+    @Override
+    public Iterable<Transaction> getByReceiverAndAmountRange(String receiver, double lo, double hi) {
+        return nonEmpty(findByReceiverAndAmountRange(receiver, lo, hi));
+    }
+
+    @Override
+    public Iterable<Transaction> getAllInAmountRange(double lo, double hi) {
+        double from = canonicalAmount(lo);
+        double to = canonicalAmount(hi);
+        return views(select(r -> amountAt(r) >= from && amountAt(r) <= to, byAmountThenId));
+    }
+
+    @Override
+    public Stream<Transaction> streamByTransactionStatus(Status status) {
+        int code = status.ordinal();
+        return stream(r -> statusAt(r) == code, byAmountDescending, this::view);
+    }
+
+    @Override
+    public Stream<String> streamAllSendersWithTransactionStatus(Status status) {
+        int code = status.ordinal();
+        return stream(r -> statusAt(r) == code, null, r -> accounts.symbolOf(senderAt(r)));
+    }
+
+    @Override
+    public Stream<String> streamAllReceiversWithTransactionStatus(Status status) {
+        int code = status.ordinal();
+        return stream(r -> statusAt(r) == code, null, r -> accounts.symbolOf(receiverAt(r)));
+    }
+
+    @Override
+    public Stream<Transaction> streamAllOrderedByAmountDescendingThenById() {
+        return stream(r -> true, byAmountDescendingThenIdDescending, this::view);
+    }
+
+    @Override
+    public Stream<Transaction> streamBySenderOrderedByAmountDescending(String sender) {
+        int code = accounts.codeOf(sender);
+
+        if (code == SymbolTable.MISSING)
+            return Stream.empty();
+
+        return stream(r -> senderAt(r) == code, byAmountDescendingThenIdDescending, this::view);
+    }
+
+    @Override
+    public Stream<Transaction> streamByReceiverOrderedByAmountThenById(String receiver) {
+        int code = accounts.codeOf(receiver);
+
+        if (code == SymbolTable.MISSING)
+            return Stream.empty();
+
+        return stream(r -> receiverAt(r) == code, byAmountThenId, this::view);
+    }
+
+    @Override
+    public Stream<Transaction> streamByTransactionStatusAndMaximumAmount(Status status, double amount) {
+        int code = status.ordinal();
+        double maximum = canonicalAmount(amount);
+        return stream(r -> statusAt(r) == code && amountAt(r) <= maximum, byAmountDescending, this::view);
+    }
+
+    @Override
+    public Stream<Transaction> streamBySenderAndMinimumAmountDescending(String sender, double amount) {
+        int code = accounts.codeOf(sender);
+
+        if (code == SymbolTable.MISSING)
+            return Stream.empty();
+
+        double minimum = canonicalAmount(amount);
+        return stream(r -> senderAt(r) == code && amountAt(r) > minimum, byAmountDescendingThenIdDescending,
+                this::view);
+    }
+
+    @Override
+    public Stream<Transaction> streamByReceiverAndAmountRange(String receiver, double lo, double hi) {
+        int code = accounts.codeOf(receiver);
+
+        if (code == SymbolTable.MISSING)
+            return Stream.empty();
+
+        double from = canonicalAmount(lo);
+        double to = canonicalAmount(hi);
+        return stream(r -> receiverAt(r) == code && amountAt(r) >= from && amountAt(r) < to,
+                byAmountDescendingThenIdDescending, this::view);
+    }
+
+    @Override
+    public Stream<Transaction> streamAllInAmountRange(double lo, double hi) {
+        double from = canonicalAmount(lo);
+        double to = canonicalAmount(hi);
+        return stream(r -> amountAt(r) >= from && amountAt(r) <= to, byAmountThenId, this::view);
+    }
+
+    @Override
+    public Optional<Transaction> findById(int id) {
+        int row = findRow(id);
+        return row == MISSING_ROW ? Optional.empty() : Optional.of(view(row));
+    }
+
+    @Override
+    public List<Transaction> findByTransactionStatus(Status status) {
+        int code = status.ordinal();
+        return views(select(r -> statusAt(r) == code, byAmountDescending));
+    }
+
+    @Override
+    public List<String> findAllSendersWithTransactionStatus(Status status) {
+        int code = status.ordinal();
+        RowBuffer rows = select(r -> statusAt(r) == code, null);
+
+        if (rows.length == 0)
+            return List.of();
+
+        List<String> senders = new ArrayList<>(rows.length);
+
+        for (int i = 0; i < rows.length; i++) {
+            senders.add(accounts.symbolOf(senderAt(rows.rows[i])));
+        }
+
+        return senders;
+    }
+
+    @Override
+    public List<String> findAllReceiversWithTransactionStatus(Status status) {
+        int code = status.ordinal();
+        RowBuffer rows = select(r -> statusAt(r) == code, null);
+
+        if (rows.length == 0)
+            return List.of();
+
+        List<String> receivers = new ArrayList<>(rows.length);
+
+        for (int i = 0; i < rows.length; i++) {
+            receivers.add(accounts.symbolOf(receiverAt(rows.rows[i])));
+        }
+
+        return receivers;
+    }
+
+    @Override
+    public List<Transaction> findBySenderOrderedByAmountDescending(String sender) {
+        int code = accounts.codeOf(sender);
+
+        if (code == SymbolTable.MISSING)
+            return List.of();
+
+        return views(select(r -> senderAt(r) == code, byAmountDescendingThenIdDescending));
+    }
+
+    @Override
+    public List<Transaction> findByReceiverOrderedByAmountThenById(String receiver) {
+        int code = accounts.codeOf(receiver);
+
+        if (code == SymbolTable.MISSING)
+            return List.of();
+
+        return views(select(r -> receiverAt(r) == code, byAmountThenId));
+    }
+
+    @Override
+    public List<Transaction> findBySenderAndMinimumAmountDescending(String sender, double amount) {
+        int code = accounts.codeOf(sender);
+
+        if (code == SymbolTable.MISSING)
+            return List.of();
+
+        double minimum = canonicalAmount(amount);
+        return views(select(r -> senderAt(r) == code && amountAt(r) > minimum, byAmountDescendingThenIdDescending));
+    }
+
+    @Override
+    public List<Transaction> findByReceiverAndAmountRange(String receiver, double lo, double hi) {
+        int code = accounts.codeOf(receiver);
+
+        if (code == SymbolTable.MISSING)
+            return List.of();
+
+        double from = canonicalAmount(lo);
+        double to = canonicalAmount(hi);
+        return views(select(r -> receiverAt(r) == code && amountAt(r) >= from && amountAt(r) < to,
+                byAmountDescendingThenIdDescending));
+    }
+
+    @Override
+    public Iterable<Transaction> getBySenderOrderedByAmountDescending(String sender, int limit) {
+        requireAccount(sender);
+        return ChainBlock.super.getBySenderOrderedByAmountDescending(sender, limit);
+    }
+
+    @Override
+    public Iterable<Transaction> getByReceiverOrderedByAmountThenById(String receiver, int limit) {
+        requireAccount(receiver);
+        return ChainBlock.super.getByReceiverOrderedByAmountThenById(receiver, limit);
+    }
+
+    @Override
+    public Iterable<Transaction> getBySenderAndMinimumAmountDescending(String sender, double amount, int limit) {
+        requireAccount(sender);
+        return ChainBlock.super.getBySenderAndMinimumAmountDescending(sender, amount, limit);
+    }
+
+    @Override
+    public Iterable<Transaction> getByReceiverAndAmountRange(String receiver, double lo, double hi, int limit) {
+        requireAccount(receiver);
+        return ChainBlock.super.getByReceiverAndAmountRange(receiver, lo, hi, limit);
+    }
+
+    @Override
+    public Page pageAllOrderedByAmountDescendingThenById(PageToken after, int pageSize) {
+        RowPredicate predicate = after == null ? r -> true : r -> after.compareTo(amountAt(r), idAt(r)) > 0;
+        return Page.of(views(top(predicate, byAmountDescendingThenIdDescending, Page.fetchSize(pageSize))), pageSize);
+    }
+
+    @Override
+    public Page pageByReceiverOrderedByAmountThenById(String receiver, PageToken after, int pageSize) {
+        int fetchSize = Page.fetchSize(pageSize);
+        int code = accounts.codeOf(receiver);
+
+        if (code == SymbolTable.MISSING)
+            return Page.of(List.of(), pageSize);
+
+        RowPredicate predicate = after == null
+                ? r -> receiverAt(r) == code
+                : r -> receiverAt(r) == code && after.compareTo(amountAt(r), idAt(r)) < 0;
+
+        return Page.of(views(top(predicate, byAmountThenId, fetchSize)), pageSize);
+    }
+
+    @Override
+    public double getVolumeBySender(String sender) {
+        int code = accounts.codeOf(sender);
+
+        if (code == SymbolTable.MISSING)
+            return 0;
+
+        double volume = 0;
+
+        for (int row = 0, size = rowCount(); row < size; row++) {
+            if (senderAt(row) == code) {
+                volume += amountAt(row);
+            }
+        }
+
+        return volume;
+    }
+
+    @Override
+    public double getVolumeByReceiver(String receiver) {
+        int code = accounts.codeOf(receiver);
+
+        if (code == SymbolTable.MISSING)
+            return 0;
+
+        double volume = 0;
+
+        for (int row = 0, size = rowCount(); row < size; row++) {
+            if (receiverAt(row) == code) {
+                volume += amountAt(row);
+            }
+        }
+
+        return volume;
+    }
+
+    @Override
+    public Iterator<Transaction> iterator() {
+        return new Iterator<Transaction>() {
+
+            private int row = 0;
+            @Override
+            public boolean hasNext() {
+                return row < rowCount();
+            }
+
+            @Override
+            public Transaction next() {
+                if (!hasNext())
+                    throw new NoSuchElementException();
+
+                return view(row++);
+            }
+        };
+    }
+
+    protected Transaction view(int row) {
+        return new TransactionView(idAt(row), STATUSES[statusAt(row)],
+                accounts.symbolOf(senderAt(row)), accounts.symbolOf(receiverAt(row)), amountAt(row));
+    }
+
+    private void requireAccount(String account) {
+        if (accounts.codeOf(account) == SymbolTable.MISSING)
+            throw new IllegalArgumentException();
+    }
+
+    private int getRow(int id) {
+        int row = findRow(id);
+
+        if (row == MISSING_ROW)
+            throw new IllegalArgumentException();
+
+        return row;
+    }
+
+    private RowBuffer select(RowPredicate predicate, RowComparator comparator) {
+        int size = rowCount();
+
+        if (size < parallelThreshold)
+            return scan(predicate, comparator, 0, size);
+
+        int chunkSize = Math.max(MINIMUM_CHUNK_SIZE, size / (pool.getParallelism() * CHUNKS_PER_THREAD));
+        return pool.invoke(new SelectTask(predicate, comparator, 0, size, chunkSize));
+    }
+
+    private <T> Stream<T> stream(RowPredicate predicate, RowComparator comparator, IntFunction<T> element) {
+        return RowHeap.stream(() -> {
+            RowBuffer rows = select(predicate, null);
+            return new RowHeap<>(rows.rows, rows.length, comparator, element);
+        });
+    }
+
+    private static RowBuffer scan(RowPredicate predicate, RowComparator comparator, int from, int to) {
+        RowBuffer rows = new RowBuffer();
+
+        for (int row = from; row < to; row++) {
+            if (predicate.test(row)) {
+                rows.add(row);
+            }
+        }
+
+        if (comparator != null)
+            comparator.sort(rows.rows, rows.length);
+
+        return rows;
+    }
+
+    private RowBuffer top(RowPredicate predicate, RowComparator comparator, int limit) {
+        int size = rowCount();
+        RowBuffer heap = new RowBuffer(Math.min(limit, size));
+
+        for (int row = 0; row < size; row++) {
+            if (!predicate.test(row))
+                continue;
+
+            if (heap.length < limit) {
+                heap.add(row);
+                siftUp(heap.rows, heap.length - 1, comparator);
+            } else if (comparator.compare(row, heap.rows[0]) < 0) {
+                heap.rows[0] = row;
+                siftDown(heap.rows, heap.length, comparator);
+            }
+        }
+
+        comparator.sort(heap.rows, heap.length);
+
+        return heap;
+    }
+
+    private static void siftUp(int[] heap, int index, RowComparator comparator) {
+        int row = heap[index];
+
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+
+            if (comparator.compare(row, heap[parent]) <= 0)
+                break;
+
+            heap[index] = heap[parent];
+            index = parent;
+        }
+
+        heap[index] = row;
+    }
+
+    private static void siftDown(int[] heap, int length, RowComparator comparator) {
+        int row = heap[0];
+        int index = 0;
+
+        while (true) {
+            int child = 2 * index + 1;
+
+            if (child >= length)
+                break;
+
+            if (child + 1 < length && comparator.compare(heap[child + 1], heap[child]) > 0)
+                child++;
+
+            if (comparator.compare(row, heap[child]) >= 0)
+                break;
+
+            heap[index] = heap[child];
+            index = child;
+        }
+
+        heap[index] = row;
+    }
+
+    private static RowBuffer merge(RowBuffer left, RowBuffer right, RowComparator comparator) {
+        RowBuffer merged = new RowBuffer(left.length + right.length);
+        int i = 0;
+        int j = 0;
+
+        while (i < left.length && j < right.length) {
+            if (comparator == null || comparator.compare(left.rows[i], right.rows[j]) <= 0) {
+                merged.add(left.rows[i++]);
+            } else {
+                merged.add(right.rows[j++]);
+            }
+        }
+
+        while (i < left.length) {
+            merged.add(left.rows[i++]);
+        }
+
+        while (j < right.length) {
+            merged.add(right.rows[j++]);
+        }
+
+        return merged;
+    }
+
+    static long toSortableBits(double amount) {
+        long bits = Double.doubleToLongBits(amount);
+        return bits ^ (bits >> 63 & Long.MAX_VALUE);
+    }
+
+    static double fromSortableBits(long key) {
+        return Double.longBitsToDouble(key ^ (key >> 63 & Long.MAX_VALUE));
+    }
+
+    private static <T> List<T> nonEmpty(List<T> result) {
+        if (result.isEmpty())
+            throw new IllegalArgumentException();
+
+        return result;
+    }
+
+    private List<Transaction> views(RowBuffer rows) {
+        if (rows.length == 0)
+            return List.of();
+
+        List<Transaction> result = new ArrayList<>(rows.length);
+
+        for (int i = 0; i < rows.length; i++) {
+            result.add(view(rows.rows[i]));
+        }
+
+        return result;
+    }
+
+    private static final class SelectTask extends RecursiveTask<RowBuffer> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final RowPredicate predicate;
+        private final RowComparator comparator;
+        private final int from;
+        private final int to;
+        private final int chunkSize;
+
+        private SelectTask(RowPredicate predicate, RowComparator comparator, int from, int to, int chunkSize) {
+            this.predicate = predicate;
+            this.comparator = comparator;
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        protected RowBuffer compute() {
+            if (to - from <= chunkSize)
+                return scan(predicate, comparator, from, to);
+
+            int middle = (from + to) >>> 1;
+            SelectTask left = new SelectTask(predicate, comparator, from, middle, chunkSize);
+            left.fork();
+
+            RowBuffer right = new SelectTask(predicate, comparator, middle, to, chunkSize).compute();
+
+            return merge(left.join(), right, comparator);
+        }
+    }
+
+    private final class RowOrder implements RowComparator {
+
+        private final boolean descending;
+        private final boolean thenById;
+
+        private RowOrder(boolean descending, boolean thenById) {
+            this.descending = descending;
+            this.thenById = thenById;
+        }
+
+        @Override
+        public int compare(int row1, int row2) {
+            int result = Long.compare(amountKeyAt(row1), amountKeyAt(row2));
+            if (result == 0 && thenById) {
+                result = Integer.compare(idAt(row1), idAt(row2));
+            }
+
+            return descending ? -result : result;
+        }
+
+        @Override
+        public void sort(int[] rows, int length) {
+            if (length < RADIX_SORT_THRESHOLD) {
+                RowSorter.sort(rows, length, this);
+                return;
+            }
+
+            long keyMask = descending ? Long.MAX_VALUE : Long.MIN_VALUE;
+            int tieMask = descending ? Integer.MAX_VALUE : Integer.MIN_VALUE;
+            long[] keys = new long[length];
+            int[] ties = thenById ? new int[length] : null;
+
+            for (int i = 0; i < length; i++) {
+                keys[i] = amountKeyAt(rows[i]) ^ keyMask;
+
+                if (ties != null)
+                    ties[i] = idAt(rows[i]) ^ tieMask;
+            }
+
+            RowSorter.radixSort(rows, length, keys, ties);
+        }
+    }
+}
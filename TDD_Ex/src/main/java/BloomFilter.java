@@ -0,0 +1,80 @@
+import java.nio.LongBuffer;
+
+class BloomFilter {
+
+    private static final int HASHES = 6;
+    private static final int BITS_PER_KEY = 12;
+    private static final int BITS_PER_BLOCK = 512;
+    private static final int WORDS_PER_BLOCK = BITS_PER_BLOCK / Long.SIZE;
+    private static final int BLOCK_INDEX_BITS = 9;
+
+    private final LongBuffer words;
+    private final int blockMask;
+
+    BloomFilter(int expectedInsertions) {
+        this(LongBuffer.wrap(new long[wordCount(expectedInsertions)]));
+    }
+
+    BloomFilter(LongBuffer words) {
+        int blocks = words.capacity() / WORDS_PER_BLOCK;
+
+        if (blocks == 0 || Integer.bitCount(blocks) != 1 || words.capacity() % WORDS_PER_BLOCK != 0)
+            throw new IllegalArgumentException();
+
+        this.words = words;
+        this.blockMask = blocks - 1;
+    }
+
+    static int wordCount(int expectedInsertions) {
+        long bits = Math.max(BITS_PER_BLOCK, (long) expectedInsertions * BITS_PER_KEY);
+        long blocks = Long.highestOneBit((bits + BITS_PER_BLOCK - 1) / BITS_PER_BLOCK - 1) << 1;
+
+        return (int) Math.min(1 << 24, Math.max(1, blocks)) * WORDS_PER_BLOCK;
+    }
+
+    int wordCount() {
+        return words.capacity();
+    }
+
+    long word(int index) {
+        return words.get(index);
+    }
+
+    void add(int key) {
+        long hash = hash(key);
+        int block = blockOf(hash);
+        long bits = hash * 0x9E3779B97F4A7C15L;
+
+        for (int i = 0; i < HASHES; i++, bits >>>= BLOCK_INDEX_BITS) {
+            int bit = (int) bits & (BITS_PER_BLOCK - 1);
+            int word = block + (bit >>> 6);
+            words.put(word, words.get(word) | 1L << bit);
+        }
+    }
+
+    boolean mightContain(int key) {
+        long hash = hash(key);
+        int block = blockOf(hash);
+        long bits = hash * 0x9E3779B97F4A7C15L;
+
+        for (int i = 0; i < HASHES; i++, bits >>>= BLOCK_INDEX_BITS) {
+            int bit = (int) bits & (BITS_PER_BLOCK - 1);
+
+            if ((words.get(block + (bit >>> 6)) & 1L << bit) == 0)
+                return false;
+        }
+
+        return true;
+    }
+
+    private int blockOf(long hash) {
+        return ((int) (hash >>> 32) & blockMask) * WORDS_PER_BLOCK;
+    }
+
+    private static long hash(int key) {
+        long hash = key * 0xBF58476D1CE4E5B9L;
+        hash ^= hash >>> 31;
+        hash *= 0x94D049BB133111EBL;
+        return hash ^ (hash >>> 29);
+    }
+}
@@ -0,0 +1,474 @@
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+public class CachingChainBlock extends ForwardingChainBlock {
+
+    private static final int NO_LIMIT = Integer.MIN_VALUE;
+
+    private final long maximumWeight;
+    private final LinkedHashMap<QueryKey, CachedResult> results;
+    private final Map<Status, Set<QueryKey>> keysByStatus;
+    private final Map<String, Set<QueryKey>> keysBySender;
+    private final Map<String, Set<QueryKey>> keysByReceiver;
+    private final Set<QueryKey> keysByAmount;
+
+    private long weight;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public CachingChainBlock(ChainBlock chainBlock, long maximumWeight) {
+        super(chainBlock);
+
+        if (maximumWeight < 1)
+            throw new IllegalArgumentException();
+
+        this.maximumWeight = maximumWeight;
+        this.results = new LinkedHashMap<>(16, 0.75f, true);
+        this.keysByStatus = new EnumMap<>(Status.class);
+        this.keysBySender = new HashMap<>();
+        this.keysByReceiver = new HashMap<>();
+        this.keysByAmount = new HashSet<>();
+
+        for (Status status : Status.values()) {
+            keysByStatus.put(status, new HashSet<>());
+        }
+    }
+
+    public synchronized long getHitCount() {
+        return hits;
+    }
+
+    public synchronized long getMissCount() {
+        return misses;
+    }
+
+    public synchronized long getEvictionCount() {
+        return evictions;
+    }
+
+    public synchronized int getCachedQueryCount() {
+        return results.size();
+    }
+
+    public synchronized long getWeight() {
+        return weight;
+    }
+
+    @Override
+    public synchronized void add(Transaction transaction) {
+        delegate.add(transaction);
+        invalidate(transaction.getStatus(), transaction.getSender(), transaction.getReceiver(),
+                transaction.getAmount());
+    }
+
+    @Override
+    public synchronized void addAll(Collection<? extends Transaction> transactions) {
+        delegate.addAll(transactions);
+
+        for (Transaction transaction : transactions) {
+            invalidate(transaction.getStatus(), transaction.getSender(), transaction.getReceiver(),
+                    transaction.getAmount());
+        }
+    }
+
+    @Override
+    public synchronized void changeTransactionStatus(int id, Status newStatus) {
+        Transaction transaction = delegate.getById(id);
+        Status oldStatus = transaction.getStatus();
+        String sender = transaction.getSender();
+        String receiver = transaction.getReceiver();
+        double amount = transaction.getAmount();
+
+        delegate.changeTransactionStatus(id, newStatus);
+
+        invalidate(oldStatus, sender, receiver, amount);
+        invalidate(newStatus, sender, receiver, amount);
+    }
+
+    @Override
+    public synchronized void removeTransactionById(int id) {
+        Transaction transaction = delegate.getById(id);
+        Status status = transaction.getStatus();
+        String sender = transaction.getSender();
+        String receiver = transaction.getReceiver();
+        double amount = transaction.getAmount();
+
+        delegate.removeTransactionById(id);
+
+        invalidate(status, sender, receiver, amount);
+    }
+
+    @Override
+    public synchronized int removeAll(Predicate<? super Transaction> filter) {
+        List<Transaction> removed = new ArrayList<>();
+
+        delegate.removeAll(transaction -> {
+            if (!filter.test(transaction))
+                return false;
+
+            removed.add(new TransactionImpl(transaction.getId(), transaction.getStatus(), transaction.getSender(),
+                    transaction.getReceiver(), transaction.getAmount()));
+            return true;
+        });
+
+        for (Transaction transaction : removed) {
+            invalidate(transaction.getStatus(), transaction.getSender(), transaction.getReceiver(),
+                    transaction.getAmount());
+        }
+
+        return removed.size();
+    }
+
+    @Override
+    public Iterable<Transaction> getByTransactionStatus(Status status) {
+        return lookup(QueryKey.byStatus(Query.BY_STATUS, status, 0, NO_LIMIT),
+                () -> delegate.getByTransactionStatus(status));
+    }
+
+    @Override
+    public Iterable<String> getAllSendersWithTransactionStatus(Status status) {
+        return lookup(QueryKey.byStatus(Query.SENDERS_BY_STATUS, status, 0, NO_LIMIT),
+                () -> delegate.getAllSendersWithTransactionStatus(status));
+    }
+
+    @Override
+    public Iterable<String> getAllReceiversWithTransactionStatus(Status status) {
+        return lookup(QueryKey.byStatus(Query.RECEIVERS_BY_STATUS, status, 0, NO_LIMIT),
+                () -> delegate.getAllReceiversWithTransactionStatus(status));
+    }
+
+    @Override
+    public Iterable<Transaction> getAllOrderedByAmountDescendingThenById() {
+        return lookup(QueryKey.byAmount(Query.ALL_ORDERED, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY,
+                NO_LIMIT), delegate::getAllOrderedByAmountDescendingThenById);
+    }
+
+    @Override
+    public Iterable<Transaction> getBySenderOrderedByAmountDescending(String sender) {
+        return lookup(QueryKey.byAccount(Query.BY_SENDER, sender, Double.NEGATIVE_INFINITY,
+                Double.POSITIVE_INFINITY, NO_LIMIT), () -> delegate.getBySenderOrderedByAmountDescending(sender));
+    }
+
+    @Override
+    public Iterable<Transaction> getByReceiverOrderedByAmountThenById(String receiver) {
+        return lookup(QueryKey.byAccount(Query.BY_RECEIVER, receiver, Double.NEGATIVE_INFINITY,
+                Double.POSITIVE_INFINITY, NO_LIMIT), () -> delegate.getByReceiverOrderedByAmountThenById(receiver));
+    }
+
+    @Override
+    public Iterable<Transaction> getByTransactionStatusAndMaximumAmount(Status status, double amount) {
+        return lookup(QueryKey.byStatus(Query.BY_STATUS_AND_MAXIMUM_AMOUNT, status, amount, NO_LIMIT),
+                () -> delegate.getByTransactionStatusAndMaximumAmount(status, amount));
+    }
+
+    @Override
+    public Iterable<Transaction> getBySenderAndMinimumAmountDescending(String sender, double amount) {
+        return lookup(QueryKey.byAccount(Query.BY_SENDER_AND_MINIMUM_AMOUNT, sender, amount,
+                Double.POSITIVE_INFINITY, NO_LIMIT),
+                () -> delegate.getBySenderAndMinimumAmountDescending(sender, amount));
+    }
+
+    @Override
+    public Iterable<Transaction> getByReceiverAndAmountRange(String receiver, double lo, double hi) {
+        return lookup(QueryKey.byAccount(Query.BY_RECEIVER_AND_AMOUNT_RANGE, receiver, lo, hi, NO_LIMIT),
+                () -> delegate.getByReceiverAndAmountRange(receiver, lo, hi));
+    }
+
+    @Override
+    public Iterable<Transaction> getAllInAmountRange(double lo, double hi) {
+        return lookup(QueryKey.byAmount(Query.ALL_IN_AMOUNT_RANGE, lo, hi, NO_LIMIT),
+                () -> delegate.getAllInAmountRange(lo, hi));
+    }
+
+    @Override
+    public Iterable<Transaction> getByTransactionStatus(Status status, int limit) {
+        requireLimit(limit);
+
+        return lookup(QueryKey.byStatus(Query.BY_STATUS, status, 0, limit),
+                () -> delegate.getByTransactionStatus(status, limit));
+    }
+
+    @Override
+    public Iterable<Transaction> getAllOrderedByAmountDescendingThenById(int limit) {
+        requireLimit(limit);
+
+        return lookup(QueryKey.byAmount(Query.ALL_ORDERED, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY,
+                limit), () -> delegate.getAllOrderedByAmountDescendingThenById(limit));
+    }
+
+    @Override
+    public Iterable<Transaction> getBySenderOrderedByAmountDescending(String sender, int limit) {
+        requireLimit(limit);
+
+        return lookup(QueryKey.byAccount(Query.BY_SENDER, sender, Double.NEGATIVE_INFINITY,
+                Double.POSITIVE_INFINITY, limit), () -> delegate.getBySenderOrderedByAmountDescending(sender, limit));
+    }
+
+    @Override
+    public Iterable<Transaction> getByReceiverOrderedByAmountThenById(String receiver, int limit) {
+        requireLimit(limit);
+
+        return lookup(QueryKey.byAccount(Query.BY_RECEIVER, receiver, Double.NEGATIVE_INFINITY,
+                Double.POSITIVE_INFINITY, limit),
+                () -> delegate.getByReceiverOrderedByAmountThenById(receiver, limit));
+    }
+
+    @Override
+    public Iterable<Transaction> getByTransactionStatusAndMaximumAmount(Status status, double amount, int limit) {
+        requireLimit(limit);
+
+        return lookup(QueryKey.byStatus(Query.BY_STATUS_AND_MAXIMUM_AMOUNT, status, amount, limit),
+                () -> delegate.getByTransactionStatusAndMaximumAmount(status, amount, limit));
+    }
+
+    @Override
+    public Iterable<Transaction> getBySenderAndMinimumAmountDescending(String sender, double amount, int limit) {
+        requireLimit(limit);
+
+        return lookup(QueryKey.byAccount(Query.BY_SENDER_AND_MINIMUM_AMOUNT, sender, amount,
+                Double.POSITIVE_INFINITY, limit),
+                () -> delegate.getBySenderAndMinimumAmountDescending(sender, amount, limit));
+    }
+
+    @Override
+    public Iterable<Transaction> getByReceiverAndAmountRange(String receiver, double lo, double hi, int limit) {
+        requireLimit(limit);
+
+        return lookup(QueryKey.byAccount(Query.BY_RECEIVER_AND_AMOUNT_RANGE, receiver, lo, hi, limit),
+                () -> delegate.getByReceiverAndAmountRange(receiver, lo, hi, limit));
+    }
+
+    private static void requireLimit(int limit) {
+        if (limit < 0)
+            throw new IllegalArgumentException();
+    }
+
+    private synchronized <T> List<T> lookup(QueryKey key, Supplier<Iterable<T>> query) {
+        CachedResult cached = results.get(key);
+
+        if (cached != null) {
+            hits++;
+            return cached.unwrap();
+        }
+
+        misses++;
+
+        try {
+            List<T> result = new ArrayList<>();
+            query.get().forEach(result::add);
+
+            return store(key, new CachedResult(Collections.unmodifiableList(result))).unwrap();
+        } catch (IllegalArgumentException e) {
+            store(key, CachedResult.EMPTY);
+            throw e;
+        }
+    }
+
+    private CachedResult store(QueryKey key, CachedResult result) {
+        long resultWeight = result.weight();
+
+        if (resultWeight > maximumWeight)
+            return result;
+
+        results.put(key, result);
+        index(key).add(key);
+        weight += resultWeight;
+
+        Iterator<Map.Entry<QueryKey, CachedResult>> eldest = results.entrySet().iterator();
+
+        while (weight > maximumWeight) {
+            Map.Entry<QueryKey, CachedResult> entry = eldest.next();
+            eldest.remove();
+            unindex(entry.getKey(), entry.getValue());
+            evictions++;
+        }
+
+        return result;
+    }
+
+    private void invalidate(Status status, String sender, String receiver, double amount) {
+        invalidate(keysByStatus.get(status), status, sender, receiver, amount);
+        invalidate(keysBySender.get(sender), status, sender, receiver, amount);
+        invalidate(keysByReceiver.get(receiver), status, sender, receiver, amount);
+        invalidate(keysByAmount, status, sender, receiver, amount);
+    }
+
+    private void invalidate(Set<QueryKey> keys, Status status, String sender, String receiver, double amount) {
+        if (keys == null || keys.isEmpty())
+            return;
+
+        List<QueryKey> affected = new ArrayList<>();
+
+        for (QueryKey key : keys) {
+            if (key.affectedBy(status, sender, receiver, amount)) {
+                affected.add(key);
+            }
+        }
+
+        for (QueryKey key : affected) {
+            unindex(key, results.remove(key));
+        }
+    }
+
+    private Set<QueryKey> index(QueryKey key) {
+        switch (key.query.dimension) {
+            case STATUS:
+                return keysByStatus.get(key.status);
+            case SENDER:
+                return keysBySender.computeIfAbsent(key.account, a -> new HashSet<>());
+            case RECEIVER:
+                return keysByReceiver.computeIfAbsent(key.account, a -> new HashSet<>());
+            default:
+                return keysByAmount;
+        }
+    }
+
+    private void unindex(QueryKey key, CachedResult result) {
+        Set<QueryKey> keys = index(key);
+        keys.remove(key);
+
+        if (keys.isEmpty() && key.query.dimension == Dimension.SENDER)
+            keysBySender.remove(key.account);
+
+        if (keys.isEmpty() && key.query.dimension == Dimension.RECEIVER)
+            keysByReceiver.remove(key.account);
+
+        weight -= result.weight();
+    }
+
+    private enum Dimension {
+        STATUS,
+        SENDER,
+        RECEIVER,
+        AMOUNT
+    }
+
+    private enum Query {
+        BY_STATUS(Dimension.STATUS),
+        SENDERS_BY_STATUS(Dimension.STATUS),
+        RECEIVERS_BY_STATUS(Dimension.STATUS),
+        BY_STATUS_AND_MAXIMUM_AMOUNT(Dimension.STATUS),
+        BY_SENDER(Dimension.SENDER),
+        BY_SENDER_AND_MINIMUM_AMOUNT(Dimension.SENDER),
+        BY_RECEIVER(Dimension.RECEIVER),
+        BY_RECEIVER_AND_AMOUNT_RANGE(Dimension.RECEIVER),
+        ALL_ORDERED(Dimension.AMOUNT),
+        ALL_IN_AMOUNT_RANGE(Dimension.AMOUNT);
+
+        private final Dimension dimension;
+
+        Query(Dimension dimension) {
+            this.dimension = dimension;
+        }
+    }
+
+    private static final class QueryKey {
+
+        private final Query query;
+        private final Status status;
+        private final String account;
+        private final double lo;
+        private final double hi;
+        private final int limit;
+
+        private QueryKey(Query query, Status status, String account, double lo, double hi, int limit) {
+            this.query = query;
+            this.status = status;
+            this.account = account;
+            this.lo = lo;
+            this.hi = hi;
+            this.limit = limit;
+        }
+
+        private static QueryKey byStatus(Query query, Status status, double maximumAmount, int limit) {
+            return new QueryKey(query, status, null, Double.NEGATIVE_INFINITY, maximumAmount, limit);
+        }
+
+        private static QueryKey byAccount(Query query, String account, double lo, double hi, int limit) {
+            return new QueryKey(query, null, account, lo, hi, limit);
+        }
+
+        private static QueryKey byAmount(Query query, double lo, double hi, int limit) {
+            return new QueryKey(query, null, null, lo, hi, limit);
+        }
+
+        private boolean affectedBy(Status status, String sender, String receiver, double amount) {
+            switch (query) {
+                case BY_STATUS:
+                case SENDERS_BY_STATUS:
+                case RECEIVERS_BY_STATUS:
+                    return this.status == status;
+                case BY_STATUS_AND_MAXIMUM_AMOUNT:
+                    return this.status == status && amount <= hi;
+                case BY_SENDER:
+                    return account.equals(sender);
+                case BY_SENDER_AND_MINIMUM_AMOUNT:
+                    return account.equals(sender) && amount > lo;
+                case BY_RECEIVER:
+                    return account.equals(receiver);
+                case BY_RECEIVER_AND_AMOUNT_RANGE:
+                    return account.equals(receiver) && amount >= lo && amount < hi;
+                case ALL_IN_AMOUNT_RANGE:
+                    return amount >= lo && amount <= hi;
+                default:
+                    return true;
+            }
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+
+            if (!(o instanceof QueryKey))
+                return false;
+
+            QueryKey other = (QueryKey) o;
+
+            return query == other.query && status == other.status && Objects.equals(account, other.account)
+                    && Double.compare(lo, other.lo) == 0 && Double.compare(hi, other.hi) == 0
+                    && limit == other.limit;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(query, status, account, lo, hi, limit);
+        }
+    }
+
+    private static final class CachedResult {
+
+        private static final CachedResult EMPTY = new CachedResult(null);
+
+        private final List<?> result;
+
+        private CachedResult(List<?> result) {
+            this.result = result;
+        }
+
+        private long weight() {
+            return 1 + (result == null ? 0 : result.size());
+        }
+
+        @SuppressWarnings("unchecked")
+        private <T> List<T> unwrap() {
+            if (result == null)
+                throw new IllegalArgumentException();
+
+            return (List<T>) result;
+        }
+    }
+}
@@ -1,9 +1,29 @@
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
 public interface ChainBlock extends Iterable<Transaction> {
 
     int getCount();
 
     void add(Transaction transaction);
 
+    default void addAll(Collection<? extends Transaction> transactions) {
+        for (Transaction transaction : transactions) {
+            add(transaction);
+        }
+    }
+
     boolean contains(Transaction transaction);
 
     boolean contains(int id);
@@ -12,6 +32,19 @@ public interface ChainBlock extends Iterable<Transaction> {
 
     void removeTransactionById(int id);
 
+    default int removeAll(Predicate<? super Transaction> filter) {
+        List<Integer> ids = new ArrayList<>();
+
+        for (Transaction transaction : this) {
+            if (filter.test(transaction))
+                ids.add(transaction.getId());
+        }
+
+        ids.forEach(this::removeTransactionById);
+
+        return ids.size();
+    }
+
     Transaction getById(int id);
 
     Iterable<Transaction> getByTransactionStatus(Status status);
@@ -34,4 +67,309 @@ public interface ChainBlock extends Iterable<Transaction> {
 
     Iterable<Transaction> getAllInAmountRange(double lo, double hi);
 
+    default Stream<Transaction> streamByTransactionStatus(Status status) {
+        return lazily(() -> getByTransactionStatus(status));
+    }
+
+    default Stream<String> streamAllSendersWithTransactionStatus(Status status) {
+        return lazily(() -> getAllSendersWithTransactionStatus(status));
+    }
+
+    default Stream<String> streamAllReceiversWithTransactionStatus(Status status) {
+        return lazily(() -> getAllReceiversWithTransactionStatus(status));
+    }
+
+    default Stream<Transaction> streamAllOrderedByAmountDescendingThenById() {
+        return lazily(this::getAllOrderedByAmountDescendingThenById);
+    }
+
+    default Stream<Transaction> streamBySenderOrderedByAmountDescending(String sender) {
+        return lazily(() -> getBySenderOrderedByAmountDescending(sender));
+    }
+
+    default Stream<Transaction> streamByReceiverOrderedByAmountThenById(String receiver) {
+        return lazily(() -> getByReceiverOrderedByAmountThenById(receiver));
+    }
+
+    default Stream<Transaction> streamByTransactionStatusAndMaximumAmount(Status status, double amount) {
+        return lazily(() -> getByTransactionStatusAndMaximumAmount(status, amount));
+    }
+
+    default Stream<Transaction> streamBySenderAndMinimumAmountDescending(String sender, double amount) {
+        return lazily(() -> getBySenderAndMinimumAmountDescending(sender, amount));
+    }
+
+    default Stream<Transaction> streamByReceiverAndAmountRange(String receiver, double lo, double hi) {
+        return lazily(() -> getByReceiverAndAmountRange(receiver, lo, hi));
+    }
+
+    default Stream<Transaction> streamAllInAmountRange(double lo, double hi) {
+        return lazily(() -> getAllInAmountRange(lo, hi));
+    }
+
+    default Iterable<Transaction> getByTransactionStatus(Status status, int limit) {
+        TopK<Transaction> top = new TopK<>(limit, TransactionOrder.BY_AMOUNT_DESCENDING);
+
+        for (Transaction transaction : this) {
+            if (transaction.getStatus() == status) {
+                top.offer(transaction);
+            }
+        }
+
+        return nonEmpty(top);
+    }
+
+    default Iterable<Transaction> getAllOrderedByAmountDescendingThenById(int limit) {
+        TopK<Transaction> top = new TopK<>(limit, TransactionOrder.BY_AMOUNT_DESCENDING_THEN_ID_DESCENDING);
+        forEach(top::offer);
+
+        return top.toList();
+    }
+
+    default Iterable<Transaction> getBySenderOrderedByAmountDescending(String sender, int limit) {
+        TopK<Transaction> top = new TopK<>(limit, TransactionOrder.BY_AMOUNT_DESCENDING_THEN_ID_DESCENDING);
+
+        for (Transaction transaction : this) {
+            if (transaction.getSender().equals(sender)) {
+                top.offer(transaction);
+            }
+        }
+
+        return nonEmpty(top);
+    }
+
+    default Iterable<Transaction> getByReceiverOrderedByAmountThenById(String receiver, int limit) {
+        TopK<Transaction> top = new TopK<>(limit, TransactionOrder.BY_AMOUNT_THEN_ID);
+
+        for (Transaction transaction : this) {
+            if (transaction.getReceiver().equals(receiver)) {
+                top.offer(transaction);
+            }
+        }
+
+        return nonEmpty(top);
+    }
+
+    default Iterable<Transaction> getByTransactionStatusAndMaximumAmount(Status status, double amount, int limit) {
+        TopK<Transaction> top = new TopK<>(limit, TransactionOrder.BY_AMOUNT_DESCENDING);
+
+        for (Transaction transaction : this) {
+            if (transaction.getStatus() == status && transaction.getAmount() <= amount) {
+                top.offer(transaction);
+            }
+        }
+
+        return top.toList();
+    }
+
+    default Iterable<Transaction> getBySenderAndMinimumAmountDescending(String sender, double amount, int limit) {
+        TopK<Transaction> top = new TopK<>(limit, TransactionOrder.BY_AMOUNT_DESCENDING_THEN_ID_DESCENDING);
+
+        for (Transaction transaction : this) {
+            if (transaction.getSender().equals(sender) && transaction.getAmount() > amount) {
+                top.offer(transaction);
+            }
+        }
+
+        return nonEmpty(top);
+    }
+
+    default Iterable<Transaction> getByReceiverAndAmountRange(String receiver, double lo, double hi, int limit) {
+        TopK<Transaction> top = new TopK<>(limit, TransactionOrder.BY_AMOUNT_DESCENDING_THEN_ID_DESCENDING);
+
+        for (Transaction transaction : this) {
+            if (transaction.getReceiver().equals(receiver)
+                    && transaction.getAmount() >= lo && transaction.getAmount() < hi) {
+                top.offer(transaction);
+            }
+        }
+
+        return nonEmpty(top);
+    }
+
+    default Page pageAllOrderedByAmountDescendingThenById(int pageSize) {
+        return pageAllOrderedByAmountDescendingThenById(null, pageSize);
+    }
+
+    default Page pageAllOrderedByAmountDescendingThenById(PageToken after, int pageSize) {
+        TopK<Transaction> top = new TopK<>(Page.fetchSize(pageSize),
+                TransactionOrder.BY_AMOUNT_DESCENDING_THEN_ID_DESCENDING);
+
+        for (Transaction transaction : this) {
+            if (after == null || after.compareTo(transaction.getAmount(), transaction.getId()) > 0) {
+                top.offer(transaction);
+            }
+        }
+
+        return Page.of(top.toList(), pageSize);
+    }
+
+    default Page pageByReceiverOrderedByAmountThenById(String receiver, int pageSize) {
+        return pageByReceiverOrderedByAmountThenById(receiver, null, pageSize);
+    }
+
+    default Page pageByReceiverOrderedByAmountThenById(String receiver, PageToken after, int pageSize) {
+        TopK<Transaction> top = new TopK<>(Page.fetchSize(pageSize), TransactionOrder.BY_AMOUNT_THEN_ID);
+
+        for (Transaction transaction : this) {
+            if (transaction.getReceiver().equals(receiver)
+                    && (after == null || after.compareTo(transaction.getAmount(), transaction.getId()) < 0)) {
+                top.offer(transaction);
+            }
+        }
+
+        return Page.of(top.toList(), pageSize);
+    }
+
+    default Optional<Transaction> findById(int id) {
+        return contains(id) ? Optional.of(getById(id)) : Optional.empty();
+    }
+
+    default List<Transaction> findByTransactionStatus(Status status) {
+        return matching(t -> t.getStatus() == status, TransactionOrder.BY_AMOUNT_DESCENDING);
+    }
+
+    default List<String> findAllSendersWithTransactionStatus(Status status) {
+        return accountsMatching(t -> t.getStatus() == status, Transaction::getSender);
+    }
+
+    default List<String> findAllReceiversWithTransactionStatus(Status status) {
+        return accountsMatching(t -> t.getStatus() == status, Transaction::getReceiver);
+    }
+
+    default List<Transaction> findBySenderOrderedByAmountDescending(String sender) {
+        return matching(t -> t.getSender().equals(sender), TransactionOrder.BY_AMOUNT_DESCENDING_THEN_ID_DESCENDING);
+    }
+
+    default List<Transaction> findByReceiverOrderedByAmountThenById(String receiver) {
+        return matching(t -> t.getReceiver().equals(receiver), TransactionOrder.BY_AMOUNT_THEN_ID);
+    }
+
+    default List<Transaction> findBySenderAndMinimumAmountDescending(String sender, double amount) {
+        return matching(t -> t.getSender().equals(sender) && t.getAmount() > amount,
+                TransactionOrder.BY_AMOUNT_DESCENDING_THEN_ID_DESCENDING);
+    }
+
+    default List<Transaction> findByReceiverAndAmountRange(String receiver, double lo, double hi) {
+        return matching(t -> t.getReceiver().equals(receiver) && t.getAmount() >= lo && t.getAmount() < hi,
+                TransactionOrder.BY_AMOUNT_DESCENDING_THEN_ID_DESCENDING);
+    }
+
+    default int getCountByTransactionStatus(Status status) {
+        int count = 0;
+
+        for (Transaction transaction : this) {
+            if (transaction.getStatus() == status) {
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    default double getVolumeBySender(String sender) {
+        double volume = 0;
+
+        for (Transaction transaction : this) {
+            if (transaction.getSender().equals(sender)) {
+                volume += transaction.getAmount();
+            }
+        }
+
+        return volume;
+    }
+
+    default double getVolumeByReceiver(String receiver) {
+        double volume = 0;
+
+        for (Transaction transaction : this) {
+            if (transaction.getReceiver().equals(receiver)) {
+                volume += transaction.getAmount();
+            }
+        }
+
+        return volume;
+    }
+
+    default double getMinimumAmount() {
+        Iterator<Transaction> transactions = iterator();
+
+        if (!transactions.hasNext())
+            throw new IllegalArgumentException();
+
+        double minimum = transactions.next().getAmount();
+
+        while (transactions.hasNext()) {
+            double amount = transactions.next().getAmount();
+
+            if (Double.compare(amount, minimum) < 0) {
+                minimum = amount;
+            }
+        }
+
+        return minimum;
+    }
+
+    default double getMaximumAmount() {
+        Iterator<Transaction> transactions = iterator();
+
+        if (!transactions.hasNext())
+            throw new IllegalArgumentException();
+
+        double maximum = transactions.next().getAmount();
+
+        while (transactions.hasNext()) {
+            double amount = transactions.next().getAmount();
+
+            if (Double.compare(amount, maximum) > 0) {
+                maximum = amount;
+            }
+        }
+
+        return maximum;
+    }
+
+    private static List<Transaction> nonEmpty(TopK<Transaction> top) {
+        if (top.offered() == 0)
+            throw new IllegalArgumentException();
+
+        return top.toList();
+    }
+
+    private List<Transaction> matching(Predicate<Transaction> filter, Comparator<Transaction> order) {
+        List<Transaction> result = new ArrayList<>();
+
+        for (Transaction transaction : this) {
+            if (filter.test(transaction)) {
+                result.add(transaction);
+            }
+        }
+
+        result.sort(order);
+
+        return result.isEmpty() ? List.of() : result;
+    }
+
+    private List<String> accountsMatching(Predicate<Transaction> filter, Function<Transaction, String> account) {
+        List<String> result = new ArrayList<>();
+
+        for (Transaction transaction : this) {
+            if (filter.test(transaction)) {
+                result.add(account.apply(transaction));
+            }
+        }
+
+        return result.isEmpty() ? List.of() : result;
+    }
+
+    private static <T> Stream<T> lazily(Supplier<Iterable<T>> query) {
+        return StreamSupport.stream(() -> {
+            try {
+                return query.get().spliterator();
+            } catch (IllegalArgumentException noResult) {
+                return Spliterators.emptySpliterator();
+            }
+        }, Spliterator.ORDERED, false);
+    }
+
 }
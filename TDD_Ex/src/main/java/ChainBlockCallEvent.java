@@ -0,0 +1,28 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+@Name("ChainBlock.Call")
+@Label("ChainBlock Call")
+@Category("ChainBlock")
+@Description("A ChainBlock method call recorded by InstrumentedChainBlock")
+@StackTrace(false)
+final class ChainBlockCallEvent extends Event {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Latency")
+    @Timespan(Timespan.NANOSECONDS)
+    long latency;
+
+    @Label("Result Size")
+    long resultSize;
+
+    @Label("Failed")
+    boolean failed;
+}
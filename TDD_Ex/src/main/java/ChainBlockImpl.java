@@ -1,20 +1,90 @@
+import java.util.AbstractList;
+import java.util.AbstractSet;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 public class ChainBlockImpl implements ChainBlock {
 
+    private static final int BULK_REBUILD_RATIO = 8;
+    private static final int COMPACTION_RATIO = 4;
+
+    private static final Comparator<Entry> BY_ARRIVAL = Comparator.comparingLong(e -> e.sequence);
+
+    private static final Comparator<Entry> BY_AMOUNT_DESCENDING = (e1, e2) -> {
+        int result = Double.compare(e2.amount, e1.amount);
+        if (result == 0) {
+            result = Long.compare(e1.sequence, e2.sequence);
+        }
+
+        return result;
+    };
+
+    private static final Comparator<Entry> BY_AMOUNT_THEN_ID = (e1, e2) -> {
+        int result = Double.compare(e1.amount, e2.amount);
+        if (result == 0) {
+            result = Integer.compare(e1.id, e2.id);
+        }
+
+        return result;
+    };
+
+    private static final NavigableSet<Entry> NO_ENTRIES =
+            Collections.unmodifiableNavigableSet(new TreeSet<>(BY_AMOUNT_THEN_ID));
+
+    private List<Entry> rows;
     private List<Transaction> transactions;
+    private int tombstones;
+    private long removals;
+    private IntHashMap<Entry> transactionsById;
+    private Map<Status, NavigableSet<Entry>> transactionsByStatus;
+    private Map<Status, NavigableSet<Entry>> transactionsByStatusAndAmount;
+    private NavigableSet<Entry> transactionsByAmount;
+    private IntHashMap<NavigableSet<Entry>> transactionsBySender;
+    private IntHashMap<NavigableSet<Entry>> transactionsByReceiver;
+    private SymbolTable accounts;
+    private int[] countsByStatus;
+    private double[] volumesBySender;
+    private double[] volumesByReceiver;
+    private long nextSequence;
 
     public ChainBlockImpl() {
-        transactions = new ArrayList<>();
+        rows = new ArrayList<>();
+        transactions = new LiveTransactions();
+        transactionsById = new IntHashMap<>();
+        transactionsByStatus = new EnumMap<>(Status.class);
+        transactionsByStatusAndAmount = new EnumMap<>(Status.class);
+        transactionsByAmount = new TreeSet<>(BY_AMOUNT_THEN_ID);
+        transactionsBySender = new IntHashMap<>();
+        transactionsByReceiver = new IntHashMap<>();
+        accounts = new SymbolTable();
+        countsByStatus = new int[Status.values().length];
+        volumesBySender = new double[0];
+        volumesByReceiver = new double[0];
+
+        for (Status status : Status.values()) {
+            transactionsByStatus.put(status, new TreeSet<>(BY_ARRIVAL));
+            transactionsByStatusAndAmount.put(status, new TreeSet<>(BY_AMOUNT_DESCENDING));
+        }
     }
 
     @Override
     public int getCount() {
-        return transactions.size();
+        return rows.size() - tombstones;
     }
 
     public List<Transaction> getTransactions() {
@@ -23,168 +93,366 @@ public class ChainBlockImpl implements ChainBlock {
 
     @Override
     public void add(Transaction transaction) {
-        transactions.add(transaction);
+        if (transactionsById.containsKey(transaction.getId()))
+            throw new IllegalArgumentException();
+
+        Entry entry = newEntry(transaction, nextSequence++);
+
+        addRow(entry);
+        transactionsById.put(transaction.getId(), entry);
+        addToStatusIndex(entry);
+        transactionsByAmount.add(entry);
+        addToAccountIndex(transactionsBySender, entry.sender, entry);
+        addToAccountIndex(transactionsByReceiver, entry.receiver, entry);
+        addToVolumes(entry);
+    }
+
+    @Override
+    public void addAll(Collection<? extends Transaction> batch) {
+        if (batch.isEmpty())
+            return;
+
+        List<Entry> entries = new ArrayList<>(batch.size());
+        int symbolCount = accounts.size();
+        transactionsById.ensureCapacity(transactionsById.size() + batch.size());
+
+        for (Transaction transaction : batch) {
+            Entry entry = newEntry(transaction, nextSequence + entries.size());
+
+            if (transactionsById.containsKey(entry.id)) {
+                entries.forEach(e -> transactionsById.remove(e.id));
+                accounts.truncate(symbolCount);
+                throw new IllegalArgumentException();
+            }
+
+            transactionsById.put(entry.id, entry);
+            entries.add(entry);
+        }
+
+        nextSequence += entries.size();
+        entries.forEach(this::addRow);
+
+        Map<Status, List<Entry>> entriesByStatus = new EnumMap<>(Status.class);
+        Map<Integer, List<Entry>> entriesBySender = new HashMap<>();
+        Map<Integer, List<Entry>> entriesByReceiver = new HashMap<>();
+
+        for (Entry entry : entries) {
+            addToVolumes(entry);
+            entriesByStatus.computeIfAbsent(entry.status, s -> new ArrayList<>()).add(entry);
+            entriesBySender.computeIfAbsent(entry.sender, a -> new ArrayList<>()).add(entry);
+            entriesByReceiver.computeIfAbsent(entry.receiver, a -> new ArrayList<>()).add(entry);
+        }
+
+        entriesByStatus.forEach((status, group) -> {
+            countsByStatus[status.ordinal()] += group.size();
+            transactionsByStatus.put(status, bulkInsert(transactionsByStatus.get(status), group, BY_ARRIVAL));
+            transactionsByStatusAndAmount.put(status,
+                    bulkInsert(transactionsByStatusAndAmount.get(status), group, BY_AMOUNT_DESCENDING));
+        });
+
+        transactionsByAmount = bulkInsert(transactionsByAmount, entries, BY_AMOUNT_THEN_ID);
+        entriesBySender.forEach((sender, group) -> transactionsBySender.put(sender,
+                bulkInsert(transactionsBySender.get(sender), group, BY_AMOUNT_THEN_ID)));
+        entriesByReceiver.forEach((receiver, group) -> transactionsByReceiver.put(receiver,
+                bulkInsert(transactionsByReceiver.get(receiver), group, BY_AMOUNT_THEN_ID)));
     }
 
     @Override
     public boolean contains(Transaction transaction) {
-        return transactions.contains(transaction);
+        Entry entry = transactionsById.get(transaction.getId());
+        return entry != null && entry.transaction.equals(transaction);
     }
 
     @Override
     public boolean contains(int id) {
-        Transaction transaction = transactions.stream().filter(t -> t.getId() == id)
-                .findFirst().orElse(null);
-
-        return transaction != null;
+        return transactionsById.containsKey(id);
     }
 
     @Override
     public void changeTransactionStatus(int id, Status newStatus) {
-        transactions.stream().filter(t -> t.getId() == id)
-                .findFirst().orElseThrow(IllegalArgumentException::new).setTransactionStatus(newStatus);
+        Entry entry = getEntry(id);
+
+        removeFromStatusIndex(entry);
+        entry.transaction.setTransactionStatus(newStatus);
+        entry.status = newStatus;
+        addToStatusIndex(entry);
     }
 
     @Override
     public void removeTransactionById(int id) {
-        Transaction transaction = transactions.stream().filter(t -> t.getId() == id)
-                .findFirst().orElseThrow(IllegalArgumentException::new);
+        Entry entry = transactionsById.remove(id);
 
-        transactions.remove(transaction);
+        if (entry == null)
+            throw new IllegalArgumentException();
+
+        removeFromIndexes(entry);
+        rows.set(entry.row, null);
+        tombstones++;
+        removals++;
+
+        if (tombstones * COMPACTION_RATIO > rows.size())
+            compact();
+    }
+
+    @Override
+    public int removeAll(Predicate<? super Transaction> filter) {
+        int removed = 0;
+
+        for (int row = 0; row < rows.size(); row++) {
+            Entry entry = rows.get(row);
+
+            if (entry != null && filter.test(entry.transaction)) {
+                transactionsById.remove(entry.id);
+                removeFromIndexes(entry);
+                rows.set(row, null);
+                tombstones++;
+                removals++;
+                removed++;
+            }
+        }
+
+        if (removed > 0)
+            compact();
+
+        return removed;
     }
 
 
     @Override
     public Transaction getById(int id) {
-        return transactions.stream().filter(t -> t.getId() == id)
-                .findFirst().orElseThrow(IllegalArgumentException::new);
+        return getEntry(id).transaction;
     }
 
     @Override
     public Iterable<Transaction> getByTransactionStatus(Status status) {
-        List<Transaction> transactionsByStatus = new ArrayList<>();
-        transactions.stream()
-                .filter(t -> t.getStatus().equals(status))
-                .sorted((t1, t2) -> Double.compare(t2.getAmount(), t1.getAmount()))
-                .forEach(transactionsByStatus::add);
+        return toTransactions(nonEmpty(transactionsByStatusAndAmount.get(status)));
+    }
 
-        if (transactionsByStatus.size() == 0)
-            throw new IllegalArgumentException();
+    @Override
+    public Iterable<String> getAllSendersWithTransactionStatus(Status status) {
+        return senders(nonEmpty(transactionsByStatus.get(status)));
+    }
 
-        return transactionsByStatus;
+    @Override
+    public Iterable<String> getAllReceiversWithTransactionStatus(Status status) {
+        return receivers(nonEmpty(transactionsByStatus.get(status)));
     }
 
     @Override
-    public Iterable<String> getAllSendersWithTransactionStatus(Status status) {
-        List<String> senders = new ArrayList<>();
+    public Iterable<Transaction> getAllOrderedByAmountDescendingThenById() {
+        return toTransactions(transactionsByAmount.descendingSet());
+    }
 
-        transactions.stream().filter(t -> t.getStatus().equals(status))
-                .forEach(t -> senders.add(t.getSender()));
+    @Override
+    public Iterable<Transaction> getBySenderOrderedByAmountDescending(String sender) {
+        return toTransactions(nonEmpty(senderEntries(sender, Double.NEGATIVE_INFINITY, true)));
+    }
 
-        if (senders.size() == 0)
-            throw new IllegalArgumentException();
+    @Override
+    public Iterable<Transaction> getByReceiverOrderedByAmountThenById(String receiver) {
+        return toTransactions(nonEmpty(accountEntries(transactionsByReceiver, accounts.codeOf(receiver))));
+    }
 
-        return senders;
+    @Override
+    public Iterable<Transaction> getByTransactionStatusAndMaximumAmount(Status status, double amount) {
+        return toTransactions(statusEntries(status, amount));
     }
 
     @Override
-    public Iterable<String> getAllReceiversWithTransactionStatus(Status status) {
-        List<String> receivers = new ArrayList<>();
+    public Iterable<Transaction> getBySenderAndMinimumAmountDescending(String sender, double amount) {
+        return toTransactions(nonEmpty(senderEntries(sender, amount, false)));
+    }
 
-        transactions.stream().filter(t -> t.getStatus().equals(status))
-                .forEach(t -> receivers.add(t.getReceiver()));
+    @Override
+    public Iterable<Transaction> getByReceiverAndAmountRange(String receiver, double lo, double hi) {
+        return toTransactions(nonEmpty(receiverEntries(receiver, lo, hi)));
+    }
 
-        if (receivers.size() == 0)
-            throw new IllegalArgumentException();
+    @Override
+    public Iterable<Transaction> getAllInAmountRange(double lo, double hi) {
+        return toTransactions(amountEntries(lo, hi));
+    }
 
-        return receivers;
+    @Override
+    public Iterable<Transaction> getByTransactionStatus(Status status, int limit) {
+        return toTransactions(nonEmpty(transactionsByStatusAndAmount.get(status)), limit);
     }
 
     @Override
-    public Iterable<Transaction> getAllOrderedByAmountDescendingThenById() {
-        return transactions.stream()
-                .sorted((t1, t2) -> {
-                    int result = Double.compare(t2.getAmount(), t1.getAmount());
-                    if (result == 0) {
-                        result = Integer.compare(t2.getId(), t1.getId());
-                    }
+    public Iterable<Transaction> getAllOrderedByAmountDescendingThenById(int limit) {
+        return toTransactions(transactionsByAmount.descendingSet(), limit);
+    }
 
-                    return result;
-                })
-                .collect(Collectors.toList());
+    @Override
+    public Iterable<Transaction> getBySenderOrderedByAmountDescending(String sender, int limit) {
+        return toTransactions(nonEmpty(senderEntries(sender, Double.NEGATIVE_INFINITY, true)), limit);
     }
 
     @Override
-    public Iterable<Transaction> getBySenderOrderedByAmountDescending(String sender) {
-        List<Transaction> transactionsBySender = transactions.stream()
-                .filter(t -> t.getSender().equals(sender)).sorted((t1, t2) -> Double.compare(t2.getAmount(), t1.getAmount()))
-                .collect(Collectors.toList());
+    public Iterable<Transaction> getByReceiverOrderedByAmountThenById(String receiver, int limit) {
+        return toTransactions(nonEmpty(accountEntries(transactionsByReceiver, accounts.codeOf(receiver))), limit);
+    }
 
-        if (transactionsBySender.size() == 0)
-            throw new IllegalArgumentException();
+    @Override
+    public Iterable<Transaction> getByTransactionStatusAndMaximumAmount(Status status, double amount, int limit) {
+        return toTransactions(statusEntries(status, amount), limit);
+    }
 
-        return transactionsBySender;
+    @Override
+    public Iterable<Transaction> getBySenderAndMinimumAmountDescending(String sender, double amount, int limit) {
+        return toTransactions(nonEmpty(senderEntries(sender, amount, false)), limit);
     }
 
     @Override
-    public Iterable<Transaction> getByReceiverOrderedByAmountThenById(String receiver) {
-        List<Transaction> transactionsByReceiver = transactions.stream()
-                .filter(t -> t.getReceiver().equals(receiver))
-                .sorted((t1, t2) -> {
-                    int result = Double.compare(t1.getAmount(), t2.getAmount());
+    public Iterable<Transaction> getByReceiverAndAmountRange(String receiver, double lo, double hi, int limit) {
+        return toTransactions(nonEmpty(receiverEntries(receiver, lo, hi)), limit);
+    }
 
-                    if (result == 0){
-                        result = Integer.compare(t1.getId(), t2.getId());
-                    }
+    @Override
+    public Stream<Transaction> streamByTransactionStatus(Status status) {
+        return transactionsByStatusAndAmount.get(status).stream().map(e -> e.transaction);
+    }
 
-                    return result;
-                })
-                .collect(Collectors.toList());
+    @Override
+    public Stream<String> streamAllSendersWithTransactionStatus(Status status) {
+        return transactionsByStatus.get(status).stream().map(e -> accounts.symbolOf(e.sender));
+    }
 
-        if (transactionsByReceiver.size() == 0)
-            throw new IllegalArgumentException();
+    @Override
+    public Stream<String> streamAllReceiversWithTransactionStatus(Status status) {
+        return transactionsByStatus.get(status).stream().map(e -> accounts.symbolOf(e.receiver));
+    }
 
-        return transactionsByReceiver;
+    @Override
+    public Stream<Transaction> streamAllOrderedByAmountDescendingThenById() {
+        return transactionsByAmount.descendingSet().stream().map(e -> e.transaction);
     }
 
     @Override
-    public Iterable<Transaction> getByTransactionStatusAndMaximumAmount(Status status, double amount) {
-        return transactions.stream()
-                .filter(t -> t.getStatus().equals(status) && t.getAmount() <= amount)
-                .sorted((t1, t2) -> Double.compare(t2.getAmount(), t1.getAmount()))
-                .collect(Collectors.toList());
+    public Stream<Transaction> streamBySenderOrderedByAmountDescending(String sender) {
+        return senderEntries(sender, Double.NEGATIVE_INFINITY, true).stream().map(e -> e.transaction);
     }
 
     @Override
-    public Iterable<Transaction> getBySenderAndMinimumAmountDescending(String sender, double amount) {
-        List<Transaction> transactionsBySenderAndMinAmountDesc = transactions.stream()
-                .filter(t -> t.getSender().equals(sender) && t.getAmount() > amount)
-                .sorted((t1, t2) -> Double.compare(t2.getAmount(), t1.getAmount()))
-                .collect(Collectors.toList());
+    public Stream<Transaction> streamByReceiverOrderedByAmountThenById(String receiver) {
+        return accountEntries(transactionsByReceiver, accounts.codeOf(receiver)).stream().map(e -> e.transaction);
+    }
 
-        if (transactionsBySenderAndMinAmountDesc.size() == 0)
-            throw new IllegalArgumentException();
+    @Override
+    public Stream<Transaction> streamByTransactionStatusAndMaximumAmount(Status status, double amount) {
+        return statusEntries(status, amount).stream().map(e -> e.transaction);
+    }
 
-        return transactionsBySenderAndMinAmountDesc;
+    @Override
+    public Stream<Transaction> streamBySenderAndMinimumAmountDescending(String sender, double amount) {
+        return senderEntries(sender, amount, false).stream().map(e -> e.transaction);
     }
 
     @Override
-    public Iterable<Transaction> getByReceiverAndAmountRange(String receiver, double lo, double hi) {
-        List<Transaction> transactionsByReceiverAndAmountRange = transactions.stream()
-                .filter(t -> t.getReceiver().equals(receiver) && (t.getAmount() >= lo && t.getAmount() < hi))
-                .sorted((t1, t2) -> Double.compare(t2.getAmount(), t1.getAmount()))
-                .collect(Collectors.toList());
+    public Stream<Transaction> streamByReceiverAndAmountRange(String receiver, double lo, double hi) {
+        return receiverEntries(receiver, lo, hi).stream().map(e -> e.transaction);
+    }
 
-        if (transactionsByReceiverAndAmountRange.isEmpty())
-            throw new IllegalArgumentException();
+    @Override
+    public Stream<Transaction> streamAllInAmountRange(double lo, double hi) {
+        return amountEntries(lo, hi).stream().map(e -> e.transaction);
+    }
+
+    @Override
+    public Page pageAllOrderedByAmountDescendingThenById(PageToken after, int pageSize) {
+        NavigableSet<Entry> entries = after == null
+                ? transactionsByAmount : transactionsByAmount.headSet(probe(after), false);
 
-        return transactionsByReceiverAndAmountRange;
+        return page(entries.descendingSet(), pageSize);
     }
 
     @Override
-    public Iterable<Transaction> getAllInAmountRange(double lo, double hi) {
-        return transactions.stream().filter(t -> t.getAmount() >= lo && t.getAmount() <= hi)
-                .collect(Collectors.toList());
+    public Page pageByReceiverOrderedByAmountThenById(String receiver, PageToken after, int pageSize) {
+        NavigableSet<Entry> entries = accountEntries(transactionsByReceiver, accounts.codeOf(receiver));
+
+        return page(after == null ? entries : entries.tailSet(probe(after), false), pageSize);
+    }
+
+    @Override
+    public Optional<Transaction> findById(int id) {
+        Entry entry = transactionsById.get(id);
+        return entry == null ? Optional.empty() : Optional.of(entry.transaction);
+    }
+
+    @Override
+    public List<Transaction> findByTransactionStatus(Status status) {
+        return orEmpty(transactionsByStatusAndAmount.get(status));
+    }
+
+    @Override
+    public List<String> findAllSendersWithTransactionStatus(Status status) {
+        NavigableSet<Entry> entries = transactionsByStatus.get(status);
+        return entries.isEmpty() ? List.of() : senders(entries);
+    }
+
+    @Override
+    public List<String> findAllReceiversWithTransactionStatus(Status status) {
+        NavigableSet<Entry> entries = transactionsByStatus.get(status);
+        return entries.isEmpty() ? List.of() : receivers(entries);
+    }
+
+    @Override
+    public List<Transaction> findBySenderOrderedByAmountDescending(String sender) {
+        if (!hasAccount(transactionsBySender, sender))
+            return List.of();
+
+        return orEmpty(senderEntries(sender, Double.NEGATIVE_INFINITY, true));
+    }
+
+    @Override
+    public List<Transaction> findByReceiverOrderedByAmountThenById(String receiver) {
+        if (!hasAccount(transactionsByReceiver, receiver))
+            return List.of();
+
+        return orEmpty(accountEntries(transactionsByReceiver, accounts.codeOf(receiver)));
+    }
+
+    @Override
+    public List<Transaction> findBySenderAndMinimumAmountDescending(String sender, double amount) {
+        if (!hasAccount(transactionsBySender, sender))
+            return List.of();
+
+        return orEmpty(senderEntries(sender, amount, false));
+    }
+
+    @Override
+    public List<Transaction> findByReceiverAndAmountRange(String receiver, double lo, double hi) {
+        if (!hasAccount(transactionsByReceiver, receiver))
+            return List.of();
+
+        return orEmpty(receiverEntries(receiver, lo, hi));
+    }
+
+    @Override
+    public int getCountByTransactionStatus(Status status) {
+        return countsByStatus[status.ordinal()];
+    }
+
+    @Override
+    public double getVolumeBySender(String sender) {
+        int code = accounts.codeOf(sender);
+        return code == SymbolTable.MISSING ? 0 : volumesBySender[code];
+    }
+
+    @Override
+    public double getVolumeByReceiver(String receiver) {
+        int code = accounts.codeOf(receiver);
+        return code == SymbolTable.MISSING ? 0 : volumesByReceiver[code];
+    }
+
+    @Override
+    public double getMinimumAmount() {
+        return nonEmpty(transactionsByAmount).first().amount;
+    }
+
+    @Override
+    public double getMaximumAmount() {
+        return nonEmpty(transactionsByAmount).last().amount;
     }
 
     @Override
@@ -194,13 +462,404 @@ public class ChainBlockImpl implements ChainBlock {
             private int index = 0;
             @Override
             public boolean hasNext() {
-                return index < transactions.size();
+                while (index < rows.size() && rows.get(index) == null) {
+                    index++;
+                }
+
+                return index < rows.size();
             }
 
             @Override
             public Transaction next() {
-                return transactions.get(index++);
+                if (!hasNext())
+                    throw new NoSuchElementException();
+
+                return rows.get(index++).transaction;
             }
         };
     }
+
+    private Entry getEntry(int id) {
+        Entry entry = transactionsById.get(id);
+
+        if (entry == null)
+            throw new IllegalArgumentException();
+
+        return entry;
+    }
+
+    private void addRow(Entry entry) {
+        entry.row = rows.size();
+        rows.add(entry);
+    }
+
+    private void compact() {
+        int live = 0;
+
+        for (int row = 0; row < rows.size(); row++) {
+            Entry entry = rows.get(row);
+
+            if (entry != null) {
+                entry.row = live;
+                rows.set(live++, entry);
+            }
+        }
+
+        rows.subList(live, rows.size()).clear();
+        tombstones = 0;
+    }
+
+    private void removeFromIndexes(Entry entry) {
+        removeFromStatusIndex(entry);
+        transactionsByAmount.remove(entry);
+        removeFromAccountIndex(transactionsBySender, entry.sender, entry);
+        removeFromAccountIndex(transactionsByReceiver, entry.receiver, entry);
+        removeFromVolumes(entry);
+    }
+
+    private Entry newEntry(Transaction transaction, long sequence) {
+        return new Entry(transaction, sequence, accounts.intern(transaction.getSender()),
+                accounts.intern(transaction.getReceiver()));
+    }
+
+    private void addToVolumes(Entry entry) {
+        if (volumesBySender.length < accounts.size()) {
+            int capacity = Math.max(accounts.size(), volumesBySender.length * 2);
+            volumesBySender = Arrays.copyOf(volumesBySender, capacity);
+            volumesByReceiver = Arrays.copyOf(volumesByReceiver, capacity);
+        }
+
+        volumesBySender[entry.sender] += entry.amount;
+        volumesByReceiver[entry.receiver] += entry.amount;
+    }
+
+    private void removeFromVolumes(Entry entry) {
+        volumesBySender[entry.sender] = transactionsBySender.containsKey(entry.sender)
+                ? volumesBySender[entry.sender] - entry.amount : 0;
+        volumesByReceiver[entry.receiver] = transactionsByReceiver.containsKey(entry.receiver)
+                ? volumesByReceiver[entry.receiver] - entry.amount : 0;
+    }
+
+    private void addToStatusIndex(Entry entry) {
+        countsByStatus[entry.status.ordinal()]++;
+        transactionsByStatus.get(entry.status).add(entry);
+        transactionsByStatusAndAmount.get(entry.status).add(entry);
+    }
+
+    private void removeFromStatusIndex(Entry entry) {
+        countsByStatus[entry.status.ordinal()]--;
+        transactionsByStatus.get(entry.status).remove(entry);
+        transactionsByStatusAndAmount.get(entry.status).remove(entry);
+    }
+
+    private static void addToAccountIndex(IntHashMap<NavigableSet<Entry>> index, int account, Entry entry) {
+        NavigableSet<Entry> entries = index.get(account);
+
+        if (entries == null) {
+            entries = new TreeSet<>(BY_AMOUNT_THEN_ID);
+            index.put(account, entries);
+        }
+
+        entries.add(entry);
+    }
+
+    private static void removeFromAccountIndex(IntHashMap<NavigableSet<Entry>> index, int account, Entry entry) {
+        NavigableSet<Entry> entries = index.get(account);
+        entries.remove(entry);
+
+        if (entries.isEmpty())
+            index.remove(account);
+    }
+
+    private NavigableSet<Entry> statusEntries(Status status, double maximumAmount) {
+        if (Double.isNaN(maximumAmount))
+            return NO_ENTRIES;
+
+        Entry from = new Entry(highestEqualTo(maximumAmount), Integer.MIN_VALUE, Long.MIN_VALUE);
+        return transactionsByStatusAndAmount.get(status).tailSet(from, true);
+    }
+
+    private NavigableSet<Entry> senderEntries(String sender, double minimumAmount, boolean inclusive) {
+        if (Double.isNaN(minimumAmount))
+            return NO_ENTRIES;
+
+        NavigableSet<Entry> entries = accountEntries(transactionsBySender, accounts.codeOf(sender));
+
+        if (inclusive)
+            return entries.tailSet(new Entry(lowestEqualTo(minimumAmount), Integer.MIN_VALUE, Long.MIN_VALUE), true)
+                    .descendingSet();
+
+        // Double.compare orders NaN above every amount, but no NaN amount is greater than the bound.
+        Entry from = new Entry(highestEqualTo(minimumAmount), Integer.MAX_VALUE, Long.MAX_VALUE);
+        Entry to = new Entry(Double.POSITIVE_INFINITY, Integer.MAX_VALUE, Long.MAX_VALUE);
+
+        return entries.subSet(from, false, to, true).descendingSet();
+    }
+
+    private NavigableSet<Entry> receiverEntries(String receiver, double lo, double hi) {
+        if (!(lo < hi))
+            return NO_ENTRIES;
+
+        Entry from = new Entry(lowestEqualTo(lo), Integer.MIN_VALUE, Long.MIN_VALUE);
+        Entry to = new Entry(lowestEqualTo(hi), Integer.MIN_VALUE, Long.MIN_VALUE);
+
+        return accountEntries(transactionsByReceiver, accounts.codeOf(receiver)).subSet(from, true, to, false).descendingSet();
+    }
+
+    private NavigableSet<Entry> amountEntries(double lo, double hi) {
+        if (!(lo <= hi))
+            return NO_ENTRIES;
+
+        Entry from = new Entry(lowestEqualTo(lo), Integer.MIN_VALUE, Long.MIN_VALUE);
+        Entry to = new Entry(highestEqualTo(hi), Integer.MAX_VALUE, Long.MAX_VALUE);
+
+        return transactionsByAmount.subSet(from, true, to, true);
+    }
+
+    // Double.compare orders -0.0 below 0.0 while the queries compare amounts numerically,
+    // so a bound of zero must reach past both zeros on the side it includes.
+    private static double lowestEqualTo(double amount) {
+        return amount == 0.0 ? -0.0 : amount;
+    }
+
+    private static double highestEqualTo(double amount) {
+        return amount == 0.0 ? 0.0 : amount;
+    }
+
+    private static NavigableSet<Entry> accountEntries(IntHashMap<NavigableSet<Entry>> index, int account) {
+        NavigableSet<Entry> entries = index.get(account);
+        return entries == null ? NO_ENTRIES : entries;
+    }
+
+    private List<String> senders(NavigableSet<Entry> entries) {
+        List<String> senders = new ArrayList<>(entries.size());
+        entries.forEach(e -> senders.add(accounts.symbolOf(e.sender)));
+
+        return senders;
+    }
+
+    private List<String> receivers(NavigableSet<Entry> entries) {
+        List<String> receivers = new ArrayList<>(entries.size());
+        entries.forEach(e -> receivers.add(accounts.symbolOf(e.receiver)));
+
+        return receivers;
+    }
+
+    private boolean hasAccount(IntHashMap<NavigableSet<Entry>> index, String account) {
+        int code = accounts.codeOf(account);
+        return code != SymbolTable.MISSING && index.containsKey(code);
+    }
+
+    private static Entry probe(PageToken token) {
+        return new Entry(token.getAmount(), token.getId(), 0);
+    }
+
+    private static Page page(NavigableSet<Entry> entries, int pageSize) {
+        return Page.of(toTransactions(entries, Page.fetchSize(pageSize)), pageSize);
+    }
+
+    private static List<Transaction> orEmpty(NavigableSet<Entry> entries) {
+        return entries.isEmpty() ? List.of() : toTransactions(entries);
+    }
+
+    private static NavigableSet<Entry> nonEmpty(NavigableSet<Entry> entries) {
+        if (entries.isEmpty())
+            throw new IllegalArgumentException();
+
+        return entries;
+    }
+
+    private static NavigableSet<Entry> bulkInsert(NavigableSet<Entry> entries, List<Entry> batch,
+                                                  Comparator<Entry> comparator) {
+        if (entries != null && batch.size() < entries.size() / BULK_REBUILD_RATIO) {
+            entries.addAll(batch);
+            return entries;
+        }
+
+        batch.sort(comparator);
+
+        if (entries == null || entries.isEmpty())
+            return new TreeSet<>(new SortedRun(batch, comparator));
+
+        List<Entry> merged = new ArrayList<>(entries.size() + batch.size());
+        Iterator<Entry> existing = entries.iterator();
+        Entry next = existing.next();
+        int index = 0;
+
+        while (next != null || index < batch.size()) {
+            if (next != null && (index == batch.size() || comparator.compare(next, batch.get(index)) <= 0)) {
+                merged.add(next);
+                next = existing.hasNext() ? existing.next() : null;
+            } else {
+                merged.add(batch.get(index++));
+            }
+        }
+
+        return new TreeSet<>(new SortedRun(merged, comparator));
+    }
+
+    private static List<Transaction> toTransactions(Iterable<Entry> entries, int limit) {
+        if (limit < 0)
+            throw new IllegalArgumentException();
+
+        List<Transaction> result = new ArrayList<>();
+        Iterator<Entry> iterator = entries.iterator();
+
+        while (result.size() < limit && iterator.hasNext()) {
+            result.add(iterator.next().transaction);
+        }
+
+        return result;
+    }
+
+    private static List<Transaction> toTransactions(Iterable<Entry> entries) {
+        List<Transaction> result = new ArrayList<>();
+        entries.forEach(e -> result.add(e.transaction));
+
+        return result;
+    }
+
+    private final class LiveTransactions extends AbstractList<Transaction> {
+
+        private long cursorRemovals = -1;
+        private int cursorIndex;
+        private int cursorRow;
+
+        @Override
+        public Transaction get(int index) {
+            if (index < 0 || index >= getCount())
+                throw new IndexOutOfBoundsException(index);
+
+            return rows.get(tombstones == 0 ? index : rowOf(index)).transaction;
+        }
+
+        @Override
+        public int size() {
+            return getCount();
+        }
+
+        @Override
+        public Iterator<Transaction> iterator() {
+            return ChainBlockImpl.this.iterator();
+        }
+
+        private int rowOf(int index) {
+            int live = -1;
+            int row = -1;
+
+            if (cursorRemovals == removals && index >= cursorIndex) {
+                live = cursorIndex;
+                row = cursorRow;
+            }
+
+            while (live < index) {
+                if (rows.get(++row) != null)
+                    live++;
+            }
+
+            cursorRemovals = removals;
+            cursorIndex = index;
+            cursorRow = row;
+
+            return row;
+        }
+    }
+
+    // Lets bulkInsert hand an already sorted list to the TreeSet(SortedSet) constructor, which builds the
+    // tree in linear time instead of inserting element by element.
+    private static final class SortedRun extends AbstractSet<Entry> implements SortedSet<Entry> {
+
+        private final List<Entry> elements;
+        private final Comparator<Entry> comparator;
+
+        private SortedRun(List<Entry> elements, Comparator<Entry> comparator) {
+            this.elements = elements;
+            this.comparator = comparator;
+        }
+
+        @Override
+        public Iterator<Entry> iterator() {
+            return elements.iterator();
+        }
+
+        @Override
+        public int size() {
+            return elements.size();
+        }
+
+        @Override
+        public Comparator<Entry> comparator() {
+            return comparator;
+        }
+
+        @Override
+        public Entry first() {
+            if (elements.isEmpty())
+                throw new NoSuchElementException();
+
+            return elements.get(0);
+        }
+
+        @Override
+        public Entry last() {
+            if (elements.isEmpty())
+                throw new NoSuchElementException();
+
+            return elements.get(elements.size() - 1);
+        }
+
+        @Override
+        public SortedSet<Entry> subSet(Entry fromElement, Entry toElement) {
+            if (comparator.compare(fromElement, toElement) > 0)
+                throw new IllegalArgumentException();
+
+            return new SortedRun(elements.subList(indexOf(fromElement), indexOf(toElement)), comparator);
+        }
+
+        @Override
+        public SortedSet<Entry> headSet(Entry toElement) {
+            return new SortedRun(elements.subList(0, indexOf(toElement)), comparator);
+        }
+
+        @Override
+        public SortedSet<Entry> tailSet(Entry fromElement) {
+            return new SortedRun(elements.subList(indexOf(fromElement), elements.size()), comparator);
+        }
+
+        private int indexOf(Entry element) {
+            int index = Collections.binarySearch(elements, element, comparator);
+            return index < 0 ? -index - 1 : index;
+        }
+    }
+
+    private static final class Entry {
+
+        private final Transaction transaction;
+        private final int id;
+        private final double amount;
+        private final long sequence;
+        private final int sender;
+        private final int receiver;
+        private Status status;
+        private int row;
+
+        private Entry(Transaction transaction, long sequence, int sender, int receiver) {
+            this.transaction = transaction;
+            this.id = transaction.getId();
+            this.amount = transaction.getAmount();
+            this.sequence = sequence;
+            this.sender = sender;
+            this.receiver = receiver;
+            this.status = transaction.getStatus();
+        }
+
+        private Entry(double amount, int id, long sequence) {
+            this.transaction = null;
+            this.id = id;
+            this.amount = amount;
+            this.sequence = sequence;
+            this.sender = SymbolTable.MISSING;
+            this.receiver = SymbolTable.MISSING;
+        }
+    }
 }
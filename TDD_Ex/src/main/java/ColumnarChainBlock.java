@@ -0,0 +1,169 @@
+import java.util.Arrays;
+
+public class ColumnarChainBlock extends AbstractRowChainBlock {
+
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final int FLOATING_POINT = -1;
+    private static final int MAXIMUM_SCALE = 9;
+    private static final long MAXIMUM_UNITS = 1L << 53;
+    private static final double ROUNDING_TOLERANCE = 1e-9;
+
+    private final int scale;
+    private final double unitsPerAmount;
+
+    private int[] ids;
+    private long[] amounts;
+    private byte[] statuses;
+    private int[] senders;
+    private int[] receivers;
+    private int size;
+
+    private IntIntHashMap rowsById;
+
+    public ColumnarChainBlock() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public ColumnarChainBlock(int initialCapacity) {
+        this(initialCapacity, FLOATING_POINT);
+    }
+
+    private ColumnarChainBlock(int initialCapacity, int scale) {
+        int capacity = Math.max(1, initialCapacity);
+
+        this.scale = scale;
+        this.unitsPerAmount = scale == FLOATING_POINT ? 1 : Math.pow(10, scale);
+
+        ids = new int[capacity];
+        amounts = new long[capacity];
+        statuses = new byte[capacity];
+        senders = new int[capacity];
+        receivers = new int[capacity];
+        rowsById = new IntIntHashMap(capacity);
+    }
+
+    public static ColumnarChainBlock withFixedPointAmounts(int scale) {
+        if (scale < 0 || scale > MAXIMUM_SCALE)
+            throw new IllegalArgumentException();
+
+        return new ColumnarChainBlock(DEFAULT_CAPACITY, scale);
+    }
+
+    @Override
+    protected int rowCount() {
+        return size;
+    }
+
+    @Override
+    protected int findRow(int id) {
+        return rowsById.get(id);
+    }
+
+    @Override
+    protected int idAt(int row) {
+        return ids[row];
+    }
+
+    @Override
+    protected double amountAt(int row) {
+        if (scale == FLOATING_POINT)
+            return fromSortableBits(amounts[row]);
+
+        return amounts[row] / unitsPerAmount;
+    }
+
+    @Override
+    protected long amountKeyAt(int row) {
+        return amounts[row];
+    }
+
+    @Override
+    protected double canonicalAmount(double amount) {
+        if (scale == FLOATING_POINT)
+            return amount;
+
+        double units = amount * unitsPerAmount;
+        long rounded = Math.round(units);
+
+        return isWholeUnits(units, rounded) ? rounded / unitsPerAmount : amount;
+    }
+
+    @Override
+    protected int statusAt(int row) {
+        return statuses[row];
+    }
+
+    @Override
+    protected int senderAt(int row) {
+        return senders[row];
+    }
+
+    @Override
+    protected int receiverAt(int row) {
+        return receivers[row];
+    }
+
+    @Override
+    protected void setStatusAt(int row, int status) {
+        statuses[row] = (byte) status;
+    }
+
+    @Override
+    protected void appendRow(int id, double amount, int status, int sender, int receiver) {
+        long key = amountKeyOf(amount);
+
+        if (size == ids.length)
+            grow();
+
+        int row = size++;
+        ids[row] = id;
+        amounts[row] = key;
+        statuses[row] = (byte) status;
+        senders[row] = sender;
+        receivers[row] = receiver;
+        rowsById.put(id, row);
+    }
+
+    @Override
+    protected void removeRow(int row) {
+        int last = --size;
+
+        rowsById.remove(ids[row]);
+
+        if (row != last) {
+            ids[row] = ids[last];
+            amounts[row] = amounts[last];
+            statuses[row] = statuses[last];
+            senders[row] = senders[last];
+            receivers[row] = receivers[last];
+            rowsById.put(ids[row], row);
+        }
+    }
+
+    private long amountKeyOf(double amount) {
+        if (scale == FLOATING_POINT)
+            return toSortableBits(amount);
+
+        double units = amount * unitsPerAmount;
+        long rounded = Math.round(units);
+
+        if (!isWholeUnits(units, rounded) || Math.abs(rounded) > MAXIMUM_UNITS)
+            throw new IllegalArgumentException();
+
+        return rounded;
+    }
+
+    private static boolean isWholeUnits(double units, long rounded) {
+        return Math.abs(units - rounded) <= Math.max(ROUNDING_TOLERANCE, 2 * Math.ulp(units));
+    }
+
+    private void grow() {
+        int capacity = ids.length + (ids.length >> 1) + 1;
+
+        ids = Arrays.copyOf(ids, capacity);
+        amounts = Arrays.copyOf(amounts, capacity);
+        statuses = Arrays.copyOf(statuses, capacity);
+        senders = Arrays.copyOf(senders, capacity);
+        receivers = Arrays.copyOf(receivers, capacity);
+    }
+}
@@ -0,0 +1,354 @@
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class ConcurrentChainBlock implements ChainBlock {
+
+    private final Map<Integer, Entry> transactionsById;
+    private final ConcurrentSkipListMap<Long, Entry> transactionsByArrival;
+    private final AtomicLong nextSequence;
+    private final Object[] stripes;
+
+    public ConcurrentChainBlock() {
+        this(Runtime.getRuntime().availableProcessors() * 4);
+    }
+
+    public ConcurrentChainBlock(int concurrencyLevel) {
+        int stripeCount = Integer.highestOneBit(Math.max(2, concurrencyLevel) - 1) << 1;
+
+        transactionsById = new ConcurrentHashMap<>(16, 0.75f, stripeCount);
+        transactionsByArrival = new ConcurrentSkipListMap<>();
+        nextSequence = new AtomicLong();
+        stripes = new Object[stripeCount];
+
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Object();
+        }
+    }
+
+    @Override
+    public int getCount() {
+        return transactionsById.size();
+    }
+
+    @Override
+    public void add(Transaction transaction) {
+        synchronized (stripe(transaction.getId())) {
+            Entry entry = new Entry(transaction, nextSequence.getAndIncrement());
+
+            if (transactionsById.putIfAbsent(entry.id, entry) != null)
+                throw new IllegalArgumentException();
+
+            transactionsByArrival.put(entry.sequence, entry);
+        }
+    }
+
+    @Override
+    public boolean contains(Transaction transaction) {
+        Entry entry = transactionsById.get(transaction.getId());
+
+        if (entry == null)
+            return false;
+
+        Transaction current = entry.transaction;
+        return Double.compare(current.getAmount(), transaction.getAmount()) == 0
+                && current.getStatus() == transaction.getStatus()
+                && current.getSender().equals(transaction.getSender())
+                && current.getReceiver().equals(transaction.getReceiver());
+    }
+
+    @Override
+    public boolean contains(int id) {
+        return transactionsById.containsKey(id);
+    }
+
+    @Override
+    public void changeTransactionStatus(int id, Status newStatus) {
+        synchronized (stripe(id)) {
+            Entry entry = getEntry(id);
+
+            entry.setStatus(newStatus);
+        }
+    }
+
+    @Override
+    public void removeTransactionById(int id) {
+        synchronized (stripe(id)) {
+            Entry entry = transactionsById.remove(id);
+
+            if (entry == null)
+                throw new IllegalArgumentException();
+
+            transactionsByArrival.remove(entry.sequence);
+        }
+    }
+
+    @Override
+    public int removeAll(Predicate<? super Transaction> filter) {
+        int removed = 0;
+
+        for (Entry entry : transactionsById.values()) {
+            synchronized (stripe(entry.id)) {
+                if (transactionsById.get(entry.id) == entry && filter.test(entry.transaction)) {
+                    transactionsById.remove(entry.id);
+                    transactionsByArrival.remove(entry.sequence);
+                    removed++;
+                }
+            }
+        }
+
+        return removed;
+    }
+
+    @Override
+    public Transaction getById(int id) {
+        return getEntry(id).transaction;
+    }
+
+    @Override
+    public Iterable<Transaction> getByTransactionStatus(Status status) {
+        return nonEmpty(findByTransactionStatus(status));
+    }
+
+    @Override
+    public Iterable<String> getAllSendersWithTransactionStatus(Status status) {
+        return nonEmpty(findAllSendersWithTransactionStatus(status));
+    }
+
+    @Override
+    public Iterable<String> getAllReceiversWithTransactionStatus(Status status) {
+        return nonEmpty(findAllReceiversWithTransactionStatus(status));
+    }
+
+    @Override
+    public Iterable<Transaction> getAllOrderedByAmountDescendingThenById() {
+        return toTransactions(transactions().sorted(TransactionOrder.BY_AMOUNT_DESCENDING_THEN_ID_DESCENDING));
+    }
+
+    @Override
+    public Iterable<Transaction> getBySenderOrderedByAmountDescending(String sender) {
+        return nonEmpty(findBySenderOrderedByAmountDescending(sender));
+    }
+
+    @Override
+    public Iterable<Transaction> getByReceiverOrderedByAmountThenById(String receiver) {
+        return nonEmpty(findByReceiverOrderedByAmountThenById(receiver));
+    }
+
+    @Override
+    public Iterable<Transaction> getByTransactionStatusAndMaximumAmount(Status status, double amount) {
+        return toTransactions(transactions()
+                .filter(t -> t.getStatus() == status && t.getAmount() <= amount)
+                .sorted(TransactionOrder.BY_AMOUNT_DESCENDING));
+    }
+
+    @Override
+    public Iterable<Transaction> getBySenderAndMinimumAmountDescending(String sender, double amount) {
+        return nonEmpty(findBySenderAndMinimumAmountDescending(sender, amount));
+    }
+
+    @Override
+    public Iterable<Transaction> getByReceiverAndAmountRange(String receiver, double lo, double hi) {
+        return nonEmpty(findByReceiverAndAmountRange(receiver, lo, hi));
+    }
+
+    @Override
+    public Iterable<Transaction> getAllInAmountRange(double lo, double hi) {
+        return toTransactions(transactions()
+                .filter(t -> t.getAmount() >= lo && t.getAmount() <= hi)
+                .sorted(TransactionOrder.BY_AMOUNT_THEN_ID));
+    }
+
+    @Override
+    public Stream<Transaction> streamByTransactionStatus(Status status) {
+        return ordered(t -> t.getStatus() == status, TransactionOrder.BY_AMOUNT_DESCENDING);
+    }
+
+    @Override
+    public Stream<String> streamAllSendersWithTransactionStatus(Status status) {
+        return transactions()
+                .filter(t -> t.getStatus() == status)
+                .map(Transaction::getSender);
+    }
+
+    @Override
+    public Stream<String> streamAllReceiversWithTransactionStatus(Status status) {
+        return transactions()
+                .filter(t -> t.getStatus() == status)
+                .map(Transaction::getReceiver);
+    }
+
+    @Override
+    public Stream<Transaction> streamAllOrderedByAmountDescendingThenById() {
+        return ordered(t -> true, TransactionOrder.BY_AMOUNT_DESCENDING_THEN_ID_DESCENDING);
+    }
+
+    @Override
+    public Stream<Transaction> streamBySenderOrderedByAmountDescending(String sender) {
+        return ordered(t -> t.getSender().equals(sender), TransactionOrder.BY_AMOUNT_DESCENDING_THEN_ID_DESCENDING);
+    }
+
+    @Override
+    public Stream<Transaction> streamByReceiverOrderedByAmountThenById(String receiver) {
+        return ordered(t -> t.getReceiver().equals(receiver), TransactionOrder.BY_AMOUNT_THEN_ID);
+    }
+
+    @Override
+    public Stream<Transaction> streamByTransactionStatusAndMaximumAmount(Status status, double amount) {
+        return ordered(t -> t.getStatus() == status && t.getAmount() <= amount, TransactionOrder.BY_AMOUNT_DESCENDING);
+    }
+
+    @Override
+    public Stream<Transaction> streamBySenderAndMinimumAmountDescending(String sender, double amount) {
+        return ordered(t -> t.getSender().equals(sender) && t.getAmount() > amount,
+                TransactionOrder.BY_AMOUNT_DESCENDING_THEN_ID_DESCENDING);
+    }
+
+    @Override
+    public Stream<Transaction> streamByReceiverAndAmountRange(String receiver, double lo, double hi) {
+        return ordered(t -> t.getReceiver().equals(receiver) && t.getAmount() >= lo && t.getAmount() < hi,
+                TransactionOrder.BY_AMOUNT_DESCENDING_THEN_ID_DESCENDING);
+    }
+
+    @Override
+    public Stream<Transaction> streamAllInAmountRange(double lo, double hi) {
+        return ordered(t -> t.getAmount() >= lo && t.getAmount() <= hi, TransactionOrder.BY_AMOUNT_THEN_ID);
+    }
+
+    @Override
+    public Optional<Transaction> findById(int id) {
+        Entry entry = transactionsById.get(id);
+        return entry == null ? Optional.empty() : Optional.of(entry.transaction);
+    }
+
+    @Override
+    public List<Transaction> findByTransactionStatus(Status status) {
+        return toTransactions(transactions()
+                .filter(t -> t.getStatus() == status)
+                .sorted(TransactionOrder.BY_AMOUNT_DESCENDING));
+    }
+
+    @Override
+    public List<String> findAllSendersWithTransactionStatus(Status status) {
+        return transactions()
+                .filter(t -> t.getStatus() == status)
+                .map(Transaction::getSender)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<String> findAllReceiversWithTransactionStatus(Status status) {
+        return transactions()
+                .filter(t -> t.getStatus() == status)
+                .map(Transaction::getReceiver)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<Transaction> findBySenderOrderedByAmountDescending(String sender) {
+        return toTransactions(transactions()
+                .filter(t -> t.getSender().equals(sender))
+                .sorted(TransactionOrder.BY_AMOUNT_DESCENDING_THEN_ID_DESCENDING));
+    }
+
+    @Override
+    public List<Transaction> findByReceiverOrderedByAmountThenById(String receiver) {
+        return toTransactions(transactions()
+                .filter(t -> t.getReceiver().equals(receiver))
+                .sorted(TransactionOrder.BY_AMOUNT_THEN_ID));
+    }
+
+    @Override
+    public List<Transaction> findBySenderAndMinimumAmountDescending(String sender, double amount) {
+        return toTransactions(transactions()
+                .filter(t -> t.getSender().equals(sender) && t.getAmount() > amount)
+                .sorted(TransactionOrder.BY_AMOUNT_DESCENDING_THEN_ID_DESCENDING));
+    }
+
+    @Override
+    public List<Transaction> findByReceiverAndAmountRange(String receiver, double lo, double hi) {
+        return toTransactions(transactions()
+                .filter(t -> t.getReceiver().equals(receiver) && t.getAmount() >= lo && t.getAmount() < hi)
+                .sorted(TransactionOrder.BY_AMOUNT_DESCENDING_THEN_ID_DESCENDING));
+    }
+
+    @Override
+    public Iterator<Transaction> iterator() {
+        Iterator<Entry> entries = transactionsByArrival.values().iterator();
+
+        return new Iterator<Transaction>() {
+
+            @Override
+            public boolean hasNext() {
+                return entries.hasNext();
+            }
+
+            @Override
+            public Transaction next() {
+                return entries.next().transaction;
+            }
+        };
+    }
+
+    // Each entry is read once, so a transaction is filtered and returned with the same status.
+    private Stream<Transaction> transactions() {
+        return transactionsByArrival.values().stream().map(e -> e.transaction);
+    }
+
+    private Stream<Transaction> ordered(Predicate<Transaction> filter, Comparator<Transaction> order) {
+        return RowHeap.stream(() -> RowHeap.of(transactions().filter(filter).toArray(Transaction[]::new), order));
+    }
+
+    private Entry getEntry(int id) {
+        Entry entry = transactionsById.get(id);
+
+        if (entry == null)
+            throw new IllegalArgumentException();
+
+        return entry;
+    }
+
+    private Object stripe(int id) {
+        int hash = id * 0x9E3779B9;
+        return stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+    }
+
+    private static <T> List<T> nonEmpty(List<T> result) {
+        if (result.isEmpty())
+            throw new IllegalArgumentException();
+
+        return result;
+    }
+
+    private static List<Transaction> toTransactions(Stream<Transaction> transactions) {
+        return transactions.collect(Collectors.toList());
+    }
+
+    private static final class Entry {
+
+        private final int id;
+        private final long sequence;
+        private volatile Transaction transaction;
+
+        private Entry(Transaction transaction, long sequence) {
+            this.id = transaction.getId();
+            this.sequence = sequence;
+            this.transaction = new TransactionView(id, transaction.getStatus(), transaction.getSender(),
+                    transaction.getReceiver(), transaction.getAmount());
+        }
+
+        private void setStatus(Status status) {
+            Transaction current = transaction;
+            transaction = new TransactionView(id, status, current.getSender(), current.getReceiver(),
+                    current.getAmount());
+        }
+    }
+}
@@ -0,0 +1,116 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+
+public class DurableChainBlock extends ForwardingChainBlock implements Closeable {
+
+    private final TransactionLog log;
+    private boolean failed;
+
+    public DurableChainBlock(ChainBlock chainBlock, TransactionLog log) {
+        super(chainBlock);
+        this.log = log;
+    }
+
+    public static DurableChainBlock open(Path path, ChainBlock chainBlock, FsyncPolicy fsyncPolicy)
+            throws IOException {
+        TransactionLog log = new TransactionLog(path, fsyncPolicy);
+
+        try {
+            log.replay(chainBlock);
+        } catch (IOException | RuntimeException e) {
+            log.close();
+            throw e;
+        }
+
+        return new DurableChainBlock(chainBlock, log);
+    }
+
+    public void flush() {
+        log.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        log.close();
+    }
+
+    @Override
+    public synchronized void add(Transaction transaction) {
+        if (delegate.contains(transaction.getId()))
+            throw new IllegalArgumentException();
+
+        write(() -> log.writeAdd(transaction), () -> delegate.add(transaction));
+    }
+
+    @Override
+    public synchronized void addAll(Collection<? extends Transaction> transactions) {
+        if (transactions.isEmpty())
+            return;
+
+        IntIntHashMap ids = new IntIntHashMap(transactions.size());
+
+        for (Transaction transaction : transactions) {
+            if (ids.put(transaction.getId(), 0) != IntIntHashMap.MISSING || delegate.contains(transaction.getId()))
+                throw new IllegalArgumentException();
+        }
+
+        write(() -> log.writeAddAll(transactions), () -> delegate.addAll(transactions));
+    }
+
+    @Override
+    public synchronized void changeTransactionStatus(int id, Status newStatus) {
+        if (!delegate.contains(id))
+            throw new IllegalArgumentException();
+
+        write(() -> log.writeStatusChange(id, newStatus), () -> delegate.changeTransactionStatus(id, newStatus));
+    }
+
+    @Override
+    public synchronized void removeTransactionById(int id) {
+        if (!delegate.contains(id))
+            throw new IllegalArgumentException();
+
+        write(() -> log.writeRemove(id), () -> delegate.removeTransactionById(id));
+    }
+
+    @Override
+    public synchronized int removeAll(Predicate<? super Transaction> filter) {
+        List<Integer> ids = new ArrayList<>();
+
+        for (Transaction transaction : delegate) {
+            if (filter.test(transaction))
+                ids.add(transaction.getId());
+        }
+
+        if (ids.isEmpty())
+            return 0;
+
+        IntIntHashMap removed = new IntIntHashMap(ids.size());
+        ids.forEach(id -> removed.put(id, 0));
+
+        write(() -> log.writeRemoveAll(ids), () -> delegate.removeAll(t -> removed.containsKey(t.getId())));
+
+        return ids.size();
+    }
+
+    // The record is durable before the delegate sees the change, so readers never observe a write a crash
+    // could lose. Once an append or the apply after it fails, log and block may disagree and writes stop.
+    private void write(LongSupplier append, Runnable apply) {
+        if (failed)
+            throw new IllegalStateException();
+
+        try {
+            log.awaitDurable(append.getAsLong());
+            apply.run();
+        } catch (RuntimeException e) {
+            failed = true;
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,275 @@
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+public abstract class ForwardingChainBlock implements ChainBlock {
+
+    protected final ChainBlock delegate;
+
+    protected ForwardingChainBlock(ChainBlock delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public int getCount() {
+        return delegate.getCount();
+    }
+
+    @Override
+    public void add(Transaction transaction) {
+        delegate.add(transaction);
+    }
+
+    @Override
+    public void addAll(Collection<? extends Transaction> transactions) {
+        delegate.addAll(transactions);
+    }
+
+    @Override
+    public boolean contains(Transaction transaction) {
+        return delegate.contains(transaction);
+    }
+
+    @Override
+    public boolean contains(int id) {
+        return delegate.contains(id);
+    }
+
+    @Override
+    public void changeTransactionStatus(int id, Status newStatus) {
+        delegate.changeTransactionStatus(id, newStatus);
+    }
+
+    @Override
+    public void removeTransactionById(int id) {
+        delegate.removeTransactionById(id);
+    }
+
+    @Override
+    public int removeAll(Predicate<? super Transaction> filter) {
+        return delegate.removeAll(filter);
+    }
+
+    @Override
+    public Transaction getById(int id) {
+        return delegate.getById(id);
+    }
+
+    @Override
+    public Iterable<Transaction> getByTransactionStatus(Status status) {
+        return delegate.getByTransactionStatus(status);
+    }
+
+    @Override
+    public Iterable<String> getAllSendersWithTransactionStatus(Status status) {
+        return delegate.getAllSendersWithTransactionStatus(status);
+    }
+
+    @Override
+    public Iterable<String> getAllReceiversWithTransactionStatus(Status status) {
+        return delegate.getAllReceiversWithTransactionStatus(status);
+    }
+
+    @Override
+    public Iterable<Transaction> getAllOrderedByAmountDescendingThenById() {
+        return delegate.getAllOrderedByAmountDescendingThenById();
+    }
+
+    @Override
+    public Iterable<Transaction> getBySenderOrderedByAmountDescending(String sender) {
+        return delegate.getBySenderOrderedByAmountDescending(sender);
+    }
+
+    @Override
+    public Iterable<Transaction> getByReceiverOrderedByAmountThenById(String receiver) {
+        return delegate.getByReceiverOrderedByAmountThenById(receiver);
+    }
+
+    @Override
+    public Iterable<Transaction> getByTransactionStatusAndMaximumAmount(Status status, double amount) {
+        return delegate.getByTransactionStatusAndMaximumAmount(status, amount);
+    }
+
+    @Override
+    public Iterable<Transaction> getBySenderAndMinimumAmountDescending(String sender, double amount) {
+        return delegate.getBySenderAndMinimumAmountDescending(sender, amount);
+    }
+
+    @Override
+    public Iterable<Transaction> getByReceiverAndAmountRange(String receiver, double lo, double hi) {
+        return delegate.getByReceiverAndAmountRange(receiver, lo, hi);
+    }
+
+    @Override
+    public Iterable<Transaction> getAllInAmountRange(double lo, double hi) {
+        return delegate.getAllInAmountRange(lo, hi);
+    }
+
+    @Override
+    public Stream<Transaction> streamByTransactionStatus(Status status) {
+        return delegate.streamByTransactionStatus(status);
+    }
+
+    @Override
+    public Stream<String> streamAllSendersWithTransactionStatus(Status status) {
+        return delegate.streamAllSendersWithTransactionStatus(status);
+    }
+
+    @Override
+    public Stream<String> streamAllReceiversWithTransactionStatus(Status status) {
+        return delegate.streamAllReceiversWithTransactionStatus(status);
+    }
+
+    @Override
+    public Stream<Transaction> streamAllOrderedByAmountDescendingThenById() {
+        return delegate.streamAllOrderedByAmountDescendingThenById();
+    }
+
+    @Override
+    public Stream<Transaction> streamBySenderOrderedByAmountDescending(String sender) {
+        return delegate.streamBySenderOrderedByAmountDescending(sender);
+    }
+
+    @Override
+    public Stream<Transaction> streamByReceiverOrderedByAmountThenById(String receiver) {
+        return delegate.streamByReceiverOrderedByAmountThenById(receiver);
+    }
+
+    @Override
+    public Stream<Transaction> streamByTransactionStatusAndMaximumAmount(Status status, double amount) {
+        return delegate.streamByTransactionStatusAndMaximumAmount(status, amount);
+    }
+
+    @Override
+    public Stream<Transaction> streamBySenderAndMinimumAmountDescending(String sender, double amount) {
+        return delegate.streamBySenderAndMinimumAmountDescending(sender, amount);
+    }
+
+    @Override
+    public Stream<Transaction> streamByReceiverAndAmountRange(String receiver, double lo, double hi) {
+        return delegate.streamByReceiverAndAmountRange(receiver, lo, hi);
+    }
+
+    @Override
+    public Stream<Transaction> streamAllInAmountRange(double lo, double hi) {
+        return delegate.streamAllInAmountRange(lo, hi);
+    }
+
+    @Override
+    public Iterable<Transaction> getByTransactionStatus(Status status, int limit) {
+        return delegate.getByTransactionStatus(status, limit);
+    }
+
+    @Override
+    public Iterable<Transaction> getAllOrderedByAmountDescendingThenById(int limit) {
+        return delegate.getAllOrderedByAmountDescendingThenById(limit);
+    }
+
+    @Override
+    public Iterable<Transaction> getBySenderOrderedByAmountDescending(String sender, int limit) {
+        return delegate.getBySenderOrderedByAmountDescending(sender, limit);
+    }
+
+    @Override
+    public Iterable<Transaction> getByReceiverOrderedByAmountThenById(String receiver, int limit) {
+        return delegate.getByReceiverOrderedByAmountThenById(receiver, limit);
+    }
+
+    @Override
+    public Iterable<Transaction> getByTransactionStatusAndMaximumAmount(Status status, double amount, int limit) {
+        return delegate.getByTransactionStatusAndMaximumAmount(status, amount, limit);
+    }
+
+    @Override
+    public Iterable<Transaction> getBySenderAndMinimumAmountDescending(String sender, double amount, int limit) {
+        return delegate.getBySenderAndMinimumAmountDescending(sender, amount, limit);
+    }
+
+    @Override
+    public Iterable<Transaction> getByReceiverAndAmountRange(String receiver, double lo, double hi, int limit) {
+        return delegate.getByReceiverAndAmountRange(receiver, lo, hi, limit);
+    }
+
+    @Override
+    public Page pageAllOrderedByAmountDescendingThenById(PageToken after, int pageSize) {
+        return delegate.pageAllOrderedByAmountDescendingThenById(after, pageSize);
+    }
+
+    @Override
+    public Page pageByReceiverOrderedByAmountThenById(String receiver, PageToken after, int pageSize) {
+        return delegate.pageByReceiverOrderedByAmountThenById(receiver, after, pageSize);
+    }
+
+    @Override
+    public Optional<Transaction> findById(int id) {
+        return delegate.findById(id);
+    }
+
+    @Override
+    public List<Transaction> findByTransactionStatus(Status status) {
+        return delegate.findByTransactionStatus(status);
+    }
+
+    @Override
+    public List<String> findAllSendersWithTransactionStatus(Status status) {
+        return delegate.findAllSendersWithTransactionStatus(status);
+    }
+
+    @Override
+    public List<String> findAllReceiversWithTransactionStatus(Status status) {
+        return delegate.findAllReceiversWithTransactionStatus(status);
+    }
+
+    @Override
+    public List<Transaction> findBySenderOrderedByAmountDescending(String sender) {
+        return delegate.findBySenderOrderedByAmountDescending(sender);
+    }
+
+    @Override
+    public List<Transaction> findByReceiverOrderedByAmountThenById(String receiver) {
+        return delegate.findByReceiverOrderedByAmountThenById(receiver);
+    }
+
+    @Override
+    public List<Transaction> findBySenderAndMinimumAmountDescending(String sender, double amount) {
+        return delegate.findBySenderAndMinimumAmountDescending(sender, amount);
+    }
+
+    @Override
+    public List<Transaction> findByReceiverAndAmountRange(String receiver, double lo, double hi) {
+        return delegate.findByReceiverAndAmountRange(receiver, lo, hi);
+    }
+
+    @Override
+    public int getCountByTransactionStatus(Status status) {
+        return delegate.getCountByTransactionStatus(status);
+    }
+
+    @Override
+    public double getVolumeBySender(String sender) {
+        return delegate.getVolumeBySender(sender);
+    }
+
+    @Override
+    public double getVolumeByReceiver(String receiver) {
+        return delegate.getVolumeByReceiver(receiver);
+    }
+
+    @Override
+    public double getMinimumAmount() {
+        return delegate.getMinimumAmount();
+    }
+
+    @Override
+    public double getMaximumAmount() {
+        return delegate.getMaximumAmount();
+    }
+
+    @Override
+    public Iterator<Transaction> iterator() {
+        return delegate.iterator();
+    }
+}
@@ -0,0 +1,5 @@
+public enum FsyncPolicy {
+    ALWAYS,
+    BATCH,
+    OS
+}
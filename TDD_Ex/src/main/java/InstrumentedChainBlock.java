@@ -0,0 +1,516 @@
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+import java.util.stream.Stream;
+
+public class InstrumentedChainBlock extends ForwardingChainBlock {
+
+    public enum Operation {
+        GET_COUNT,
+        ADD,
+        ADD_ALL,
+        CONTAINS,
+        CONTAINS_ID,
+        CHANGE_TRANSACTION_STATUS,
+        REMOVE_TRANSACTION_BY_ID,
+        REMOVE_ALL,
+        GET_BY_ID,
+        GET_BY_TRANSACTION_STATUS,
+        GET_ALL_SENDERS_WITH_TRANSACTION_STATUS,
+        GET_ALL_RECEIVERS_WITH_TRANSACTION_STATUS,
+        GET_ALL_ORDERED_BY_AMOUNT_DESCENDING_THEN_BY_ID,
+        GET_BY_SENDER_ORDERED_BY_AMOUNT_DESCENDING,
+        GET_BY_RECEIVER_ORDERED_BY_AMOUNT_THEN_BY_ID,
+        GET_BY_TRANSACTION_STATUS_AND_MAXIMUM_AMOUNT,
+        GET_BY_SENDER_AND_MINIMUM_AMOUNT_DESCENDING,
+        GET_BY_RECEIVER_AND_AMOUNT_RANGE,
+        GET_ALL_IN_AMOUNT_RANGE,
+        GET_BY_TRANSACTION_STATUS_TOP_K,
+        GET_ALL_ORDERED_BY_AMOUNT_DESCENDING_THEN_BY_ID_TOP_K,
+        GET_BY_SENDER_ORDERED_BY_AMOUNT_DESCENDING_TOP_K,
+        GET_BY_RECEIVER_ORDERED_BY_AMOUNT_THEN_BY_ID_TOP_K,
+        GET_BY_TRANSACTION_STATUS_AND_MAXIMUM_AMOUNT_TOP_K,
+        GET_BY_SENDER_AND_MINIMUM_AMOUNT_DESCENDING_TOP_K,
+        GET_BY_RECEIVER_AND_AMOUNT_RANGE_TOP_K,
+        STREAM_BY_TRANSACTION_STATUS,
+        STREAM_ALL_SENDERS_WITH_TRANSACTION_STATUS,
+        STREAM_ALL_RECEIVERS_WITH_TRANSACTION_STATUS,
+        STREAM_ALL_ORDERED_BY_AMOUNT_DESCENDING_THEN_BY_ID,
+        STREAM_BY_SENDER_ORDERED_BY_AMOUNT_DESCENDING,
+        STREAM_BY_RECEIVER_ORDERED_BY_AMOUNT_THEN_BY_ID,
+        STREAM_BY_TRANSACTION_STATUS_AND_MAXIMUM_AMOUNT,
+        STREAM_BY_SENDER_AND_MINIMUM_AMOUNT_DESCENDING,
+        STREAM_BY_RECEIVER_AND_AMOUNT_RANGE,
+        STREAM_ALL_IN_AMOUNT_RANGE,
+        GET_COUNT_BY_TRANSACTION_STATUS,
+        GET_VOLUME_BY_SENDER,
+        GET_VOLUME_BY_RECEIVER,
+        GET_MINIMUM_AMOUNT,
+        GET_MAXIMUM_AMOUNT,
+        FIND_BY_ID,
+        FIND_BY_TRANSACTION_STATUS,
+        FIND_ALL_SENDERS_WITH_TRANSACTION_STATUS,
+        FIND_ALL_RECEIVERS_WITH_TRANSACTION_STATUS,
+        FIND_BY_SENDER_ORDERED_BY_AMOUNT_DESCENDING,
+        FIND_BY_RECEIVER_ORDERED_BY_AMOUNT_THEN_BY_ID,
+        FIND_BY_SENDER_AND_MINIMUM_AMOUNT_DESCENDING,
+        FIND_BY_RECEIVER_AND_AMOUNT_RANGE,
+        PAGE_ALL_ORDERED_BY_AMOUNT_DESCENDING_THEN_BY_ID,
+        PAGE_BY_RECEIVER_ORDERED_BY_AMOUNT_THEN_BY_ID
+    }
+
+    private static final Operation[] OPERATIONS = Operation.values();
+
+    private final Recorder[] recorders;
+    private final boolean jfrEvents;
+
+    public InstrumentedChainBlock(ChainBlock chainBlock) {
+        this(chainBlock, false);
+    }
+
+    public InstrumentedChainBlock(ChainBlock chainBlock, boolean jfrEvents) {
+        super(chainBlock);
+        this.jfrEvents = jfrEvents;
+        this.recorders = new Recorder[OPERATIONS.length];
+
+        for (int i = 0; i < recorders.length; i++) {
+            recorders[i] = new Recorder();
+        }
+    }
+
+    public Map<Operation, OperationMetrics> snapshot() {
+        Map<Operation, OperationMetrics> metrics = new EnumMap<>(Operation.class);
+
+        for (Operation operation : OPERATIONS) {
+            metrics.put(operation, recorders[operation.ordinal()].snapshot());
+        }
+
+        return Collections.unmodifiableMap(metrics);
+    }
+
+    public OperationMetrics snapshot(Operation operation) {
+        return recorders[operation.ordinal()].snapshot();
+    }
+
+    @Override
+    public int getCount() {
+        return timed(Operation.GET_COUNT, delegate::getCount, result -> 1);
+    }
+
+    @Override
+    public void add(Transaction transaction) {
+        timed(Operation.ADD, () -> delegate.add(transaction), 1);
+    }
+
+    @Override
+    public void addAll(Collection<? extends Transaction> transactions) {
+        timed(Operation.ADD_ALL, () -> delegate.addAll(transactions), transactions.size());
+    }
+
+    @Override
+    public boolean contains(Transaction transaction) {
+        return timed(Operation.CONTAINS, () -> delegate.contains(transaction), result -> result ? 1 : 0);
+    }
+
+    @Override
+    public boolean contains(int id) {
+        return timed(Operation.CONTAINS_ID, () -> delegate.contains(id), result -> result ? 1 : 0);
+    }
+
+    @Override
+    public void changeTransactionStatus(int id, Status newStatus) {
+        timed(Operation.CHANGE_TRANSACTION_STATUS, () -> delegate.changeTransactionStatus(id, newStatus), 1);
+    }
+
+    @Override
+    public void removeTransactionById(int id) {
+        timed(Operation.REMOVE_TRANSACTION_BY_ID, () -> delegate.removeTransactionById(id), 1);
+    }
+
+    @Override
+    public int removeAll(Predicate<? super Transaction> filter) {
+        return timed(Operation.REMOVE_ALL, () -> delegate.removeAll(filter), Integer::longValue);
+    }
+
+    @Override
+    public Transaction getById(int id) {
+        return timed(Operation.GET_BY_ID, () -> delegate.getById(id), result -> 1);
+    }
+
+    @Override
+    public Iterable<Transaction> getByTransactionStatus(Status status) {
+        return query(Operation.GET_BY_TRANSACTION_STATUS, () -> delegate.getByTransactionStatus(status));
+    }
+
+    @Override
+    public Iterable<String> getAllSendersWithTransactionStatus(Status status) {
+        return query(Operation.GET_ALL_SENDERS_WITH_TRANSACTION_STATUS,
+                () -> delegate.getAllSendersWithTransactionStatus(status));
+    }
+
+    @Override
+    public Iterable<String> getAllReceiversWithTransactionStatus(Status status) {
+        return query(Operation.GET_ALL_RECEIVERS_WITH_TRANSACTION_STATUS,
+                () -> delegate.getAllReceiversWithTransactionStatus(status));
+    }
+
+    @Override
+    public Iterable<Transaction> getAllOrderedByAmountDescendingThenById() {
+        return query(Operation.GET_ALL_ORDERED_BY_AMOUNT_DESCENDING_THEN_BY_ID,
+                () -> delegate.getAllOrderedByAmountDescendingThenById());
+    }
+
+    @Override
+    public Iterable<Transaction> getBySenderOrderedByAmountDescending(String sender) {
+        return query(Operation.GET_BY_SENDER_ORDERED_BY_AMOUNT_DESCENDING,
+                () -> delegate.getBySenderOrderedByAmountDescending(sender));
+    }
+
+    @Override
+    public Iterable<Transaction> getByReceiverOrderedByAmountThenById(String receiver) {
+        return query(Operation.GET_BY_RECEIVER_ORDERED_BY_AMOUNT_THEN_BY_ID,
+                () -> delegate.getByReceiverOrderedByAmountThenById(receiver));
+    }
+
+    @Override
+    public Iterable<Transaction> getByTransactionStatusAndMaximumAmount(Status status, double amount) {
+        return query(Operation.GET_BY_TRANSACTION_STATUS_AND_MAXIMUM_AMOUNT,
+                () -> delegate.getByTransactionStatusAndMaximumAmount(status, amount));
+    }
+
+    @Override
+    public Iterable<Transaction> getBySenderAndMinimumAmountDescending(String sender, double amount) {
+        return query(Operation.GET_BY_SENDER_AND_MINIMUM_AMOUNT_DESCENDING,
+                () -> delegate.getBySenderAndMinimumAmountDescending(sender, amount));
+    }
+
+    @Override
+    public Iterable<Transaction> getByReceiverAndAmountRange(String receiver, double lo, double hi) {
+        return query(Operation.GET_BY_RECEIVER_AND_AMOUNT_RANGE,
+                () -> delegate.getByReceiverAndAmountRange(receiver, lo, hi));
+    }
+
+    @Override
+    public Iterable<Transaction> getAllInAmountRange(double lo, double hi) {
+        return query(Operation.GET_ALL_IN_AMOUNT_RANGE, () -> delegate.getAllInAmountRange(lo, hi));
+    }
+
+    @Override
+    public Stream<Transaction> streamByTransactionStatus(Status status) {
+        return stream(Operation.STREAM_BY_TRANSACTION_STATUS, () -> delegate.streamByTransactionStatus(status));
+    }
+
+    @Override
+    public Stream<String> streamAllSendersWithTransactionStatus(Status status) {
+        return stream(Operation.STREAM_ALL_SENDERS_WITH_TRANSACTION_STATUS,
+                () -> delegate.streamAllSendersWithTransactionStatus(status));
+    }
+
+    @Override
+    public Stream<String> streamAllReceiversWithTransactionStatus(Status status) {
+        return stream(Operation.STREAM_ALL_RECEIVERS_WITH_TRANSACTION_STATUS,
+                () -> delegate.streamAllReceiversWithTransactionStatus(status));
+    }
+
+    @Override
+    public Stream<Transaction> streamAllOrderedByAmountDescendingThenById() {
+        return stream(Operation.STREAM_ALL_ORDERED_BY_AMOUNT_DESCENDING_THEN_BY_ID,
+                () -> delegate.streamAllOrderedByAmountDescendingThenById());
+    }
+
+    @Override
+    public Stream<Transaction> streamBySenderOrderedByAmountDescending(String sender) {
+        return stream(Operation.STREAM_BY_SENDER_ORDERED_BY_AMOUNT_DESCENDING,
+                () -> delegate.streamBySenderOrderedByAmountDescending(sender));
+    }
+
+    @Override
+    public Stream<Transaction> streamByReceiverOrderedByAmountThenById(String receiver) {
+        return stream(Operation.STREAM_BY_RECEIVER_ORDERED_BY_AMOUNT_THEN_BY_ID,
+                () -> delegate.streamByReceiverOrderedByAmountThenById(receiver));
+    }
+
+    @Override
+    public Stream<Transaction> streamByTransactionStatusAndMaximumAmount(Status status, double amount) {
+        return stream(Operation.STREAM_BY_TRANSACTION_STATUS_AND_MAXIMUM_AMOUNT,
+                () -> delegate.streamByTransactionStatusAndMaximumAmount(status, amount));
+    }
+
+    @Override
+    public Stream<Transaction> streamBySenderAndMinimumAmountDescending(String sender, double amount) {
+        return stream(Operation.STREAM_BY_SENDER_AND_MINIMUM_AMOUNT_DESCENDING,
+                () -> delegate.streamBySenderAndMinimumAmountDescending(sender, amount));
+    }
+
+    @Override
+    public Stream<Transaction> streamByReceiverAndAmountRange(String receiver, double lo, double hi) {
+        return stream(Operation.STREAM_BY_RECEIVER_AND_AMOUNT_RANGE,
+                () -> delegate.streamByReceiverAndAmountRange(receiver, lo, hi));
+    }
+
+    @Override
+    public Stream<Transaction> streamAllInAmountRange(double lo, double hi) {
+        return stream(Operation.STREAM_ALL_IN_AMOUNT_RANGE, () -> delegate.streamAllInAmountRange(lo, hi));
+    }
+
+    @Override
+    public Iterable<Transaction> getByTransactionStatus(Status status, int limit) {
+        return query(Operation.GET_BY_TRANSACTION_STATUS_TOP_K, () -> delegate.getByTransactionStatus(status, limit));
+    }
+
+    @Override
+    public Iterable<Transaction> getAllOrderedByAmountDescendingThenById(int limit) {
+        return query(Operation.GET_ALL_ORDERED_BY_AMOUNT_DESCENDING_THEN_BY_ID_TOP_K,
+                () -> delegate.getAllOrderedByAmountDescendingThenById(limit));
+    }
+
+    @Override
+    public Iterable<Transaction> getBySenderOrderedByAmountDescending(String sender, int limit) {
+        return query(Operation.GET_BY_SENDER_ORDERED_BY_AMOUNT_DESCENDING_TOP_K,
+                () -> delegate.getBySenderOrderedByAmountDescending(sender, limit));
+    }
+
+    @Override
+    public Iterable<Transaction> getByReceiverOrderedByAmountThenById(String receiver, int limit) {
+        return query(Operation.GET_BY_RECEIVER_ORDERED_BY_AMOUNT_THEN_BY_ID_TOP_K,
+                () -> delegate.getByReceiverOrderedByAmountThenById(receiver, limit));
+    }
+
+    @Override
+    public Iterable<Transaction> getByTransactionStatusAndMaximumAmount(Status status, double amount, int limit) {
+        return query(Operation.GET_BY_TRANSACTION_STATUS_AND_MAXIMUM_AMOUNT_TOP_K,
+                () -> delegate.getByTransactionStatusAndMaximumAmount(status, amount, limit));
+    }
+
+    @Override
+    public Iterable<Transaction> getBySenderAndMinimumAmountDescending(String sender, double amount, int limit) {
+        return query(Operation.GET_BY_SENDER_AND_MINIMUM_AMOUNT_DESCENDING_TOP_K,
+                () -> delegate.getBySenderAndMinimumAmountDescending(sender, amount, limit));
+    }
+
+    @Override
+    public Iterable<Transaction> getByReceiverAndAmountRange(String receiver, double lo, double hi, int limit) {
+        return query(Operation.GET_BY_RECEIVER_AND_AMOUNT_RANGE_TOP_K,
+                () -> delegate.getByReceiverAndAmountRange(receiver, lo, hi, limit));
+    }
+
+    @Override
+    public Page pageAllOrderedByAmountDescendingThenById(PageToken after, int pageSize) {
+        return timed(Operation.PAGE_ALL_ORDERED_BY_AMOUNT_DESCENDING_THEN_BY_ID,
+                () -> delegate.pageAllOrderedByAmountDescendingThenById(after, pageSize),
+                result -> result.getTransactions().size());
+    }
+
+    @Override
+    public Page pageByReceiverOrderedByAmountThenById(String receiver, PageToken after, int pageSize) {
+        return timed(Operation.PAGE_BY_RECEIVER_ORDERED_BY_AMOUNT_THEN_BY_ID,
+                () -> delegate.pageByReceiverOrderedByAmountThenById(receiver, after, pageSize),
+                result -> result.getTransactions().size());
+    }
+
+    @Override
+    public Optional<Transaction> findById(int id) {
+        return timed(Operation.FIND_BY_ID, () -> delegate.findById(id), result -> result.isPresent() ? 1 : 0);
+    }
+
+    @Override
+    public List<Transaction> findByTransactionStatus(Status status) {
+        return found(Operation.FIND_BY_TRANSACTION_STATUS, () -> delegate.findByTransactionStatus(status));
+    }
+
+    @Override
+    public List<String> findAllSendersWithTransactionStatus(Status status) {
+        return found(Operation.FIND_ALL_SENDERS_WITH_TRANSACTION_STATUS,
+                () -> delegate.findAllSendersWithTransactionStatus(status));
+    }
+
+    @Override
+    public List<String> findAllReceiversWithTransactionStatus(Status status) {
+        return found(Operation.FIND_ALL_RECEIVERS_WITH_TRANSACTION_STATUS,
+                () -> delegate.findAllReceiversWithTransactionStatus(status));
+    }
+
+    @Override
+    public List<Transaction> findBySenderOrderedByAmountDescending(String sender) {
+        return found(Operation.FIND_BY_SENDER_ORDERED_BY_AMOUNT_DESCENDING,
+                () -> delegate.findBySenderOrderedByAmountDescending(sender));
+    }
+
+    @Override
+    public List<Transaction> findByReceiverOrderedByAmountThenById(String receiver) {
+        return found(Operation.FIND_BY_RECEIVER_ORDERED_BY_AMOUNT_THEN_BY_ID,
+                () -> delegate.findByReceiverOrderedByAmountThenById(receiver));
+    }
+
+    @Override
+    public List<Transaction> findBySenderAndMinimumAmountDescending(String sender, double amount) {
+        return found(Operation.FIND_BY_SENDER_AND_MINIMUM_AMOUNT_DESCENDING,
+                () -> delegate.findBySenderAndMinimumAmountDescending(sender, amount));
+    }
+
+    @Override
+    public List<Transaction> findByReceiverAndAmountRange(String receiver, double lo, double hi) {
+        return found(Operation.FIND_BY_RECEIVER_AND_AMOUNT_RANGE,
+                () -> delegate.findByReceiverAndAmountRange(receiver, lo, hi));
+    }
+
+    @Override
+    public int getCountByTransactionStatus(Status status) {
+        return timed(Operation.GET_COUNT_BY_TRANSACTION_STATUS, () -> delegate.getCountByTransactionStatus(status),
+                result -> 1);
+    }
+
+    @Override
+    public double getVolumeBySender(String sender) {
+        return timed(Operation.GET_VOLUME_BY_SENDER, () -> delegate.getVolumeBySender(sender), result -> 1);
+    }
+
+    @Override
+    public double getVolumeByReceiver(String receiver) {
+        return timed(Operation.GET_VOLUME_BY_RECEIVER, () -> delegate.getVolumeByReceiver(receiver), result -> 1);
+    }
+
+    @Override
+    public double getMinimumAmount() {
+        return timed(Operation.GET_MINIMUM_AMOUNT, delegate::getMinimumAmount, result -> 1);
+    }
+
+    @Override
+    public double getMaximumAmount() {
+        return timed(Operation.GET_MAXIMUM_AMOUNT, delegate::getMaximumAmount, result -> 1);
+    }
+
+    private <T> T timed(Operation operation, Supplier<? extends T> call, ToLongFunction<? super T> resultSize) {
+        long start = System.nanoTime();
+        T result;
+
+        try {
+            result = call.get();
+        } catch (RuntimeException e) {
+            throw failed(operation, start, e);
+        }
+
+        record(operation, start, resultSize.applyAsLong(result));
+        return result;
+    }
+
+    private void timed(Operation operation, Runnable call, long resultSize) {
+        long start = System.nanoTime();
+
+        try {
+            call.run();
+        } catch (RuntimeException e) {
+            throw failed(operation, start, e);
+        }
+
+        record(operation, start, resultSize);
+    }
+
+    private <T> Iterable<T> query(Operation operation, Supplier<? extends Iterable<T>> call) {
+        Iterable<T> result = timed(operation, call, r -> r instanceof Collection ? ((Collection<?>) r).size() : 0);
+        return result instanceof Collection ? result : counted(operation, result);
+    }
+
+    private <T> Stream<T> stream(Operation operation, Supplier<? extends Stream<T>> call) {
+        return counted(operation, timed(operation, call, result -> 0));
+    }
+
+    private <T> List<T> found(Operation operation, Supplier<? extends List<T>> call) {
+        return timed(operation, call, List::size);
+    }
+
+    private void record(Operation operation, long start, long resultSize) {
+        long latency = System.nanoTime() - start;
+        recorders[operation.ordinal()].record(latency, resultSize, false);
+
+        if (jfrEvents)
+            emit(operation, latency, resultSize, false);
+    }
+
+    private RuntimeException failed(Operation operation, long start, RuntimeException e) {
+        long latency = System.nanoTime() - start;
+        recorders[operation.ordinal()].record(latency, 0, true);
+
+        if (jfrEvents)
+            emit(operation, latency, 0, true);
+
+        return e;
+    }
+
+    private static void emit(Operation operation, long latency, long resultSize, boolean failed) {
+        ChainBlockCallEvent event = new ChainBlockCallEvent();
+
+        if (event.isEnabled()) {
+            event.operation = operation.name();
+            event.latency = latency;
+            event.resultSize = resultSize;
+            event.failed = failed;
+            event.commit();
+        }
+    }
+
+    private <T> Stream<T> counted(Operation operation, Stream<T> result) {
+        Recorder recorder = recorders[operation.ordinal()];
+        return result.peek(element -> recorder.countResult());
+    }
+
+    // A lazy iterable has no size until it is walked, so its elements are counted as they are handed out.
+    private <T> Iterable<T> counted(Operation operation, Iterable<T> result) {
+        Recorder recorder = recorders[operation.ordinal()];
+
+        return () -> {
+            Iterator<T> iterator = result.iterator();
+
+            return new Iterator<T>() {
+                @Override
+                public boolean hasNext() {
+                    return iterator.hasNext();
+                }
+
+                @Override
+                public T next() {
+                    T element = iterator.next();
+                    recorder.countResult();
+
+                    return element;
+                }
+            };
+        };
+    }
+
+    private static final class Recorder {
+
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder resultElements = new LongAdder();
+        private final LatencyHistogram latencies = new LatencyHistogram();
+
+        private void record(long latency, long resultSize, boolean failed) {
+            calls.increment();
+            latencies.record(latency);
+
+            if (failed) {
+                failures.increment();
+            } else {
+                resultElements.add(resultSize);
+            }
+        }
+
+        private void countResult() {
+            resultElements.increment();
+        }
+
+        private OperationMetrics snapshot() {
+            return new OperationMetrics(calls.sum(), failures.sum(), resultElements.sum(), latencies.total(),
+                    latencies.maximum(), latencies.counts());
+        }
+    }
+}
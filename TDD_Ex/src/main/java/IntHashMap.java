@@ -0,0 +1,133 @@
+import java.util.Arrays;
+
+class IntHashMap<V> {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private int[] keys;
+    private Object[] values;
+    private int size;
+    private int resizeAt;
+
+    IntHashMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    IntHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(DEFAULT_CAPACITY, expectedSize * 2) - 1) << 1;
+        allocate(capacity);
+    }
+
+    int size() {
+        return size;
+    }
+
+    void ensureCapacity(int expectedSize) {
+        if (expectedSize > resizeAt)
+            rehash(Integer.highestOneBit(expectedSize * 2 - 1) << 1);
+    }
+
+    boolean containsKey(int key) {
+        return values[indexOf(key)] != null;
+    }
+
+    @SuppressWarnings("unchecked")
+    V get(int key) {
+        return (V) values[indexOf(key)];
+    }
+
+    @SuppressWarnings("unchecked")
+    V put(int key, V value) {
+        if (value == null)
+            throw new IllegalArgumentException();
+
+        int index = indexOf(key);
+        V previous = (V) values[index];
+
+        keys[index] = key;
+        values[index] = value;
+
+        if (previous == null && ++size > resizeAt)
+            rehash(keys.length << 1);
+
+        return previous;
+    }
+
+    @SuppressWarnings("unchecked")
+    V remove(int key) {
+        int index = indexOf(key);
+        V previous = (V) values[index];
+
+        if (previous == null)
+            return null;
+
+        shiftBack(index);
+        size--;
+
+        return previous;
+    }
+
+    void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    private int indexOf(int key) {
+        int mask = keys.length - 1;
+        int index = mix(key) & mask;
+
+        while (values[index] != null && keys[index] != key) {
+            index = (index + 1) & mask;
+        }
+
+        return index;
+    }
+
+    private void shiftBack(int gap) {
+        int mask = keys.length - 1;
+        int index = gap;
+
+        while (true) {
+            index = (index + 1) & mask;
+
+            if (values[index] == null)
+                break;
+
+            int home = mix(keys[index]) & mask;
+
+            if (((index - home) & mask) >= ((index - gap) & mask)) {
+                keys[gap] = keys[index];
+                values[gap] = values[index];
+                gap = index;
+            }
+        }
+
+        values[gap] = null;
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+
+        allocate(capacity);
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != null) {
+                int index = indexOf(oldKeys[i]);
+                keys[index] = oldKeys[i];
+                values[index] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new Object[capacity];
+        resizeAt = capacity - (capacity >>> 2);
+    }
+
+    private static int mix(int key) {
+        int hash = key * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+}
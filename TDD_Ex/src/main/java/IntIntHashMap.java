@@ -0,0 +1,128 @@
+import java.util.Arrays;
+
+class IntIntHashMap {
+
+    static final int MISSING = -1;
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private int[] keys;
+    private int[] values;
+    private int size;
+    private int resizeAt;
+
+    IntIntHashMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    IntIntHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(DEFAULT_CAPACITY, expectedSize * 2) - 1) << 1;
+        allocate(capacity);
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean containsKey(int key) {
+        return values[indexOf(key)] != MISSING;
+    }
+
+    int get(int key) {
+        return values[indexOf(key)];
+    }
+
+    int put(int key, int value) {
+        if (value < 0)
+            throw new IllegalArgumentException();
+
+        int index = indexOf(key);
+        int previous = values[index];
+
+        keys[index] = key;
+        values[index] = value;
+
+        if (previous == MISSING && ++size > resizeAt)
+            rehash(keys.length << 1);
+
+        return previous;
+    }
+
+    int remove(int key) {
+        int index = indexOf(key);
+        int previous = values[index];
+
+        if (previous == MISSING)
+            return MISSING;
+
+        shiftBack(index);
+        size--;
+
+        return previous;
+    }
+
+    void clear() {
+        Arrays.fill(values, MISSING);
+        size = 0;
+    }
+
+    private int indexOf(int key) {
+        int mask = keys.length - 1;
+        int index = mix(key) & mask;
+
+        while (values[index] != MISSING && keys[index] != key) {
+            index = (index + 1) & mask;
+        }
+
+        return index;
+    }
+
+    private void shiftBack(int gap) {
+        int mask = keys.length - 1;
+        int index = gap;
+
+        while (true) {
+            index = (index + 1) & mask;
+
+            if (values[index] == MISSING)
+                break;
+
+            int home = mix(keys[index]) & mask;
+
+            if (((index - home) & mask) >= ((index - gap) & mask)) {
+                keys[gap] = keys[index];
+                values[gap] = values[index];
+                gap = index;
+            }
+        }
+
+        values[gap] = MISSING;
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+
+        allocate(capacity);
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != MISSING) {
+                int index = indexOf(oldKeys[i]);
+                keys[index] = oldKeys[i];
+                values[index] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new int[capacity];
+        Arrays.fill(values, MISSING);
+        resizeAt = capacity - (capacity >>> 2);
+    }
+
+    private static int mix(int key) {
+        int hash = key * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+}
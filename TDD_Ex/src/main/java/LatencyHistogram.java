@@ -0,0 +1,71 @@
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAXIMUM_EXPONENT = 42;
+    static final int BUCKET_COUNT = (MAXIMUM_EXPONENT - SUB_BUCKET_BITS + 2) << SUB_BUCKET_BITS;
+
+    private final LongAdder[] buckets;
+    private final LongAdder total;
+    private final LongAccumulator maximum;
+
+    LatencyHistogram() {
+        buckets = new LongAdder[BUCKET_COUNT];
+
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets[i] = new LongAdder();
+        }
+
+        total = new LongAdder();
+        maximum = new LongAccumulator(Math::max, 0);
+    }
+
+    void record(long nanos) {
+        long value = Math.max(0, nanos);
+
+        buckets[bucketOf(value)].increment();
+        total.add(value);
+        maximum.accumulate(value);
+    }
+
+    long[] counts() {
+        long[] counts = new long[BUCKET_COUNT];
+
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = buckets[i].sum();
+        }
+
+        return counts;
+    }
+
+    long total() {
+        return total.sum();
+    }
+
+    long maximum() {
+        return maximum.get();
+    }
+
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS)
+            return (int) value;
+
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        int bucket = ((shift + 1) << SUB_BUCKET_BITS) + (int) (value >>> shift) - SUB_BUCKETS;
+
+        return Math.min(bucket, BUCKET_COUNT - 1);
+    }
+
+    static long highestValueIn(int bucket) {
+        if (bucket < SUB_BUCKETS)
+            return bucket;
+
+        int shift = (bucket >>> SUB_BUCKET_BITS) - 1;
+        long lowest = (long) (SUB_BUCKETS + (bucket & (SUB_BUCKETS - 1))) << shift;
+
+        return lowest + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,336 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+public class MappedChainBlock extends AbstractRowChainBlock {
+
+    private static final int MAGIC = 0x43425350;
+    private static final int VERSION = 1;
+    private static final int HAS_ID_INDEX = 1;
+    private static final int HAS_ID_FILTER = 2;
+
+    private static final int MAGIC_OFFSET = 0;
+    private static final int VERSION_OFFSET = 4;
+    private static final int FLAGS_OFFSET = 8;
+    private static final int RECORD_COUNT_OFFSET = 12;
+    private static final int SYMBOL_COUNT_OFFSET = 16;
+    private static final int FILTER_WORD_COUNT_OFFSET = 20;
+    private static final int RECORDS_POSITION_OFFSET = 24;
+    private static final int INDEX_POSITION_OFFSET = 32;
+    private static final int HEADER_SIZE = 40;
+
+    private static final int ID_OFFSET = 0;
+    private static final int SENDER_OFFSET = 4;
+    private static final int RECEIVER_OFFSET = 8;
+    private static final int STATUS_OFFSET = 12;
+    private static final int AMOUNT_OFFSET = 16;
+    private static final int RECORD_SIZE = 24;
+
+    private static final int INDEX_ENTRY_SIZE = 8;
+
+    private static final int CHUNK_SHIFT = 26;
+
+    private final ByteBuffer[] records;
+    private final ByteBuffer[] idIndex;
+    private final BloomFilter idFilter;
+    private final int size;
+    private final int chunkShift;
+    private final int chunkMask;
+
+    private final IntIntHashMap rowsById;
+
+    private MappedChainBlock(FileChannel channel, int chunkShift) throws IOException {
+        if (channel.size() < HEADER_SIZE)
+            throw new IllegalArgumentException();
+
+        ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+
+        if (header.getInt(MAGIC_OFFSET) != MAGIC || header.getInt(VERSION_OFFSET) != VERSION
+                || header.getInt(RECORD_COUNT_OFFSET) < 0)
+            throw new IllegalArgumentException();
+
+        size = header.getInt(RECORD_COUNT_OFFSET);
+        this.chunkShift = chunkShift;
+        this.chunkMask = (1 << chunkShift) - 1;
+
+        DataInputStream dictionary = new DataInputStream(new BufferedInputStream(
+                Channels.newInputStream(channel.position(HEADER_SIZE)), 1 << 16));
+        int symbolCount = header.getInt(SYMBOL_COUNT_OFFSET);
+
+        for (int i = 0; i < symbolCount; i++) {
+            byte[] symbol = new byte[dictionary.readInt()];
+            dictionary.readFully(symbol);
+            accounts.intern(new String(symbol, StandardCharsets.UTF_8));
+        }
+
+        records = map(channel, header.getLong(RECORDS_POSITION_OFFSET), RECORD_SIZE);
+
+        if ((header.getInt(FLAGS_OFFSET) & HAS_ID_INDEX) != 0) {
+            long indexPosition = header.getLong(INDEX_POSITION_OFFSET);
+            idIndex = map(channel, indexPosition, INDEX_ENTRY_SIZE);
+            rowsById = null;
+
+            if ((header.getInt(FLAGS_OFFSET) & HAS_ID_FILTER) != 0) {
+                long filterPosition = indexPosition + (long) size * INDEX_ENTRY_SIZE;
+                long filterSize = (long) header.getInt(FILTER_WORD_COUNT_OFFSET) * Long.BYTES;
+                idFilter = new BloomFilter(region(channel, filterPosition, filterSize).asLongBuffer());
+            } else {
+                idFilter = null;
+            }
+        } else {
+            idIndex = null;
+            idFilter = null;
+            rowsById = new IntIntHashMap(size);
+
+            for (int row = 0; row < size; row++) {
+                rowsById.put(idAt(row), row);
+            }
+        }
+    }
+
+    public static MappedChainBlock open(Path path) throws IOException {
+        return open(path, CHUNK_SHIFT);
+    }
+
+    static MappedChainBlock open(Path path, int chunkShift) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new MappedChainBlock(channel, chunkShift);
+        }
+    }
+
+    public static ChainBlockImpl load(Path path) throws IOException {
+        MappedChainBlock snapshot = open(path);
+        List<Transaction> transactions = new ArrayList<>(snapshot.size);
+
+        for (Transaction transaction : snapshot) {
+            transactions.add(new TransactionImpl(transaction.getId(), transaction.getStatus(),
+                    transaction.getSender(), transaction.getReceiver(), transaction.getAmount()));
+        }
+
+        ChainBlockImpl chainBlock = new ChainBlockImpl();
+        chainBlock.addAll(transactions);
+
+        return chainBlock;
+    }
+
+    public static void write(ChainBlock chainBlock, Path path) throws IOException {
+        write(chainBlock, path, true);
+    }
+
+    public static void write(ChainBlock chainBlock, Path path, boolean withIdIndex) throws IOException {
+        int size = chainBlock.getCount();
+        SymbolTable symbols = new SymbolTable();
+        long dictionarySize = 0;
+
+        for (Transaction transaction : chainBlock) {
+            for (String account : new String[] {transaction.getSender(), transaction.getReceiver()}) {
+                if (symbols.codeOf(account) == SymbolTable.MISSING) {
+                    symbols.intern(account);
+                    dictionarySize += 4 + account.getBytes(StandardCharsets.UTF_8).length;
+                }
+            }
+        }
+
+        long recordsPosition = align(HEADER_SIZE + dictionarySize);
+        long indexPosition = withIdIndex ? recordsPosition + (long) size * RECORD_SIZE : 0;
+        BloomFilter idFilter = withIdIndex ? new BloomFilter(size) : null;
+
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel),
+                    1 << 16));
+
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(withIdIndex ? HAS_ID_INDEX | HAS_ID_FILTER : 0);
+            out.writeInt(size);
+            out.writeInt(symbols.size());
+            out.writeInt(withIdIndex ? idFilter.wordCount() : 0);
+            out.writeLong(recordsPosition);
+            out.writeLong(indexPosition);
+
+            for (int code = 0; code < symbols.size(); code++) {
+                byte[] symbol = symbols.symbolOf(code).getBytes(StandardCharsets.UTF_8);
+                out.writeInt(symbol.length);
+                out.write(symbol);
+            }
+
+            for (long position = HEADER_SIZE + dictionarySize; position < recordsPosition; position++) {
+                out.writeByte(0);
+            }
+
+            long[] index = withIdIndex ? new long[size] : null;
+            int row = 0;
+
+            for (Transaction transaction : chainBlock) {
+                out.writeInt(transaction.getId());
+                out.writeInt(symbols.codeOf(transaction.getSender()));
+                out.writeInt(symbols.codeOf(transaction.getReceiver()));
+                out.writeInt(transaction.getStatus().ordinal());
+                out.writeDouble(transaction.getAmount());
+
+                if (index != null) {
+                    index[row] = ((long) transaction.getId() << 32) | row;
+                    idFilter.add(transaction.getId());
+                }
+
+                row++;
+            }
+
+            if (row != size)
+                throw new IllegalStateException();
+
+            if (index != null) {
+                Arrays.sort(index);
+
+                for (long entry : index) {
+                    out.writeLong(entry);
+                }
+
+                for (int word = 0; word < idFilter.wordCount(); word++) {
+                    out.writeLong(idFilter.word(word));
+                }
+            }
+
+            out.flush();
+            channel.force(true);
+        }
+
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        // Syncing the directory makes the rename durable where the platform allows it; Windows cannot
+        // open a directory as a channel, and the snapshot itself is already forced before the move.
+        try (FileChannel directory = FileChannel.open(path.toAbsolutePath().getParent(), StandardOpenOption.READ)) {
+            directory.force(true);
+        } catch (IOException e) {
+            // best effort
+        }
+    }
+
+    @Override
+    protected int rowCount() {
+        return size;
+    }
+
+    @Override
+    protected int findRow(int id) {
+        if (rowsById != null)
+            return rowsById.get(id);
+
+        if (idFilter != null && !idFilter.mightContain(id))
+            return MISSING_ROW;
+
+        int lo = 0;
+        int hi = size - 1;
+
+        while (lo <= hi) {
+            int middle = (lo + hi) >>> 1;
+            ByteBuffer chunk = idIndex[middle >>> chunkShift];
+            int offset = (middle & chunkMask) * INDEX_ENTRY_SIZE;
+            int key = chunk.getInt(offset);
+
+            if (key < id) {
+                lo = middle + 1;
+            } else if (key > id) {
+                hi = middle - 1;
+            } else {
+                return chunk.getInt(offset + 4);
+            }
+        }
+
+        return MISSING_ROW;
+    }
+
+    @Override
+    protected int idAt(int row) {
+        return records[row >>> chunkShift].getInt(recordOffset(row) + ID_OFFSET);
+    }
+
+    @Override
+    protected double amountAt(int row) {
+        return records[row >>> chunkShift].getDouble(recordOffset(row) + AMOUNT_OFFSET);
+    }
+
+    @Override
+    protected int statusAt(int row) {
+        return records[row >>> chunkShift].getInt(recordOffset(row) + STATUS_OFFSET);
+    }
+
+    @Override
+    protected int senderAt(int row) {
+        return records[row >>> chunkShift].getInt(recordOffset(row) + SENDER_OFFSET);
+    }
+
+    @Override
+    protected int receiverAt(int row) {
+        return records[row >>> chunkShift].getInt(recordOffset(row) + RECEIVER_OFFSET);
+    }
+
+    @Override
+    public void add(Transaction transaction) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void addAll(Collection<? extends Transaction> transactions) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    protected void setStatusAt(int row, int status) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    protected void appendRow(int id, double amount, int status, int sender, int receiver) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    protected void removeRow(int row) {
+        throw new UnsupportedOperationException();
+    }
+
+    private int recordOffset(int row) {
+        return (row & chunkMask) * RECORD_SIZE;
+    }
+
+    private ByteBuffer[] map(FileChannel channel, long position, int entrySize) throws IOException {
+        ByteBuffer[] chunks = new ByteBuffer[(int) ((size + (long) chunkMask) >>> chunkShift)];
+
+        for (int chunk = 0; chunk < chunks.length; chunk++) {
+            long first = (long) chunk << chunkShift;
+            long entries = Math.min(size - first, 1L << chunkShift);
+            chunks[chunk] = region(channel, position + first * entrySize, entries * entrySize);
+        }
+
+        return chunks;
+    }
+
+    private static ByteBuffer region(FileChannel channel, long position, long length) throws IOException {
+        if (position < HEADER_SIZE || length > Integer.MAX_VALUE || position + length > channel.size())
+            throw new IllegalArgumentException();
+
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+    }
+
+    private static long align(long position) {
+        return (position + 7) & ~7L;
+    }
+}
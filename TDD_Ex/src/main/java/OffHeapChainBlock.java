@@ -0,0 +1,130 @@
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+
+public class OffHeapChainBlock extends AbstractRowChainBlock {
+
+    private static final int ID_OFFSET = 0;
+    private static final int SENDER_OFFSET = 4;
+    private static final int RECEIVER_OFFSET = 8;
+    private static final int STATUS_OFFSET = 12;
+    private static final int AMOUNT_OFFSET = 16;
+    private static final int RECORD_SIZE = 24;
+
+    private static final int ROWS_PER_PAGE_SHIFT = 16;
+    private static final int ROWS_PER_PAGE = 1 << ROWS_PER_PAGE_SHIFT;
+
+    private List<ByteBuffer> pages;
+    private int size;
+
+    private OffHeapIntIntHashMap rowsById;
+
+    public OffHeapChainBlock() {
+        pages = new ArrayList<>();
+        rowsById = new OffHeapIntIntHashMap();
+    }
+
+    long directCapacity() {
+        long bytes = 0;
+
+        for (ByteBuffer page : pages) {
+            if (page.isDirect()) {
+                bytes += page.capacity();
+            }
+        }
+
+        return bytes;
+    }
+
+    @Override
+    protected int rowCount() {
+        return size;
+    }
+
+    @Override
+    protected int findRow(int id) {
+        return rowsById.get(id);
+    }
+
+    @Override
+    protected int idAt(int row) {
+        return page(row).getInt(offset(row) + ID_OFFSET);
+    }
+
+    @Override
+    protected double amountAt(int row) {
+        return page(row).getDouble(offset(row) + AMOUNT_OFFSET);
+    }
+
+    @Override
+    protected int statusAt(int row) {
+        return page(row).get(offset(row) + STATUS_OFFSET);
+    }
+
+    @Override
+    protected int senderAt(int row) {
+        return page(row).getInt(offset(row) + SENDER_OFFSET);
+    }
+
+    @Override
+    protected int receiverAt(int row) {
+        return page(row).getInt(offset(row) + RECEIVER_OFFSET);
+    }
+
+    @Override
+    protected void setStatusAt(int row, int status) {
+        page(row).put(offset(row) + STATUS_OFFSET, (byte) status);
+    }
+
+    @Override
+    protected void appendRow(int id, double amount, int status, int sender, int receiver) {
+        if (size == Integer.MAX_VALUE)
+            throw new IllegalStateException();
+
+        if (size == pages.size() * ROWS_PER_PAGE)
+            pages.add(ByteBuffer.allocateDirect(ROWS_PER_PAGE * RECORD_SIZE).order(ByteOrder.nativeOrder()));
+
+        int row = size++;
+        writeRecord(page(row), offset(row), id, amount, status, sender, receiver);
+        rowsById.put(id, row);
+    }
+
+    @Override
+    protected void removeRow(int row) {
+        int last = --size;
+
+        rowsById.remove(idAt(row));
+
+        if (row != last) {
+            ByteBuffer page = page(last);
+            int offset = offset(last);
+
+            writeRecord(page(row), offset(row),
+                    page.getInt(offset + ID_OFFSET), page.getDouble(offset + AMOUNT_OFFSET),
+                    page.get(offset + STATUS_OFFSET), page.getInt(offset + SENDER_OFFSET),
+                    page.getInt(offset + RECEIVER_OFFSET));
+            rowsById.put(idAt(row), row);
+        }
+
+        if (size <= (pages.size() - 2) * ROWS_PER_PAGE)
+            pages.remove(pages.size() - 1);
+    }
+
+    private static void writeRecord(ByteBuffer page, int offset, int id, double amount, int status,
+                                    int sender, int receiver) {
+        page.putInt(offset + ID_OFFSET, id);
+        page.putInt(offset + SENDER_OFFSET, sender);
+        page.putInt(offset + RECEIVER_OFFSET, receiver);
+        page.put(offset + STATUS_OFFSET, (byte) status);
+        page.putDouble(offset + AMOUNT_OFFSET, amount);
+    }
+
+    private ByteBuffer page(int row) {
+        return pages.get(row >>> ROWS_PER_PAGE_SHIFT);
+    }
+
+    private static int offset(int row) {
+        return (row & (ROWS_PER_PAGE - 1)) * RECORD_SIZE;
+    }
+}
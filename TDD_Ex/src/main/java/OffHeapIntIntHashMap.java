@@ -0,0 +1,158 @@
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+class OffHeapIntIntHashMap {
+
+    static final int MISSING = -1;
+
+    private static final int SLOT_SIZE = 8;
+    private static final int SLOTS_PER_PAGE_SHIFT = 16;
+    private static final int SLOTS_PER_PAGE = 1 << SLOTS_PER_PAGE_SHIFT;
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private ByteBuffer[] pages;
+    private long capacity;
+    private long size;
+    private long resizeAt;
+
+    OffHeapIntIntHashMap() {
+        allocate(DEFAULT_CAPACITY);
+    }
+
+    long size() {
+        return size;
+    }
+
+    boolean containsKey(int key) {
+        return valueAt(indexOf(key)) != MISSING;
+    }
+
+    int get(int key) {
+        return valueAt(indexOf(key));
+    }
+
+    int put(int key, int value) {
+        if (value < 0)
+            throw new IllegalArgumentException();
+
+        long index = indexOf(key);
+        int previous = valueAt(index);
+
+        write(index, key, value);
+
+        if (previous == MISSING && ++size > resizeAt)
+            rehash(capacity << 1);
+
+        return previous;
+    }
+
+    int remove(int key) {
+        long index = indexOf(key);
+        int previous = valueAt(index);
+
+        if (previous == MISSING)
+            return MISSING;
+
+        shiftBack(index);
+        size--;
+
+        return previous;
+    }
+
+    private long indexOf(int key) {
+        long mask = capacity - 1;
+        long index = mix(key) & mask;
+
+        while (valueAt(index) != MISSING && keyAt(index) != key) {
+            index = (index + 1) & mask;
+        }
+
+        return index;
+    }
+
+    private void shiftBack(long gap) {
+        long mask = capacity - 1;
+        long index = gap;
+
+        while (true) {
+            index = (index + 1) & mask;
+
+            if (valueAt(index) == MISSING)
+                break;
+
+            long home = mix(keyAt(index)) & mask;
+
+            if (((index - home) & mask) >= ((index - gap) & mask)) {
+                write(gap, keyAt(index), valueAt(index));
+                gap = index;
+            }
+        }
+
+        clear(gap);
+    }
+
+    private void rehash(long newCapacity) {
+        ByteBuffer[] oldPages = pages;
+        long oldCapacity = capacity;
+
+        allocate(newCapacity);
+
+        for (long i = 0; i < oldCapacity; i++) {
+            ByteBuffer page = oldPages[(int) (i >>> SLOTS_PER_PAGE_SHIFT)];
+            int offset = (int) (i & (SLOTS_PER_PAGE - 1)) * SLOT_SIZE;
+            int value = page.getInt(offset + 4) - 1;
+
+            if (value != MISSING) {
+                int key = page.getInt(offset);
+                write(indexOf(key), key, value);
+            }
+        }
+    }
+
+    private void allocate(long newCapacity) {
+        int pageCount = (int) Math.max(1, newCapacity >>> SLOTS_PER_PAGE_SHIFT);
+        int pageSlots = (int) Math.min(newCapacity, SLOTS_PER_PAGE);
+
+        pages = new ByteBuffer[pageCount];
+
+        for (int i = 0; i < pageCount; i++) {
+            pages[i] = ByteBuffer.allocateDirect(pageSlots * SLOT_SIZE).order(ByteOrder.nativeOrder());
+        }
+
+        capacity = newCapacity;
+        resizeAt = newCapacity - (newCapacity >>> 2);
+    }
+
+    private int keyAt(long index) {
+        return page(index).getInt(offset(index));
+    }
+
+    private int valueAt(long index) {
+        return page(index).getInt(offset(index) + 4) - 1;
+    }
+
+    private void write(long index, int key, int value) {
+        ByteBuffer page = page(index);
+        int offset = offset(index);
+
+        page.putInt(offset, key);
+        page.putInt(offset + 4, value + 1);
+    }
+
+    private void clear(long index) {
+        page(index).putInt(offset(index) + 4, 0);
+    }
+
+    private ByteBuffer page(long index) {
+        return pages[(int) (index >>> SLOTS_PER_PAGE_SHIFT)];
+    }
+
+    private static int offset(long index) {
+        return (int) (index & (SLOTS_PER_PAGE - 1)) * SLOT_SIZE;
+    }
+
+    private static long mix(int key) {
+        int hash = key * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & 0xFFFFFFFFL;
+    }
+}
@@ -0,0 +1,82 @@
+public final class OperationMetrics {
+
+    private final long calls;
+    private final long failures;
+    private final long resultElements;
+    private final long totalNanos;
+    private final long maximumNanos;
+    private final long[] latencyCounts;
+
+    OperationMetrics(long calls, long failures, long resultElements, long totalNanos, long maximumNanos,
+                     long[] latencyCounts) {
+        this.calls = calls;
+        this.failures = failures;
+        this.resultElements = resultElements;
+        this.totalNanos = totalNanos;
+        this.maximumNanos = maximumNanos;
+        this.latencyCounts = latencyCounts;
+    }
+
+    public long getCalls() {
+        return calls;
+    }
+
+    public long getFailures() {
+        return failures;
+    }
+
+    public long getResultElements() {
+        return resultElements;
+    }
+
+    public double getMeanResultSize() {
+        long successes = calls - failures;
+        return successes == 0 ? 0 : (double) resultElements / successes;
+    }
+
+    public double getMeanNanos() {
+        return calls == 0 ? 0 : (double) totalNanos / calls;
+    }
+
+    public long getMaximumNanos() {
+        return maximumNanos;
+    }
+
+    public long getP50Nanos() {
+        return getPercentileNanos(0.50);
+    }
+
+    public long getP99Nanos() {
+        return getPercentileNanos(0.99);
+    }
+
+    public long getP999Nanos() {
+        return getPercentileNanos(0.999);
+    }
+
+    public long getPercentileNanos(double quantile) {
+        if (quantile < 0 || quantile > 1)
+            throw new IllegalArgumentException();
+
+        long recorded = 0;
+
+        for (long count : latencyCounts) {
+            recorded += count;
+        }
+
+        if (recorded == 0)
+            return 0;
+
+        long rank = Math.max(1, (long) Math.ceil(quantile * recorded));
+        long seen = 0;
+
+        for (int bucket = 0; bucket < latencyCounts.length; bucket++) {
+            seen += latencyCounts[bucket];
+
+            if (seen >= rank)
+                return Math.min(LatencyHistogram.highestValueIn(bucket), maximumNanos);
+        }
+
+        return maximumNanos;
+    }
+}
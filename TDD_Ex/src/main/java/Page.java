@@ -0,0 +1,40 @@
+import java.util.List;
+import java.util.Optional;
+
+public final class Page {
+
+    private final List<Transaction> transactions;
+    private final PageToken nextToken;
+
+    Page(List<Transaction> transactions, PageToken nextToken) {
+        this.transactions = transactions;
+        this.nextToken = nextToken;
+    }
+
+    static int fetchSize(int pageSize) {
+        if (pageSize < 1)
+            throw new IllegalArgumentException();
+
+        return pageSize == Integer.MAX_VALUE ? pageSize : pageSize + 1;
+    }
+
+    static Page of(List<Transaction> fetched, int pageSize) {
+        if (fetched.size() <= pageSize)
+            return new Page(fetched.isEmpty() ? List.of() : fetched, null);
+
+        List<Transaction> transactions = fetched.subList(0, pageSize);
+        return new Page(transactions, PageToken.after(transactions.get(pageSize - 1)));
+    }
+
+    public List<Transaction> getTransactions() {
+        return transactions;
+    }
+
+    public boolean hasNext() {
+        return nextToken != null;
+    }
+
+    public Optional<PageToken> getNextToken() {
+        return Optional.ofNullable(nextToken);
+    }
+}
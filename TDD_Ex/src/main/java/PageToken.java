@@ -0,0 +1,69 @@
+public final class PageToken {
+
+    private static final char SEPARATOR = '.';
+
+    private final double amount;
+    private final int id;
+
+    PageToken(double amount, int id) {
+        this.amount = amount;
+        this.id = id;
+    }
+
+    public static PageToken after(Transaction transaction) {
+        return new PageToken(transaction.getAmount(), transaction.getId());
+    }
+
+    public static PageToken decode(String token) {
+        int separator = token.indexOf(SEPARATOR);
+
+        if (separator < 0)
+            throw new IllegalArgumentException();
+
+        return new PageToken(Double.longBitsToDouble(Long.parseUnsignedLong(token.substring(0, separator), 16)),
+                Integer.parseUnsignedInt(token.substring(separator + 1), 16));
+    }
+
+    public String encode() {
+        return Long.toHexString(Double.doubleToLongBits(amount)) + SEPARATOR + Integer.toHexString(id);
+    }
+
+    public double getAmount() {
+        return amount;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    int compareTo(double amount, int id) {
+        int result = Double.compare(this.amount, amount);
+        if (result == 0) {
+            result = Integer.compare(this.id, id);
+        }
+
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+
+        if (!(o instanceof PageToken))
+            return false;
+
+        PageToken other = (PageToken) o;
+        return Double.compare(amount, other.amount) == 0 && id == other.id;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Double.hashCode(amount) + id;
+    }
+
+    @Override
+    public String toString() {
+        return encode();
+    }
+}
@@ -0,0 +1,165 @@
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+final class PersistentLongMap<V> implements Iterable<V> {
+
+    private static final PersistentLongMap<?> EMPTY = new PersistentLongMap<>(null);
+
+    private final Node<V> root;
+
+    private PersistentLongMap(Node<V> root) {
+        this.root = root;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <V> PersistentLongMap<V> empty() {
+        return (PersistentLongMap<V>) EMPTY;
+    }
+
+    int size() {
+        return root == null ? 0 : root.size;
+    }
+
+    V get(long key) {
+        Node<V> node = root;
+
+        while (node != null) {
+            if (key < node.key) {
+                node = node.left;
+            } else if (key > node.key) {
+                node = node.right;
+            } else {
+                return node.value;
+            }
+        }
+
+        return null;
+    }
+
+    PersistentLongMap<V> put(long key, V value) {
+        return new PersistentLongMap<>(insert(root, key, value));
+    }
+
+    PersistentLongMap<V> remove(long key) {
+        Node<V> newRoot = delete(root, key);
+        return newRoot == root ? this : new PersistentLongMap<>(newRoot);
+    }
+
+    @Override
+    public Iterator<V> iterator() {
+        return new Iterator<V>() {
+
+            private final Deque<Node<V>> path = new ArrayDeque<>();
+
+            {
+                pushLeft(root);
+            }
+
+            @Override
+            public boolean hasNext() {
+                return !path.isEmpty();
+            }
+
+            @Override
+            public V next() {
+                if (path.isEmpty())
+                    throw new NoSuchElementException();
+
+                Node<V> node = path.pop();
+                pushLeft(node.right);
+
+                return node.value;
+            }
+
+            private void pushLeft(Node<V> node) {
+                while (node != null) {
+                    path.push(node);
+                    node = node.left;
+                }
+            }
+        };
+    }
+
+    private static <V> Node<V> insert(Node<V> node, long key, V value) {
+        if (node == null)
+            return new Node<>(key, value, priority(key), null, null);
+
+        if (key < node.key) {
+            Node<V> left = insert(node.left, key, value);
+
+            if (left.priority > node.priority)
+                return new Node<>(left.key, left.value, left.priority, left.left,
+                        new Node<>(node.key, node.value, node.priority, left.right, node.right));
+
+            return new Node<>(node.key, node.value, node.priority, left, node.right);
+        }
+
+        if (key > node.key) {
+            Node<V> right = insert(node.right, key, value);
+
+            if (right.priority > node.priority)
+                return new Node<>(right.key, right.value, right.priority,
+                        new Node<>(node.key, node.value, node.priority, node.left, right.left), right.right);
+
+            return new Node<>(node.key, node.value, node.priority, node.left, right);
+        }
+
+        return new Node<>(key, value, node.priority, node.left, node.right);
+    }
+
+    private static <V> Node<V> delete(Node<V> node, long key) {
+        if (node == null)
+            return null;
+
+        if (key < node.key) {
+            Node<V> left = delete(node.left, key);
+            return left == node.left ? node : new Node<>(node.key, node.value, node.priority, left, node.right);
+        }
+
+        if (key > node.key) {
+            Node<V> right = delete(node.right, key);
+            return right == node.right ? node : new Node<>(node.key, node.value, node.priority, node.left, right);
+        }
+
+        return merge(node.left, node.right);
+    }
+
+    private static <V> Node<V> merge(Node<V> left, Node<V> right) {
+        if (left == null)
+            return right;
+
+        if (right == null)
+            return left;
+
+        if (left.priority > right.priority)
+            return new Node<>(left.key, left.value, left.priority, left.left, merge(left.right, right));
+
+        return new Node<>(right.key, right.value, right.priority, merge(left, right.left), right.right);
+    }
+
+    private static int priority(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    private static final class Node<V> {
+
+        private final long key;
+        private final V value;
+        private final int priority;
+        private final Node<V> left;
+        private final Node<V> right;
+        private final int size;
+
+        private Node(long key, V value, int priority, Node<V> left, Node<V> right) {
+            this.key = key;
+            this.value = value;
+            this.priority = priority;
+            this.left = left;
+            this.right = right;
+            this.size = 1 + (left == null ? 0 : left.size) + (right == null ? 0 : right.size);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+import java.util.Arrays;
+
+final class RowBuffer {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    int[] rows;
+    int length;
+
+    RowBuffer() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    RowBuffer(int capacity) {
+        rows = new int[Math.max(1, capacity)];
+    }
+
+    void add(int row) {
+        if (length == rows.length)
+            rows = Arrays.copyOf(rows, rows.length << 1);
+
+        rows[length++] = row;
+    }
+}
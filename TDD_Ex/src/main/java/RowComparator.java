@@ -0,0 +1,9 @@
+@FunctionalInterface
+interface RowComparator {
+
+    int compare(int row1, int row2);
+
+    default void sort(int[] rows, int length) {
+        RowSorter.sort(rows, length, this);
+    }
+}
@@ -0,0 +1,89 @@
+import java.util.Comparator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+final class RowHeap<T> extends Spliterators.AbstractSpliterator<T> {
+
+    private static final int CHARACTERISTICS = Spliterator.ORDERED | Spliterator.SIZED;
+
+    private final int[] heap;
+    private final RowComparator comparator;
+    private final IntFunction<? extends T> element;
+    private int length;
+
+    RowHeap(int[] rows, int length, RowComparator comparator, IntFunction<? extends T> element) {
+        super(length, CHARACTERISTICS);
+        this.heap = rows;
+        this.length = length;
+        this.comparator = comparator;
+        this.element = element;
+
+        for (int index = (length >>> 1) - 1; index >= 0; index--) {
+            siftDown(index);
+        }
+    }
+
+    static <T> Stream<T> stream(Supplier<RowHeap<T>> heap) {
+        return StreamSupport.stream(heap, CHARACTERISTICS, false);
+    }
+
+    static <T> RowHeap<T> of(T[] elements, Comparator<? super T> comparator) {
+        int[] rows = new int[elements.length];
+
+        for (int row = 0; row < rows.length; row++) {
+            rows[row] = row;
+        }
+
+        return new RowHeap<>(rows, rows.length, (row1, row2) -> comparator.compare(elements[row1], elements[row2]),
+                row -> elements[row]);
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        if (length == 0)
+            return false;
+
+        int row = heap[0];
+        heap[0] = heap[--length];
+        siftDown(0);
+
+        action.accept(element.apply(row));
+        return true;
+    }
+
+    private void siftDown(int index) {
+        int row = heap[index];
+
+        while (true) {
+            int child = 2 * index + 1;
+
+            if (child >= length)
+                break;
+
+            if (child + 1 < length && compare(heap[child + 1], heap[child]) < 0)
+                child++;
+
+            if (compare(row, heap[child]) <= 0)
+                break;
+
+            heap[index] = heap[child];
+            index = child;
+        }
+
+        heap[index] = row;
+    }
+
+    private int compare(int row1, int row2) {
+        int result = comparator == null ? 0 : comparator.compare(row1, row2);
+        if (result == 0) {
+            result = Integer.compare(row1, row2);
+        }
+
+        return result;
+    }
+}
@@ -0,0 +1,5 @@
+@FunctionalInterface
+interface RowPredicate {
+
+    boolean test(int row);
+}
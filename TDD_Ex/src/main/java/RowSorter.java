@@ -0,0 +1,122 @@
+final class RowSorter {
+
+    private static final int INSERTION_SORT_THRESHOLD = 16;
+    private static final int RADIX_BITS = 8;
+    private static final int RADIX = 1 << RADIX_BITS;
+    private static final int DIGIT_MASK = RADIX - 1;
+
+    private RowSorter() {
+    }
+
+    static void sort(int[] rows, int length, RowComparator comparator) {
+        if (length < 2)
+            return;
+
+        int[] buffer = new int[length];
+        System.arraycopy(rows, 0, buffer, 0, length);
+        mergeSort(buffer, rows, 0, length, comparator);
+    }
+
+    static void radixSort(int[] rows, int length, long[] keys, int[] ties) {
+        if (length < 2)
+            return;
+
+        int tieDigits = ties == null ? 0 : Integer.BYTES;
+        int[][] counts = new int[tieDigits + Long.BYTES][RADIX];
+
+        for (int i = 0; i < length; i++) {
+            for (int digit = 0; digit < counts.length; digit++) {
+                counts[digit][digitOf(keys, ties, i, digit, tieDigits)]++;
+            }
+        }
+
+        int[] sourceRows = rows;
+        long[] sourceKeys = keys;
+        int[] sourceTies = ties;
+        int[] targetRows = new int[length];
+        long[] targetKeys = new long[length];
+        int[] targetTies = ties == null ? null : new int[length];
+
+        for (int digit = 0; digit < counts.length; digit++) {
+            int[] count = counts[digit];
+
+            if (count[digitOf(sourceKeys, sourceTies, 0, digit, tieDigits)] == length)
+                continue;
+
+            for (int bucket = 0, offset = 0; bucket < RADIX; bucket++) {
+                int bucketSize = count[bucket];
+                count[bucket] = offset;
+                offset += bucketSize;
+            }
+
+            for (int i = 0; i < length; i++) {
+                int target = count[digitOf(sourceKeys, sourceTies, i, digit, tieDigits)]++;
+                targetRows[target] = sourceRows[i];
+                targetKeys[target] = sourceKeys[i];
+
+                if (targetTies != null)
+                    targetTies[target] = sourceTies[i];
+            }
+
+            int[] rowsSwap = sourceRows;
+            sourceRows = targetRows;
+            targetRows = rowsSwap;
+
+            long[] keysSwap = sourceKeys;
+            sourceKeys = targetKeys;
+            targetKeys = keysSwap;
+
+            int[] tiesSwap = sourceTies;
+            sourceTies = targetTies;
+            targetTies = tiesSwap;
+        }
+
+        if (sourceRows != rows)
+            System.arraycopy(sourceRows, 0, rows, 0, length);
+    }
+
+    private static int digitOf(long[] keys, int[] ties, int index, int digit, int tieDigits) {
+        if (digit < tieDigits)
+            return ties[index] >>> digit * RADIX_BITS & DIGIT_MASK;
+
+        return (int) (keys[index] >>> (digit - tieDigits) * RADIX_BITS) & DIGIT_MASK;
+    }
+
+    private static void mergeSort(int[] source, int[] target, int from, int to, RowComparator comparator) {
+        if (to - from <= INSERTION_SORT_THRESHOLD) {
+            insertionSort(target, from, to, comparator);
+            return;
+        }
+
+        int middle = (from + to) >>> 1;
+        mergeSort(target, source, from, middle, comparator);
+        mergeSort(target, source, middle, to, comparator);
+
+        if (comparator.compare(source[middle - 1], source[middle]) <= 0) {
+            System.arraycopy(source, from, target, from, to - from);
+            return;
+        }
+
+        for (int i = from, left = from, right = middle; i < to; i++) {
+            if (right >= to || left < middle && comparator.compare(source[left], source[right]) <= 0) {
+                target[i] = source[left++];
+            } else {
+                target[i] = source[right++];
+            }
+        }
+    }
+
+    private static void insertionSort(int[] rows, int from, int to, RowComparator comparator) {
+        for (int i = from + 1; i < to; i++) {
+            int row = rows[i];
+            int j = i - 1;
+
+            while (j >= from && comparator.compare(rows[j], row) > 0) {
+                rows[j + 1] = rows[j];
+                j--;
+            }
+
+            rows[j + 1] = row;
+        }
+    }
+}
@@ -0,0 +1,487 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class ShardedChainBlock implements ChainBlock {
+
+    private final Shard[] shards;
+
+    public ShardedChainBlock(int shardCount) {
+        this(shardCount, ChainBlockImpl::new);
+    }
+
+    public ShardedChainBlock(int shardCount, Supplier<? extends ChainBlock> shardFactory) {
+        if (shardCount < 1)
+            throw new IllegalArgumentException();
+
+        shards = new Shard[shardCount];
+
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard(shardFactory.get());
+        }
+    }
+
+    @Override
+    public int getCount() {
+        int count = 0;
+
+        for (Shard shard : shards) {
+            count += shard.read(ChainBlock::getCount);
+        }
+
+        return count;
+    }
+
+    @Override
+    public void add(Transaction transaction) {
+        shardOf(transaction.getId()).write(block -> block.add(transaction));
+    }
+
+    @Override
+    public void addAll(Collection<? extends Transaction> transactions) {
+        List<List<Transaction>> batches = new ArrayList<>(shards.length);
+
+        for (int i = 0; i < shards.length; i++) {
+            batches.add(new ArrayList<>());
+        }
+
+        IntIntHashMap batchIds = new IntIntHashMap(transactions.size());
+
+        for (Transaction transaction : transactions) {
+            if (batchIds.put(transaction.getId(), 0) != IntIntHashMap.MISSING)
+                throw new IllegalArgumentException();
+
+            batches.get(shardIndex(transaction.getId())).add(transaction);
+        }
+
+        for (int i = 0; i < shards.length; i++) {
+            if (!batches.get(i).isEmpty())
+                shards[i].lock.writeLock().lock();
+        }
+
+        try {
+            addAll(batches);
+        } finally {
+            for (int i = shards.length - 1; i >= 0; i--) {
+                if (!batches.get(i).isEmpty())
+                    shards[i].lock.writeLock().unlock();
+            }
+        }
+    }
+
+    @Override
+    public boolean contains(Transaction transaction) {
+        return shardOf(transaction.getId()).read(block -> block.contains(transaction));
+    }
+
+    @Override
+    public boolean contains(int id) {
+        return shardOf(id).read(block -> block.contains(id));
+    }
+
+    @Override
+    public void changeTransactionStatus(int id, Status newStatus) {
+        shardOf(id).write(block -> block.changeTransactionStatus(id, newStatus));
+    }
+
+    @Override
+    public void removeTransactionById(int id) {
+        shardOf(id).write(block -> block.removeTransactionById(id));
+    }
+
+    @Override
+    public int removeAll(Predicate<? super Transaction> filter) {
+        int removed = 0;
+
+        for (Shard shard : shards) {
+            removed += shard.update(block -> block.removeAll(filter));
+        }
+
+        return removed;
+    }
+
+    @Override
+    public Transaction getById(int id) {
+        return shardOf(id).read(block -> block.getById(id));
+    }
+
+    @Override
+    public Iterable<Transaction> getByTransactionStatus(Status status) {
+        return nonEmpty(findByTransactionStatus(status));
+    }
+
+    @Override
+    public Iterable<String> getAllSendersWithTransactionStatus(Status status) {
+        return nonEmpty(findAllSendersWithTransactionStatus(status));
+    }
+
+    @Override
+    public Iterable<String> getAllReceiversWithTransactionStatus(Status status) {
+        return nonEmpty(findAllReceiversWithTransactionStatus(status));
+    }
+
+    @Override
+    public Iterable<Transaction> getAllOrderedByAmountDescendingThenById() {
+        return mergeAll(ChainBlock::streamAllOrderedByAmountDescendingThenById,
+                TransactionOrder.BY_AMOUNT_DESCENDING_THEN_ID_DESCENDING);
+    }
+
+    @Override
+    public Iterable<Transaction> getBySenderOrderedByAmountDescending(String sender) {
+        return nonEmpty(findBySenderOrderedByAmountDescending(sender));
+    }
+
+    @Override
+    public Iterable<Transaction> getByReceiverOrderedByAmountThenById(String receiver) {
+        return nonEmpty(findByReceiverOrderedByAmountThenById(receiver));
+    }
+
+    @Override
+    public Iterable<Transaction> getByTransactionStatusAndMaximumAmount(Status status, double amount) {
+        return mergeAll(block -> block.streamByTransactionStatusAndMaximumAmount(status, amount),
+                TransactionOrder.BY_AMOUNT_DESCENDING);
+    }
+
+    @Override
+    public Iterable<Transaction> getBySenderAndMinimumAmountDescending(String sender, double amount) {
+        return nonEmpty(findBySenderAndMinimumAmountDescending(sender, amount));
+    }
+
+    @Override
+    public Iterable<Transaction> getByReceiverAndAmountRange(String receiver, double lo, double hi) {
+        return nonEmpty(findByReceiverAndAmountRange(receiver, lo, hi));
+    }
+
+    @Override
+    public Iterable<Transaction> getAllInAmountRange(double lo, double hi) {
+        return mergeAll(block -> block.streamAllInAmountRange(lo, hi), TransactionOrder.BY_AMOUNT_THEN_ID);
+    }
+
+    @Override
+    public Page pageAllOrderedByAmountDescendingThenById(PageToken after, int pageSize) {
+        return mergePages(block -> block.pageAllOrderedByAmountDescendingThenById(after, pageSize),
+                TransactionOrder.BY_AMOUNT_DESCENDING_THEN_ID_DESCENDING, pageSize);
+    }
+
+    @Override
+    public Page pageByReceiverOrderedByAmountThenById(String receiver, PageToken after, int pageSize) {
+        return mergePages(block -> block.pageByReceiverOrderedByAmountThenById(receiver, after, pageSize),
+                TransactionOrder.BY_AMOUNT_THEN_ID, pageSize);
+    }
+
+    @Override
+    public Optional<Transaction> findById(int id) {
+        return shardOf(id).read(block -> block.findById(id));
+    }
+
+    @Override
+    public List<Transaction> findByTransactionStatus(Status status) {
+        return mergeAll(block -> block.streamByTransactionStatus(status),
+                TransactionOrder.BY_AMOUNT_DESCENDING);
+    }
+
+    @Override
+    public List<String> findAllSendersWithTransactionStatus(Status status) {
+        return mergeAll(block -> block.streamAllSendersWithTransactionStatus(status), null);
+    }
+
+    @Override
+    public List<String> findAllReceiversWithTransactionStatus(Status status) {
+        return mergeAll(block -> block.streamAllReceiversWithTransactionStatus(status), null);
+    }
+
+    @Override
+    public List<Transaction> findBySenderOrderedByAmountDescending(String sender) {
+        return mergeAll(block -> block.streamBySenderOrderedByAmountDescending(sender),
+                TransactionOrder.BY_AMOUNT_DESCENDING_THEN_ID_DESCENDING);
+    }
+
+    @Override
+    public List<Transaction> findByReceiverOrderedByAmountThenById(String receiver) {
+        return mergeAll(block -> block.streamByReceiverOrderedByAmountThenById(receiver),
+                TransactionOrder.BY_AMOUNT_THEN_ID);
+    }
+
+    @Override
+    public List<Transaction> findBySenderAndMinimumAmountDescending(String sender, double amount) {
+        return mergeAll(block -> block.streamBySenderAndMinimumAmountDescending(sender, amount),
+                TransactionOrder.BY_AMOUNT_DESCENDING_THEN_ID_DESCENDING);
+    }
+
+    @Override
+    public List<Transaction> findByReceiverAndAmountRange(String receiver, double lo, double hi) {
+        return mergeAll(block -> block.streamByReceiverAndAmountRange(receiver, lo, hi),
+                TransactionOrder.BY_AMOUNT_DESCENDING_THEN_ID_DESCENDING);
+    }
+
+    @Override
+    public int getCountByTransactionStatus(Status status) {
+        int count = 0;
+
+        for (Shard shard : shards) {
+            count += shard.read(block -> block.getCountByTransactionStatus(status));
+        }
+
+        return count;
+    }
+
+    @Override
+    public double getVolumeBySender(String sender) {
+        double volume = 0;
+
+        for (Shard shard : shards) {
+            volume += shard.read(block -> block.getVolumeBySender(sender));
+        }
+
+        return volume;
+    }
+
+    @Override
+    public double getVolumeByReceiver(String receiver) {
+        double volume = 0;
+
+        for (Shard shard : shards) {
+            volume += shard.read(block -> block.getVolumeByReceiver(receiver));
+        }
+
+        return volume;
+    }
+
+    @Override
+    public double getMinimumAmount() {
+        Double minimum = null;
+
+        for (Shard shard : shards) {
+            Double shardMinimum = shard.read(block -> block.getCount() == 0 ? null : block.getMinimumAmount());
+
+            if (shardMinimum != null && (minimum == null || Double.compare(shardMinimum, minimum) < 0))
+                minimum = shardMinimum;
+        }
+
+        if (minimum == null)
+            throw new IllegalArgumentException();
+
+        return minimum;
+    }
+
+    @Override
+    public double getMaximumAmount() {
+        Double maximum = null;
+
+        for (Shard shard : shards) {
+            Double shardMaximum = shard.read(block -> block.getCount() == 0 ? null : block.getMaximumAmount());
+
+            if (shardMaximum != null && (maximum == null || Double.compare(shardMaximum, maximum) > 0))
+                maximum = shardMaximum;
+        }
+
+        if (maximum == null)
+            throw new IllegalArgumentException();
+
+        return maximum;
+    }
+
+    @Override
+    public Iterator<Transaction> iterator() {
+        return new Iterator<Transaction>() {
+
+            private int shard = 0;
+            private Iterator<Transaction> current = List.<Transaction>of().iterator();
+
+            @Override
+            public boolean hasNext() {
+                while (!current.hasNext() && shard < shards.length) {
+                    current = shards[shard++].read(block -> {
+                        List<Transaction> transactions = new ArrayList<>(block.getCount());
+                        block.forEach(transactions::add);
+
+                        return transactions;
+                    }).iterator();
+                }
+
+                return current.hasNext();
+            }
+
+            @Override
+            public Transaction next() {
+                if (!hasNext())
+                    throw new NoSuchElementException();
+
+                return current.next();
+            }
+        };
+    }
+
+    private <T> List<T> mergeAll(Function<ChainBlock, Stream<T>> query,
+                                 Comparator<? super T> comparator) {
+        List<List<T>> partials = Arrays.stream(shards)
+                .parallel()
+                .map(shard -> shard.read(block -> query.apply(block).collect(Collectors.toList())))
+                .collect(Collectors.toList());
+
+        return merge(partials, comparator);
+    }
+
+    private Page mergePages(Function<ChainBlock, Page> query, Comparator<Transaction> comparator, int pageSize) {
+        List<Page> pages = Arrays.stream(shards)
+                .parallel()
+                .map(shard -> shard.read(query))
+                .collect(Collectors.toList());
+
+        List<List<Transaction>> partials = new ArrayList<>(pages.size());
+        boolean more = false;
+
+        for (Page page : pages) {
+            partials.add(page.getTransactions());
+            more |= page.hasNext();
+        }
+
+        List<Transaction> merged = merge(partials, comparator);
+
+        if (merged.size() > pageSize || !more)
+            return Page.of(merged, pageSize);
+
+        return new Page(merged, PageToken.after(merged.get(merged.size() - 1)));
+    }
+
+    static <T> List<T> merge(List<List<T>> partials, Comparator<? super T> comparator) {
+        int size = 0;
+
+        for (List<T> partial : partials) {
+            size += partial.size();
+        }
+
+        List<T> merged = new ArrayList<>(size);
+
+        if (comparator == null) {
+            partials.forEach(merged::addAll);
+            return merged;
+        }
+
+        PriorityQueue<int[]> cursors = new PriorityQueue<>((c1, c2) -> {
+            int result = comparator.compare(partials.get(c1[0]).get(c1[1]), partials.get(c2[0]).get(c2[1]));
+            if (result == 0) {
+                result = Integer.compare(c1[0], c2[0]);
+            }
+
+            return result;
+        });
+
+        for (int i = 0; i < partials.size(); i++) {
+            if (!partials.get(i).isEmpty()) {
+                cursors.add(new int[] {i, 0});
+            }
+        }
+
+        while (!cursors.isEmpty()) {
+            int[] cursor = cursors.poll();
+            List<T> partial = partials.get(cursor[0]);
+
+            merged.add(partial.get(cursor[1]++));
+
+            if (cursor[1] < partial.size())
+                cursors.add(cursor);
+        }
+
+        return merged;
+    }
+
+    private static <T> List<T> nonEmpty(List<T> result) {
+        if (result.isEmpty())
+            throw new IllegalArgumentException();
+
+        return result;
+    }
+
+    private void addAll(List<List<Transaction>> batches) {
+        for (int i = 0; i < shards.length; i++) {
+            for (Transaction transaction : batches.get(i)) {
+                if (shards[i].block.contains(transaction.getId()))
+                    throw new IllegalArgumentException();
+            }
+        }
+
+        int shard = 0;
+
+        try {
+            for (; shard < shards.length; shard++) {
+                if (!batches.get(shard).isEmpty())
+                    shards[shard].block.addAll(batches.get(shard));
+            }
+        } catch (RuntimeException e) {
+            for (int i = 0; i <= shard && i < shards.length; i++) {
+                if (batches.get(i).isEmpty())
+                    continue;
+
+                ChainBlock block = shards[i].block;
+
+                for (Transaction transaction : batches.get(i)) {
+                    if (block.contains(transaction.getId()))
+                        block.removeTransactionById(transaction.getId());
+                }
+            }
+
+            throw e;
+        }
+    }
+
+    private Shard shardOf(int id) {
+        return shards[shardIndex(id)];
+    }
+
+    private int shardIndex(int id) {
+        int hash = id * 0x9E3779B9;
+        return Math.floorMod(hash ^ (hash >>> 16), shards.length);
+    }
+
+    private static final class Shard {
+
+        private final ChainBlock block;
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+        private Shard(ChainBlock block) {
+            this.block = block;
+        }
+
+        private <R> R read(Function<ChainBlock, R> operation) {
+            lock.readLock().lock();
+            try {
+                return operation.apply(block);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private void write(Consumer<ChainBlock> operation) {
+            lock.writeLock().lock();
+            try {
+                operation.accept(block);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private <R> R update(Function<ChainBlock, R> operation) {
+            lock.writeLock().lock();
+            try {
+                return operation.apply(block);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+}
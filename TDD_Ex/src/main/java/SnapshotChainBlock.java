@@ -0,0 +1,648 @@
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+public class SnapshotChainBlock implements ChainBlock {
+
+    private static final Comparator<Record> BY_AMOUNT_DESCENDING = (r1, r2) -> Double.compare(r2.amount, r1.amount);
+
+    private static final Comparator<Record> BY_AMOUNT_DESCENDING_THEN_ID_DESCENDING = (r1, r2) -> {
+        int result = Double.compare(r2.amount, r1.amount);
+        if (result == 0) {
+            result = Integer.compare(r2.id, r1.id);
+        }
+
+        return result;
+    };
+
+    private static final Comparator<Record> BY_AMOUNT_THEN_ID = (r1, r2) -> {
+        int result = Double.compare(r1.amount, r2.amount);
+        if (result == 0) {
+            result = Integer.compare(r1.id, r2.id);
+        }
+
+        return result;
+    };
+
+    private volatile Snapshot current;
+    private long nextSequence;
+
+    public SnapshotChainBlock() {
+        current = new Snapshot(PersistentLongMap.empty(), PersistentLongMap.empty());
+    }
+
+    public ChainBlock snapshot() {
+        return current;
+    }
+
+    @Override
+    public int getCount() {
+        return current.getCount();
+    }
+
+    @Override
+    public synchronized void add(Transaction transaction) {
+        Snapshot snapshot = current;
+
+        if (snapshot.byId.get(transaction.getId()) != null)
+            throw new IllegalArgumentException();
+
+        Record record = new Record(transaction.getId(), transaction.getAmount(), transaction.getStatus(),
+                transaction.getSender(), transaction.getReceiver(), nextSequence++);
+
+        current = snapshot.with(record);
+    }
+
+    @Override
+    public synchronized void addAll(Collection<? extends Transaction> transactions) {
+        Snapshot next = current;
+        long sequence = nextSequence;
+
+        for (Transaction transaction : transactions) {
+            if (next.byId.get(transaction.getId()) != null)
+                throw new IllegalArgumentException();
+
+            next = next.with(new Record(transaction.getId(), transaction.getAmount(), transaction.getStatus(),
+                    transaction.getSender(), transaction.getReceiver(), sequence++));
+        }
+
+        current = next;
+        nextSequence = sequence;
+    }
+
+    @Override
+    public boolean contains(Transaction transaction) {
+        return current.contains(transaction);
+    }
+
+    @Override
+    public boolean contains(int id) {
+        return current.contains(id);
+    }
+
+    @Override
+    public synchronized void changeTransactionStatus(int id, Status newStatus) {
+        Snapshot snapshot = current;
+        current = snapshot.with(snapshot.getRecord(id).withStatus(newStatus));
+    }
+
+    @Override
+    public synchronized void removeTransactionById(int id) {
+        Snapshot snapshot = current;
+        current = snapshot.without(snapshot.getRecord(id));
+    }
+
+    @Override
+    public synchronized int removeAll(Predicate<? super Transaction> filter) {
+        Snapshot snapshot = current;
+        Snapshot next = snapshot;
+        int removed = 0;
+
+        for (Record record : snapshot.byArrival) {
+            if (filter.test(snapshot.view(record))) {
+                next = next.without(record);
+                removed++;
+            }
+        }
+
+        current = next;
+
+        return removed;
+    }
+
+    @Override
+    public Transaction getById(int id) {
+        return current.getById(id);
+    }
+
+    @Override
+    public Iterable<Transaction> getByTransactionStatus(Status status) {
+        return current.getByTransactionStatus(status);
+    }
+
+    @Override
+    public Iterable<String> getAllSendersWithTransactionStatus(Status status) {
+        return current.getAllSendersWithTransactionStatus(status);
+    }
+
+    @Override
+    public Iterable<String> getAllReceiversWithTransactionStatus(Status status) {
+        return current.getAllReceiversWithTransactionStatus(status);
+    }
+
+    @Override
+    public Iterable<Transaction> getAllOrderedByAmountDescendingThenById() {
+        return current.getAllOrderedByAmountDescendingThenById();
+    }
+
+    @Override
+    public Iterable<Transaction> getBySenderOrderedByAmountDescending(String sender) {
+        return current.getBySenderOrderedByAmountDescending(sender);
+    }
+
+    @Override
+    public Iterable<Transaction> getByReceiverOrderedByAmountThenById(String receiver) {
+        return current.getByReceiverOrderedByAmountThenById(receiver);
+    }
+
+    @Override
+    public Iterable<Transaction> getByTransactionStatusAndMaximumAmount(Status status, double amount) {
+        return current.getByTransactionStatusAndMaximumAmount(status, amount);
+    }
+
+    @Override
+    public Iterable<Transaction> getBySenderAndMinimumAmountDescending(String sender, double amount) {
+        return current.getBySenderAndMinimumAmountDescending(sender, amount);
+    }
+
+    @Override
+    public Iterable<Transaction> getByReceiverAndAmountRange(String receiver, double lo, double hi) {
+        return current.getByReceiverAndAmountRange(receiver, lo, hi);
+    }
+
+    @Override
+    public Iterable<Transaction> getAllInAmountRange(double lo, double hi) {
+        return current.getAllInAmountRange(lo, hi);
+    }
+
+    @Override
+    public Stream<Transaction> streamByTransactionStatus(Status status) {
+        return current.streamByTransactionStatus(status);
+    }
+
+    @Override
+    public Stream<String> streamAllSendersWithTransactionStatus(Status status) {
+        return current.streamAllSendersWithTransactionStatus(status);
+    }
+
+    @Override
+    public Stream<String> streamAllReceiversWithTransactionStatus(Status status) {
+        return current.streamAllReceiversWithTransactionStatus(status);
+    }
+
+    @Override
+    public Stream<Transaction> streamAllOrderedByAmountDescendingThenById() {
+        return current.streamAllOrderedByAmountDescendingThenById();
+    }
+
+    @Override
+    public Stream<Transaction> streamBySenderOrderedByAmountDescending(String sender) {
+        return current.streamBySenderOrderedByAmountDescending(sender);
+    }
+
+    @Override
+    public Stream<Transaction> streamByReceiverOrderedByAmountThenById(String receiver) {
+        return current.streamByReceiverOrderedByAmountThenById(receiver);
+    }
+
+    @Override
+    public Stream<Transaction> streamByTransactionStatusAndMaximumAmount(Status status, double amount) {
+        return current.streamByTransactionStatusAndMaximumAmount(status, amount);
+    }
+
+    @Override
+    public Stream<Transaction> streamBySenderAndMinimumAmountDescending(String sender, double amount) {
+        return current.streamBySenderAndMinimumAmountDescending(sender, amount);
+    }
+
+    @Override
+    public Stream<Transaction> streamByReceiverAndAmountRange(String receiver, double lo, double hi) {
+        return current.streamByReceiverAndAmountRange(receiver, lo, hi);
+    }
+
+    @Override
+    public Stream<Transaction> streamAllInAmountRange(double lo, double hi) {
+        return current.streamAllInAmountRange(lo, hi);
+    }
+
+    @Override
+    public Iterable<Transaction> getByTransactionStatus(Status status, int limit) {
+        return current.getByTransactionStatus(status, limit);
+    }
+
+    @Override
+    public Iterable<Transaction> getAllOrderedByAmountDescendingThenById(int limit) {
+        return current.getAllOrderedByAmountDescendingThenById(limit);
+    }
+
+    @Override
+    public Iterable<Transaction> getBySenderOrderedByAmountDescending(String sender, int limit) {
+        return current.getBySenderOrderedByAmountDescending(sender, limit);
+    }
+
+    @Override
+    public Iterable<Transaction> getByReceiverOrderedByAmountThenById(String receiver, int limit) {
+        return current.getByReceiverOrderedByAmountThenById(receiver, limit);
+    }
+
+    @Override
+    public Iterable<Transaction> getByTransactionStatusAndMaximumAmount(Status status, double amount, int limit) {
+        return current.getByTransactionStatusAndMaximumAmount(status, amount, limit);
+    }
+
+    @Override
+    public Iterable<Transaction> getBySenderAndMinimumAmountDescending(String sender, double amount, int limit) {
+        return current.getBySenderAndMinimumAmountDescending(sender, amount, limit);
+    }
+
+    @Override
+    public Iterable<Transaction> getByReceiverAndAmountRange(String receiver, double lo, double hi, int limit) {
+        return current.getByReceiverAndAmountRange(receiver, lo, hi, limit);
+    }
+
+    @Override
+    public Page pageAllOrderedByAmountDescendingThenById(int pageSize) {
+        return current.pageAllOrderedByAmountDescendingThenById(pageSize);
+    }
+
+    @Override
+    public Page pageAllOrderedByAmountDescendingThenById(PageToken after, int pageSize) {
+        return current.pageAllOrderedByAmountDescendingThenById(after, pageSize);
+    }
+
+    @Override
+    public Page pageByReceiverOrderedByAmountThenById(String receiver, int pageSize) {
+        return current.pageByReceiverOrderedByAmountThenById(receiver, pageSize);
+    }
+
+    @Override
+    public Page pageByReceiverOrderedByAmountThenById(String receiver, PageToken after, int pageSize) {
+        return current.pageByReceiverOrderedByAmountThenById(receiver, after, pageSize);
+    }
+
+    @Override
+    public Optional<Transaction> findById(int id) {
+        return current.findById(id);
+    }
+
+    @Override
+    public List<Transaction> findByTransactionStatus(Status status) {
+        return current.findByTransactionStatus(status);
+    }
+
+    @Override
+    public List<String> findAllSendersWithTransactionStatus(Status status) {
+        return current.findAllSendersWithTransactionStatus(status);
+    }
+
+    @Override
+    public List<String> findAllReceiversWithTransactionStatus(Status status) {
+        return current.findAllReceiversWithTransactionStatus(status);
+    }
+
+    @Override
+    public List<Transaction> findBySenderOrderedByAmountDescending(String sender) {
+        return current.findBySenderOrderedByAmountDescending(sender);
+    }
+
+    @Override
+    public List<Transaction> findByReceiverOrderedByAmountThenById(String receiver) {
+        return current.findByReceiverOrderedByAmountThenById(receiver);
+    }
+
+    @Override
+    public List<Transaction> findBySenderAndMinimumAmountDescending(String sender, double amount) {
+        return current.findBySenderAndMinimumAmountDescending(sender, amount);
+    }
+
+    @Override
+    public List<Transaction> findByReceiverAndAmountRange(String receiver, double lo, double hi) {
+        return current.findByReceiverAndAmountRange(receiver, lo, hi);
+    }
+
+    @Override
+    public int getCountByTransactionStatus(Status status) {
+        return current.getCountByTransactionStatus(status);
+    }
+
+    @Override
+    public double getVolumeBySender(String sender) {
+        return current.getVolumeBySender(sender);
+    }
+
+    @Override
+    public double getVolumeByReceiver(String receiver) {
+        return current.getVolumeByReceiver(receiver);
+    }
+
+    @Override
+    public double getMinimumAmount() {
+        return current.getMinimumAmount();
+    }
+
+    @Override
+    public double getMaximumAmount() {
+        return current.getMaximumAmount();
+    }
+
+    @Override
+    public Iterator<Transaction> iterator() {
+        return current.iterator();
+    }
+
+    private static final class Snapshot implements ChainBlock {
+
+        private final PersistentLongMap<Record> byId;
+        private final PersistentLongMap<Record> byArrival;
+
+        private Snapshot(PersistentLongMap<Record> byId, PersistentLongMap<Record> byArrival) {
+            this.byId = byId;
+            this.byArrival = byArrival;
+        }
+
+        private Snapshot with(Record record) {
+            return new Snapshot(byId.put(record.id, record), byArrival.put(record.sequence, record));
+        }
+
+        private Snapshot without(Record record) {
+            return new Snapshot(byId.remove(record.id), byArrival.remove(record.sequence));
+        }
+
+        private Record getRecord(int id) {
+            Record record = byId.get(id);
+
+            if (record == null)
+                throw new IllegalArgumentException();
+
+            return record;
+        }
+
+        @Override
+        public int getCount() {
+            return byId.size();
+        }
+
+        @Override
+        public void add(Transaction transaction) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean contains(Transaction transaction) {
+            Record record = byId.get(transaction.getId());
+
+            return record != null
+                    && Double.compare(record.amount, transaction.getAmount()) == 0
+                    && record.status == transaction.getStatus()
+                    && record.sender.equals(transaction.getSender())
+                    && record.receiver.equals(transaction.getReceiver());
+        }
+
+        @Override
+        public boolean contains(int id) {
+            return byId.get(id) != null;
+        }
+
+        @Override
+        public void changeTransactionStatus(int id, Status newStatus) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void removeTransactionById(int id) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Transaction getById(int id) {
+            return view(getRecord(id));
+        }
+
+        @Override
+        public Iterable<Transaction> getByTransactionStatus(Status status) {
+            return nonEmpty(findByTransactionStatus(status));
+        }
+
+        @Override
+        public Iterable<String> getAllSendersWithTransactionStatus(Status status) {
+            return nonEmpty(findAllSendersWithTransactionStatus(status));
+        }
+
+        @Override
+        public Iterable<String> getAllReceiversWithTransactionStatus(Status status) {
+            return nonEmpty(findAllReceiversWithTransactionStatus(status));
+        }
+
+        @Override
+        public Iterable<Transaction> getAllOrderedByAmountDescendingThenById() {
+            return views(records().sorted(BY_AMOUNT_DESCENDING_THEN_ID_DESCENDING));
+        }
+
+        @Override
+        public Iterable<Transaction> getBySenderOrderedByAmountDescending(String sender) {
+            return nonEmpty(findBySenderOrderedByAmountDescending(sender));
+        }
+
+        @Override
+        public Iterable<Transaction> getByReceiverOrderedByAmountThenById(String receiver) {
+            return nonEmpty(findByReceiverOrderedByAmountThenById(receiver));
+        }
+
+        @Override
+        public Iterable<Transaction> getByTransactionStatusAndMaximumAmount(Status status, double amount) {
+            return views(records()
+                    .filter(r -> r.status == status && r.amount <= amount)
+                    .sorted(BY_AMOUNT_DESCENDING));
+        }
+
+        @Override
+        public Iterable<Transaction> getBySenderAndMinimumAmountDescending(String sender, double amount) {
+            return nonEmpty(findBySenderAndMinimumAmountDescending(sender, amount));
+        }
+
+        @Override
+        public Iterable<Transaction> getByReceiverAndAmountRange(String receiver, double lo, double hi) {
+            return nonEmpty(findByReceiverAndAmountRange(receiver, lo, hi));
+        }
+
+        @Override
+        public Iterable<Transaction> getAllInAmountRange(double lo, double hi) {
+            return views(records()
+                    .filter(r -> r.amount >= lo && r.amount <= hi)
+                    .sorted(BY_AMOUNT_THEN_ID));
+        }
+
+        @Override
+        public Stream<Transaction> streamByTransactionStatus(Status status) {
+            return ordered(r -> r.status == status, BY_AMOUNT_DESCENDING);
+        }
+
+        @Override
+        public Stream<String> streamAllSendersWithTransactionStatus(Status status) {
+            return records()
+                    .filter(r -> r.status == status)
+                    .map(r -> r.sender);
+        }
+
+        @Override
+        public Stream<String> streamAllReceiversWithTransactionStatus(Status status) {
+            return records()
+                    .filter(r -> r.status == status)
+                    .map(r -> r.receiver);
+        }
+
+        @Override
+        public Stream<Transaction> streamAllOrderedByAmountDescendingThenById() {
+            return ordered(r -> true, BY_AMOUNT_DESCENDING_THEN_ID_DESCENDING);
+        }
+
+        @Override
+        public Stream<Transaction> streamBySenderOrderedByAmountDescending(String sender) {
+            return ordered(r -> r.sender.equals(sender), BY_AMOUNT_DESCENDING_THEN_ID_DESCENDING);
+        }
+
+        @Override
+        public Stream<Transaction> streamByReceiverOrderedByAmountThenById(String receiver) {
+            return ordered(r -> r.receiver.equals(receiver), BY_AMOUNT_THEN_ID);
+        }
+
+        @Override
+        public Stream<Transaction> streamByTransactionStatusAndMaximumAmount(Status status, double amount) {
+            return ordered(r -> r.status == status && r.amount <= amount, BY_AMOUNT_DESCENDING);
+        }
+
+        @Override
+        public Stream<Transaction> streamBySenderAndMinimumAmountDescending(String sender, double amount) {
+            return ordered(r -> r.sender.equals(sender) && r.amount > amount, BY_AMOUNT_DESCENDING_THEN_ID_DESCENDING);
+        }
+
+        @Override
+        public Stream<Transaction> streamByReceiverAndAmountRange(String receiver, double lo, double hi) {
+            return ordered(r -> r.receiver.equals(receiver) && r.amount >= lo && r.amount < hi,
+                    BY_AMOUNT_DESCENDING_THEN_ID_DESCENDING);
+        }
+
+        @Override
+        public Stream<Transaction> streamAllInAmountRange(double lo, double hi) {
+            return ordered(r -> r.amount >= lo && r.amount <= hi, BY_AMOUNT_THEN_ID);
+        }
+
+        @Override
+        public Optional<Transaction> findById(int id) {
+            Record record = byId.get(id);
+            return record == null ? Optional.empty() : Optional.of(view(record));
+        }
+
+        @Override
+        public List<Transaction> findByTransactionStatus(Status status) {
+            return views(records()
+                    .filter(r -> r.status == status)
+                    .sorted(BY_AMOUNT_DESCENDING));
+        }
+
+        @Override
+        public List<String> findAllSendersWithTransactionStatus(Status status) {
+            return records()
+                    .filter(r -> r.status == status)
+                    .map(r -> r.sender)
+                    .collect(Collectors.toList());
+        }
+
+        @Override
+        public List<String> findAllReceiversWithTransactionStatus(Status status) {
+            return records()
+                    .filter(r -> r.status == status)
+                    .map(r -> r.receiver)
+                    .collect(Collectors.toList());
+        }
+
+        @Override
+        public List<Transaction> findBySenderOrderedByAmountDescending(String sender) {
+            return views(records()
+                    .filter(r -> r.sender.equals(sender))
+                    .sorted(BY_AMOUNT_DESCENDING_THEN_ID_DESCENDING));
+        }
+
+        @Override
+        public List<Transaction> findByReceiverOrderedByAmountThenById(String receiver) {
+            return views(records()
+                    .filter(r -> r.receiver.equals(receiver))
+                    .sorted(BY_AMOUNT_THEN_ID));
+        }
+
+        @Override
+        public List<Transaction> findBySenderAndMinimumAmountDescending(String sender, double amount) {
+            return views(records()
+                    .filter(r -> r.sender.equals(sender) && r.amount > amount)
+                    .sorted(BY_AMOUNT_DESCENDING_THEN_ID_DESCENDING));
+        }
+
+        @Override
+        public List<Transaction> findByReceiverAndAmountRange(String receiver, double lo, double hi) {
+            return views(records()
+                    .filter(r -> r.receiver.equals(receiver) && r.amount >= lo && r.amount < hi)
+                    .sorted(BY_AMOUNT_DESCENDING_THEN_ID_DESCENDING));
+        }
+
+        @Override
+        public Iterator<Transaction> iterator() {
+            Iterator<Record> records = byArrival.iterator();
+
+            return new Iterator<Transaction>() {
+
+                @Override
+                public boolean hasNext() {
+                    return records.hasNext();
+                }
+
+                @Override
+                public Transaction next() {
+                    return view(records.next());
+                }
+            };
+        }
+
+        private Stream<Record> records() {
+            return StreamSupport.stream(byArrival.spliterator(), false);
+        }
+
+        private Stream<Transaction> ordered(Predicate<Record> filter, Comparator<Record> order) {
+            return RowHeap.stream(() -> RowHeap.of(records().filter(filter).toArray(Record[]::new), order))
+                    .map(this::view);
+        }
+
+        private List<Transaction> views(Stream<Record> records) {
+            return records.map(this::view).collect(Collectors.toList());
+        }
+
+        private Transaction view(Record record) {
+            return new TransactionView(record.id, record.status, record.sender, record.receiver, record.amount);
+        }
+    }
+
+    private static <T> List<T> nonEmpty(List<T> result) {
+        if (result.isEmpty())
+            throw new IllegalArgumentException();
+
+        return result;
+    }
+
+    private static final class Record {
+
+        private final int id;
+        private final double amount;
+        private final Status status;
+        private final String sender;
+        private final String receiver;
+        private final long sequence;
+
+        private Record(int id, double amount, Status status, String sender, String receiver, long sequence) {
+            this.id = id;
+            this.amount = amount;
+            this.status = status;
+            this.sender = sender;
+            this.receiver = receiver;
+            this.sequence = sequence;
+        }
+
+        private Record withStatus(Status newStatus) {
+            return new Record(id, amount, newStatus, sender, receiver, sequence);
+        }
+    }
+}
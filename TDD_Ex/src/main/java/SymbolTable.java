@@ -0,0 +1,48 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+class SymbolTable {
+
+    static final int MISSING = -1;
+
+    private Map<String, Integer> codes;
+    private List<String> symbols;
+
+    SymbolTable() {
+        codes = new HashMap<>();
+        symbols = new ArrayList<>();
+    }
+
+    int size() {
+        return symbols.size();
+    }
+
+    int intern(String symbol) {
+        Integer code = codes.get(symbol);
+
+        if (code == null) {
+            code = symbols.size();
+            codes.put(symbol, code);
+            symbols.add(symbol);
+        }
+
+        return code;
+    }
+
+    void truncate(int size) {
+        for (int code = symbols.size() - 1; code >= size; code--) {
+            codes.remove(symbols.remove(code));
+        }
+    }
+
+    int codeOf(String symbol) {
+        Integer code = codes.get(symbol);
+        return code == null ? MISSING : code;
+    }
+
+    String symbolOf(int code) {
+        return symbols.get(code);
+    }
+}
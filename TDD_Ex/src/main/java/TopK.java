@@ -0,0 +1,128 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+final class TopK<T> {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final Comparator<? super T> comparator;
+    private final int limit;
+    private Object[] heap;
+    private long[] arrivals;
+    private int size;
+    private long nextArrival;
+
+    TopK(int limit, Comparator<? super T> comparator) {
+        if (limit < 0)
+            throw new IllegalArgumentException();
+
+        this.comparator = comparator;
+        this.limit = limit;
+        this.heap = new Object[Math.min(limit, INITIAL_CAPACITY)];
+        this.arrivals = new long[heap.length];
+    }
+
+    void offer(T element) {
+        long arrival = nextArrival++;
+
+        if (size < limit) {
+            if (size == heap.length)
+                grow();
+
+            heap[size] = element;
+            arrivals[size] = arrival;
+            siftUp(size++);
+        } else if (size > 0 && compare(element, arrival, 0) < 0) {
+            heap[0] = element;
+            arrivals[0] = arrival;
+            siftDown(0);
+        }
+    }
+
+    long offered() {
+        return nextArrival;
+    }
+
+    List<T> toList() {
+        Integer[] order = new Integer[size];
+
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+
+        Arrays.sort(order, (i1, i2) -> compare(element(i1), arrivals[i1], i2));
+
+        List<T> result = new ArrayList<>(size);
+
+        for (Integer index : order) {
+            result.add(element(index));
+        }
+
+        return result;
+    }
+
+    private void grow() {
+        int capacity = (int) Math.min(limit, 2L * heap.length);
+
+        heap = Arrays.copyOf(heap, capacity);
+        arrivals = Arrays.copyOf(arrivals, capacity);
+    }
+
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+
+            if (compare(element(index), arrivals[index], parent) <= 0)
+                break;
+
+            swap(index, parent);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int index) {
+        while (true) {
+            int worst = index;
+            int left = 2 * index + 1;
+            int right = left + 1;
+
+            if (left < size && compare(element(left), arrivals[left], worst) > 0)
+                worst = left;
+
+            if (right < size && compare(element(right), arrivals[right], worst) > 0)
+                worst = right;
+
+            if (worst == index)
+                break;
+
+            swap(index, worst);
+            index = worst;
+        }
+    }
+
+    private int compare(T element, long arrival, int index) {
+        int result = comparator.compare(element, element(index));
+        if (result == 0) {
+            result = Long.compare(arrival, arrivals[index]);
+        }
+
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private T element(int index) {
+        return (T) heap[index];
+    }
+
+    private void swap(int i, int j) {
+        Object element = heap[i];
+        heap[i] = heap[j];
+        heap[j] = element;
+
+        long arrival = arrivals[i];
+        arrivals[i] = arrivals[j];
+        arrivals[j] = arrival;
+    }
+}
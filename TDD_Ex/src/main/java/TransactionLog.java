@@ -0,0 +1,432 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.zip.CRC32;
+
+public class TransactionLog implements Closeable {
+
+    private static final byte ADD = 1;
+    private static final byte STATUS_CHANGE = 2;
+    private static final byte REMOVE = 3;
+    private static final byte ADD_ALL = 4;
+    private static final byte REMOVE_ALL = 5;
+
+    private static final int HEADER_SIZE = 4;
+    private static final int CHECKSUM_SIZE = 4;
+    private static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+    private static final int READ_CHUNK_SIZE = 1 << 16;
+
+    private static final Status[] STATUSES = Status.values();
+
+    private final FileChannel channel;
+    private final FsyncPolicy fsyncPolicy;
+    private final ByteBuffer buffer;
+    private final CRC32 checksum;
+    private final Object syncLock = new Object();
+    private long appended;
+    private long synced;
+    private boolean syncing;
+
+    public TransactionLog(Path path, FsyncPolicy fsyncPolicy) throws IOException {
+        this(path, fsyncPolicy, DEFAULT_BUFFER_SIZE);
+    }
+
+    public TransactionLog(Path path, FsyncPolicy fsyncPolicy, int bufferSize) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        this.fsyncPolicy = fsyncPolicy;
+        this.buffer = ByteBuffer.allocateDirect(bufferSize);
+        this.checksum = new CRC32();
+
+        try {
+            LogReader reader = new LogReader(channel);
+
+            while (reader.next() != null) {
+                // validate only; replay applies the records
+            }
+
+            truncateTo(reader.validLength());
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public synchronized int replay(ChainBlock chainBlock) throws IOException {
+        writeBuffer();
+
+        LogReader reader = new LogReader(channel);
+        int records = 0;
+
+        for (ByteBuffer record = reader.next(); record != null; record = reader.next()) {
+            apply(record, chainBlock);
+            records++;
+        }
+
+        truncateTo(reader.validLength());
+
+        return records;
+    }
+
+    public void appendAdd(Transaction transaction) {
+        awaitDurable(writeAdd(transaction));
+    }
+
+    public void appendStatusChange(int id, Status newStatus) {
+        awaitDurable(writeStatusChange(id, newStatus));
+    }
+
+    public void appendRemove(int id) {
+        awaitDurable(writeRemove(id));
+    }
+
+    synchronized long writeAdd(Transaction transaction) {
+        byte[][] names = names(List.of(transaction));
+        int length = 1 + encodedLength(names);
+
+        ByteBuffer record = begin(length);
+        record.put(ADD);
+        putTransaction(record, transaction, names[0], names[1]);
+        return end(record, length);
+    }
+
+    synchronized long writeAddAll(Collection<? extends Transaction> transactions) {
+        byte[][] names = names(transactions);
+        int length = 1 + 4 + encodedLength(names);
+
+        ByteBuffer record = begin(length);
+        record.put(ADD_ALL);
+        record.putInt(transactions.size());
+
+        int index = 0;
+        for (Transaction transaction : transactions) {
+            putTransaction(record, transaction, names[index], names[index + 1]);
+            index += 2;
+        }
+
+        return end(record, length);
+    }
+
+    synchronized long writeStatusChange(int id, Status newStatus) {
+        int length = 1 + 4 + 1;
+
+        ByteBuffer record = begin(length);
+        record.put(STATUS_CHANGE);
+        record.putInt(id);
+        record.put((byte) newStatus.ordinal());
+        return end(record, length);
+    }
+
+    synchronized long writeRemove(int id) {
+        int length = 1 + 4;
+
+        ByteBuffer record = begin(length);
+        record.put(REMOVE);
+        record.putInt(id);
+        return end(record, length);
+    }
+
+    synchronized long writeRemoveAll(Collection<Integer> ids) {
+        int length = 1 + 4 + 4 * ids.size();
+
+        ByteBuffer record = begin(length);
+        record.put(REMOVE_ALL);
+        record.putInt(ids.size());
+
+        for (int id : ids) {
+            record.putInt(id);
+        }
+
+        return end(record, length);
+    }
+
+    public void flush() {
+        if (fsyncPolicy != FsyncPolicy.OS)
+            sync(appendedSequence());
+    }
+
+    void awaitDurable(long sequence) {
+        if (fsyncPolicy == FsyncPolicy.BATCH)
+            sync(sequence);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        writeBuffer();
+        channel.force(false);
+        channel.close();
+    }
+
+    private synchronized long appendedSequence() {
+        return appended;
+    }
+
+    private void sync(long sequence) {
+        synchronized (syncLock) {
+            boolean interrupted = false;
+
+            while (synced < sequence && syncing) {
+                try {
+                    syncLock.wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+
+            if (interrupted)
+                Thread.currentThread().interrupt();
+
+            if (synced >= sequence)
+                return;
+
+            syncing = true;
+        }
+
+        try {
+            long target;
+
+            synchronized (this) {
+                writeBuffer();
+                target = appended;
+            }
+
+            channel.force(false);
+
+            synchronized (syncLock) {
+                synced = Math.max(synced, target);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            synchronized (syncLock) {
+                syncing = false;
+                syncLock.notifyAll();
+            }
+        }
+    }
+
+    private ByteBuffer begin(int length) {
+        int size = HEADER_SIZE + length + CHECKSUM_SIZE;
+
+        if (buffer.remaining() < size)
+            flushBuffer();
+
+        if (buffer.capacity() < size)
+            return ByteBuffer.allocate(size).putInt(length);
+
+        return buffer.putInt(length);
+    }
+
+    private long end(ByteBuffer record, int length) {
+        ByteBuffer payload = record.duplicate();
+        payload.position(record.position() - length);
+        payload.limit(record.position());
+
+        checksum.reset();
+        checksum.update(payload);
+        record.putInt((int) checksum.getValue());
+
+        try {
+            if (record != buffer) {
+                record.flip();
+                writeFully(record);
+            }
+
+            if (fsyncPolicy != FsyncPolicy.BATCH)
+                writeBuffer();
+
+            if (fsyncPolicy == FsyncPolicy.ALWAYS)
+                channel.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return ++appended;
+    }
+
+    private void flushBuffer() {
+        try {
+            writeBuffer();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void truncateTo(long validLength) throws IOException {
+        if (channel.size() > validLength)
+            channel.truncate(validLength);
+
+        channel.position(validLength);
+    }
+
+    private void writeBuffer() throws IOException {
+        buffer.flip();
+        writeFully(buffer);
+        buffer.clear();
+    }
+
+    private void writeFully(ByteBuffer source) throws IOException {
+        while (source.hasRemaining()) {
+            channel.write(source);
+        }
+    }
+
+    private static byte[][] names(Collection<? extends Transaction> transactions) {
+        byte[][] names = new byte[2 * transactions.size()][];
+        int index = 0;
+
+        for (Transaction transaction : transactions) {
+            names[index++] = transaction.getSender().getBytes(StandardCharsets.UTF_8);
+            names[index++] = transaction.getReceiver().getBytes(StandardCharsets.UTF_8);
+        }
+
+        return names;
+    }
+
+    private static int encodedLength(byte[][] names) {
+        int length = 0;
+
+        for (byte[] name : names) {
+            length += 4 + name.length;
+        }
+
+        return length + names.length / 2 * (4 + 1 + 8);
+    }
+
+    private static void putTransaction(ByteBuffer record, Transaction transaction, byte[] sender, byte[] receiver) {
+        record.putInt(transaction.getId());
+        record.put((byte) transaction.getStatus().ordinal());
+        record.putDouble(transaction.getAmount());
+        record.putInt(sender.length);
+        record.put(sender);
+        record.putInt(receiver.length);
+        record.put(receiver);
+    }
+
+    private static Transaction readTransaction(ByteBuffer record) {
+        int id = record.getInt();
+        Status status = STATUSES[record.get()];
+        double amount = record.getDouble();
+        String sender = readString(record);
+        String receiver = readString(record);
+
+        return new TransactionImpl(id, status, sender, receiver, amount);
+    }
+
+    private static void apply(ByteBuffer record, ChainBlock chainBlock) {
+        byte type = record.get();
+
+        switch (type) {
+            case ADD:
+                chainBlock.add(readTransaction(record));
+                break;
+            case ADD_ALL:
+                int count = record.getInt();
+                List<Transaction> batch = new ArrayList<>(count);
+
+                for (int i = 0; i < count; i++) {
+                    batch.add(readTransaction(record));
+                }
+
+                chainBlock.addAll(batch);
+                break;
+            case STATUS_CHANGE:
+                int id = record.getInt();
+                chainBlock.changeTransactionStatus(id, STATUSES[record.get()]);
+                break;
+            case REMOVE:
+                chainBlock.removeTransactionById(record.getInt());
+                break;
+            case REMOVE_ALL:
+                for (int i = record.getInt(); i > 0; i--) {
+                    chainBlock.removeTransactionById(record.getInt());
+                }
+                break;
+            default:
+                throw new IllegalArgumentException();
+        }
+    }
+
+    private static String readString(ByteBuffer record) {
+        byte[] bytes = new byte[record.getInt()];
+        record.get(bytes);
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static final class LogReader {
+
+        private final FileChannel channel;
+        private final long size;
+        private final CRC32 checksum = new CRC32();
+        private ByteBuffer chunk = ByteBuffer.allocate(READ_CHUNK_SIZE).flip();
+        private long readPosition;
+        private long validLength;
+
+        private LogReader(FileChannel channel) throws IOException {
+            this.channel = channel;
+            this.size = channel.size();
+        }
+
+        private long validLength() {
+            return validLength;
+        }
+
+        private ByteBuffer next() throws IOException {
+            if (!request(HEADER_SIZE))
+                return null;
+
+            int length = chunk.getInt(chunk.position());
+
+            if (length <= 0 || length > size - validLength - HEADER_SIZE - CHECKSUM_SIZE)
+                return null;
+
+            if (!request(HEADER_SIZE + length + CHECKSUM_SIZE))
+                return null;
+
+            chunk.position(chunk.position() + HEADER_SIZE);
+            ByteBuffer record = chunk.slice(chunk.position(), length);
+            chunk.position(chunk.position() + length);
+
+            checksum.reset();
+            checksum.update(record.duplicate());
+
+            if ((int) checksum.getValue() != chunk.getInt())
+                return null;
+
+            validLength += HEADER_SIZE + length + CHECKSUM_SIZE;
+            return record;
+        }
+
+        private boolean request(int bytes) throws IOException {
+            if (chunk.remaining() >= bytes)
+                return true;
+
+            if (chunk.capacity() < bytes) {
+                chunk = ByteBuffer.allocate(bytes).put(chunk);
+            } else {
+                chunk.compact();
+            }
+
+            while (chunk.position() < bytes && readPosition < size) {
+                int read = channel.read(chunk, readPosition);
+
+                if (read < 0)
+                    break;
+
+                readPosition += read;
+            }
+
+            chunk.flip();
+            return chunk.remaining() >= bytes;
+        }
+    }
+}
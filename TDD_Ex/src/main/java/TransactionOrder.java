@@ -0,0 +1,28 @@
+import java.util.Comparator;
+
+final class TransactionOrder {
+
+    static final Comparator<Transaction> BY_AMOUNT_DESCENDING =
+            (t1, t2) -> Double.compare(t2.getAmount(), t1.getAmount());
+
+    static final Comparator<Transaction> BY_AMOUNT_DESCENDING_THEN_ID_DESCENDING = (t1, t2) -> {
+        int result = Double.compare(t2.getAmount(), t1.getAmount());
+        if (result == 0) {
+            result = Integer.compare(t2.getId(), t1.getId());
+        }
+
+        return result;
+    };
+
+    static final Comparator<Transaction> BY_AMOUNT_THEN_ID = (t1, t2) -> {
+        int result = Double.compare(t1.getAmount(), t2.getAmount());
+        if (result == 0) {
+            result = Integer.compare(t1.getId(), t2.getId());
+        }
+
+        return result;
+    };
+
+    private TransactionOrder() {
+    }
+}
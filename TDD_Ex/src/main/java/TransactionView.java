@@ -0,0 +1,46 @@
+class TransactionView implements Transaction {
+
+    private final int id;
+    private final String from;
+    private final String to;
+    private final double amount;
+    private final Status status;
+
+    TransactionView(int id, Status status, String from, String to, double amount) {
+        this.id = id;
+        this.status = status;
+        this.from = from;
+        this.to = to;
+        this.amount = amount;
+    }
+
+    @Override
+    public int getId() {
+        return id;
+    }
+
+    @Override
+    public void setTransactionStatus(Status transactionStatus) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Status getStatus() {
+        return status;
+    }
+
+    @Override
+    public double getAmount() {
+        return amount;
+    }
+
+    @Override
+    public String getSender() {
+        return from;
+    }
+
+    @Override
+    public String getReceiver() {
+        return to;
+    }
+}
@@ -0,0 +1,162 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class CachingChainBlockTest {
+
+    private CachingChainBlock chainBlock;
+
+    @Before
+    public void setUp(){
+        chainBlock = new CachingChainBlock(new ChainBlockImpl(), 1_000);
+
+        chainBlock.add(new TransactionImpl(1, Status.FAILED, "Stan", "Aleks", 100.00));
+        chainBlock.add(new TransactionImpl(2, Status.SUCCESSFUL, "Stan", "Aleks", 125.50));
+        chainBlock.add(new TransactionImpl(3, Status.SUCCESSFUL, "Aleks", "Stan", 200.00));
+        chainBlock.add(new TransactionImpl(4, Status.ABORTED, "Aleks", "Stan", 115.25));
+    }
+
+    private static List<Integer> ids(Iterable<Transaction> transactions) {
+        List<Integer> ids = new ArrayList<>();
+        transactions.forEach(t -> ids.add(t.getId()));
+
+        return ids;
+    }
+
+    @Test
+    public void testRepeatedQueriesAreServedFromTheCache(){
+        assertEquals(List.of(3, 2), ids(chainBlock.getByTransactionStatus(Status.SUCCESSFUL)));
+        assertEquals(List.of(3, 2), ids(chainBlock.getByTransactionStatus(Status.SUCCESSFUL)));
+        assertEquals(List.of(2, 1), ids(chainBlock.getBySenderOrderedByAmountDescending("Stan")));
+        assertEquals(List.of(2, 1), ids(chainBlock.getBySenderOrderedByAmountDescending("Stan")));
+        assertEquals(List.of(2), ids(chainBlock.getBySenderOrderedByAmountDescending("Stan", 1)));
+
+        assertEquals(2, chainBlock.getHitCount());
+        assertEquals(3, chainBlock.getMissCount());
+    }
+
+    @Test
+    public void testTransactionsOfARowStoreCannotBypassTheCache(){
+        CachingChainBlock cached = new CachingChainBlock(new ColumnarChainBlock(), 1_000);
+        cached.add(new TransactionImpl(1, Status.FAILED, "Stan", "Aleks", 100.00));
+        Transaction transaction = cached.getByTransactionStatus(Status.FAILED).iterator().next();
+
+        assertThrows(UnsupportedOperationException.class, () -> transaction.setTransactionStatus(Status.SUCCESSFUL));
+        assertEquals(List.of(1), ids(cached.getByTransactionStatus(Status.FAILED)));
+    }
+
+    @Test
+    public void testStatusChangeEvictsOnlyTheQueriesItCanAffect(){
+        chainBlock.getByTransactionStatus(Status.SUCCESSFUL);
+        chainBlock.getByTransactionStatus(Status.FAILED);
+        chainBlock.getByTransactionStatus(Status.ABORTED);
+        chainBlock.getByReceiverOrderedByAmountThenById("Aleks");
+        chainBlock.getByReceiverOrderedByAmountThenById("Stan");
+        chainBlock.getAllInAmountRange(0, 110);
+
+        chainBlock.changeTransactionStatus(2, Status.FAILED);
+
+        assertEquals(3, chainBlock.getCachedQueryCount());
+        assertEquals(List.of(3), ids(chainBlock.getByTransactionStatus(Status.SUCCESSFUL)));
+        assertEquals(List.of(2, 1), ids(chainBlock.getByTransactionStatus(Status.FAILED)));
+        assertEquals(List.of(4), ids(chainBlock.getByTransactionStatus(Status.ABORTED)));
+        assertEquals(List.of(1), ids(chainBlock.getAllInAmountRange(0, 110)));
+        assertEquals(2, chainBlock.getHitCount());
+    }
+
+    @Test
+    public void testAddAndRemoveInvalidateMatchingQueries(){
+        assertEquals(List.of(4, 3), ids(chainBlock.getByReceiverOrderedByAmountThenById("Stan")));
+        assertEquals(List.of(3, 4), ids(chainBlock.getBySenderAndMinimumAmountDescending("Aleks", 110)));
+        assertEquals(List.of(3, 2, 4, 1), ids(chainBlock.getAllOrderedByAmountDescendingThenById()));
+
+        chainBlock.add(new TransactionImpl(5, Status.FAILED, "Aleks", "Stan", 50.00));
+
+        assertEquals(List.of(5, 4, 3), ids(chainBlock.getByReceiverOrderedByAmountThenById("Stan")));
+        assertEquals(List.of(3, 4), ids(chainBlock.getBySenderAndMinimumAmountDescending("Aleks", 110)));
+        assertEquals(List.of(3, 2, 4, 1, 5), ids(chainBlock.getAllOrderedByAmountDescendingThenById()));
+        assertEquals(1, chainBlock.getHitCount());
+
+        chainBlock.removeTransactionById(3);
+
+        assertEquals(List.of(5, 4), ids(chainBlock.getByReceiverOrderedByAmountThenById("Stan")));
+        assertEquals(List.of(4), ids(chainBlock.getBySenderAndMinimumAmountDescending("Aleks", 110)));
+    }
+
+    @Test
+    public void testMissesAreCachedUntilAMatchingWrite(){
+        assertThrows(IllegalArgumentException.class, () -> chainBlock.getBySenderOrderedByAmountDescending("Ivan"));
+        assertThrows(IllegalArgumentException.class, () -> chainBlock.getBySenderOrderedByAmountDescending("Ivan"));
+        assertEquals(1, chainBlock.getHitCount());
+
+        chainBlock.add(new TransactionImpl(5, Status.FAILED, "Ivan", "Stan", 50.00));
+
+        assertEquals(List.of(5), ids(chainBlock.getBySenderOrderedByAmountDescending("Ivan")));
+    }
+
+    @Test
+    public void testFailedWritesDoNotInvalidate(){
+        chainBlock.getByTransactionStatus(Status.SUCCESSFUL);
+
+        assertThrows(IllegalArgumentException.class, () -> chainBlock.removeTransactionById(99));
+        assertThrows(IllegalArgumentException.class,
+                () -> chainBlock.add(new TransactionImpl(2, Status.SUCCESSFUL, "Stan", "Aleks", 1)));
+
+        assertEquals(1, chainBlock.getCachedQueryCount());
+    }
+
+    @Test
+    public void testEvictionIsBoundedByResultWeight(){
+        CachingChainBlock small = new CachingChainBlock(new ChainBlockImpl(), 10);
+
+        for (int id = 0; id < 20; id++) {
+            small.add(new TransactionImpl(id, Status.values()[id % 2], "Stan", "Aleks", id));
+        }
+
+        small.getAllOrderedByAmountDescendingThenById();
+        assertEquals(0, small.getCachedQueryCount());
+
+        small.getAllInAmountRange(0, 2);
+        small.getAllInAmountRange(3, 5);
+        small.getAllInAmountRange(6, 8);
+
+        assertEquals(8, small.getWeight());
+        assertEquals(2, small.getCachedQueryCount());
+        assertEquals(1, small.getEvictionCount());
+
+        small.getAllInAmountRange(6, 8);
+        small.getAllInAmountRange(0, 2);
+        assertEquals(1, small.getHitCount());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testCachedResultsAreReadOnly(){
+        ((List<Transaction>) chainBlock.getByTransactionStatus(Status.SUCCESSFUL)).clear();
+    }
+
+    @Test
+    public void testRemoveAllInvalidatesTheQueriesItAffects(){
+        assertEquals(List.of(3, 2), ids(chainBlock.getByTransactionStatus(Status.SUCCESSFUL)));
+        assertEquals(List.of(1), ids(chainBlock.getByTransactionStatus(Status.FAILED)));
+
+        assertEquals(1, chainBlock.removeAll(t -> t.getAmount() > 150));
+
+        assertEquals(List.of(2), ids(chainBlock.getByTransactionStatus(Status.SUCCESSFUL)));
+        assertEquals(List.of(1), ids(chainBlock.getByTransactionStatus(Status.FAILED)));
+        assertEquals(1, chainBlock.getHitCount());
+    }
+
+    @Test
+    public void testNegativeLimitFailsWithoutPoisoningTheUnlimitedQuery(){
+        assertThrows(IllegalArgumentException.class, () -> chainBlock.getByTransactionStatus(Status.SUCCESSFUL, -1));
+        assertThrows(IllegalArgumentException.class,
+                () -> chainBlock.getAllOrderedByAmountDescendingThenById(-1));
+
+        assertEquals(List.of(3, 2), ids(chainBlock.getByTransactionStatus(Status.SUCCESSFUL)));
+        assertEquals(List.of(3, 2, 4, 1), ids(chainBlock.getAllOrderedByAmountDescendingThenById()));
+    }
+}
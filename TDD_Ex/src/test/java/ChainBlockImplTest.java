@@ -3,14 +3,16 @@ import org.junit.Test;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
 
 public class ChainBlockImplTest {
 
     private static final int TRANSACTIONS_COUNT = 8;
 
-    private ChainBlockImpl chainBlock;
+    private ChainBlock chainBlock;
     private static final Transaction transaction1 = new TransactionImpl(1, Status.FAILED, "Stan", "Aleks", 100.00);;
     private static final Transaction transaction2 = new TransactionImpl(2, Status.ABORTED, "Stan", "Aleks", 125.50);;
     private static final Transaction transaction3 = new TransactionImpl(3, Status.SUCCESSFUL, "Stan", "Aleks", 125.50);;
@@ -22,7 +24,11 @@ public class ChainBlockImplTest {
 
     @Before
     public void setUp(){
-        chainBlock = new ChainBlockImpl();
+        chainBlock = createChainBlock();
+    }
+
+    protected ChainBlock createChainBlock() {
+        return new ChainBlockImpl();
     }
 
     private void addTransactionsToChainBlock() {
@@ -45,13 +51,13 @@ public class ChainBlockImplTest {
     @Test
     public void testAddShouldAddTransactionToChainBlock(){
         addTransactionsToChainBlock();
-        Transaction transactionForValidation = chainBlock.getTransactions().get(0);
+        Transaction transactionForValidation = toList(chainBlock).get(0);
         assertEquals(1, transactionForValidation.getId());
         assertEquals(Status.FAILED, transactionForValidation.getStatus());
         assertEquals("Stan", transactionForValidation.getSender());
         assertEquals("Aleks", transactionForValidation.getReceiver());
         assertEquals(100.00, transactionForValidation.getAmount(), 0.01);
-        assertEquals(8, chainBlock.getTransactions().size());
+        assertEquals(8, toList(chainBlock).size());
     }
 
     @Test
@@ -76,6 +82,16 @@ public class ChainBlockImplTest {
     public void testChangeTransactionStatusById(){
         Transaction transaction = new TransactionImpl(777, Status.FAILED, "Aleks", "Stan", 115.25);
 
+        chainBlock.add(transaction);
+        chainBlock.changeTransactionStatus(transaction.getId(), Status.SUCCESSFUL);
+        assertEquals(Status.SUCCESSFUL, chainBlock.getById(777).getStatus());
+    }
+
+    @Test
+    public void testChangeTransactionStatusUpdatesTheAddedTransaction(){
+        assumeTrue(chainBlock instanceof ChainBlockImpl);
+        Transaction transaction = new TransactionImpl(777, Status.FAILED, "Aleks", "Stan", 115.25);
+
         chainBlock.add(transaction);
         chainBlock.changeTransactionStatus(transaction.getId(), Status.SUCCESSFUL);
         assertEquals(Status.SUCCESSFUL, transaction.getStatus());
@@ -109,7 +125,7 @@ public class ChainBlockImplTest {
     public void testGetByIdReturnsRightTransaction(){
         addTransactionsToChainBlock();
 
-        assertEquals(transaction4, chainBlock.getById(4));
+        assertSameTransaction(transaction4, chainBlock.getById(4));
     }
 
     @Test (expected = IllegalArgumentException.class)
@@ -339,7 +355,609 @@ public class ChainBlockImplTest {
             transactions.add(transaction);
         }
 
-        assertEquals(chainBlock.getTransactions(), transactions);
+        assertSameTransactions(List.of(transaction1, transaction2, transaction3, transaction4, transaction5,
+                transaction6, transaction7, transaction8), transactions);
         assertEquals(8, transactions.size());
     }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testAddFailsForDuplicateId(){
+        addTransactionsToChainBlock();
+
+        chainBlock.add(new TransactionImpl(1, Status.SUCCESSFUL, "Miro", "Tom", 15.50));
+    }
+
+    @Test
+    public void testIdLookupsStayCorrectAfterManyAddsAndRemovals(){
+        for (int id = 0; id < 1000; id++) {
+            chainBlock.add(new TransactionImpl(id, Status.SUCCESSFUL, "Stan", "Aleks", id));
+        }
+
+        for (int id = 0; id < 1000; id += 2) {
+            chainBlock.removeTransactionById(id);
+        }
+
+        assertEquals(500, chainBlock.getCount());
+
+        for (int id = 0; id < 1000; id++) {
+            assertEquals(id % 2 != 0, chainBlock.contains(id));
+        }
+
+        assertEquals(999, chainBlock.getById(999).getId());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testGetByIdFailsForRemovedId(){
+        addTransactionsToChainBlock();
+
+        chainBlock.removeTransactionById(3);
+        chainBlock.getById(3);
+    }
+
+    @Test
+    public void testChangeTransactionStatusMovesTransactionBetweenStatusQueries(){
+        addTransactionsToChainBlock();
+
+        chainBlock.changeTransactionStatus(1, Status.UNAUTHORIZED);
+
+        List<Transaction> unauthorized = new ArrayList<>();
+        chainBlock.getByTransactionStatus(Status.UNAUTHORIZED).forEach(unauthorized::add);
+
+        assertEquals(1, unauthorized.size());
+        assertSameTransaction(transaction1, unauthorized.get(0));
+
+        for (Transaction transaction : chainBlock.getByTransactionStatus(Status.FAILED)) {
+            assertNotEquals(1, transaction.getId());
+        }
+
+        chainBlock.changeTransactionStatus(1, Status.FAILED);
+    }
+
+    @Test
+    public void testGetByTransactionStatusAndMaximumAmountIsOrderedAndInclusive(){
+        addTransactionsToChainBlock();
+
+        List<Transaction> transactions = new ArrayList<>();
+        chainBlock.getByTransactionStatusAndMaximumAmount(Status.ABORTED, 125.50).forEach(transactions::add);
+
+        assertEquals(3, transactions.size());
+        assertSameTransaction(transaction2, transactions.get(0));
+        assertSameTransaction(transaction6, transactions.get(1));
+        assertSameTransaction(transaction4, transactions.get(2));
+    }
+
+    @Test
+    public void testGetBySenderAndMinimumAmountDescendingExcludesMinimum(){
+        addTransactionsToChainBlock();
+
+        List<Transaction> transactions = new ArrayList<>();
+        chainBlock.getBySenderAndMinimumAmountDescending("Aleks", 115.25).forEach(transactions::add);
+
+        assertEquals(2, transactions.size());
+        assertSameTransaction(transaction7, transactions.get(0));
+        assertSameTransaction(transaction6, transactions.get(1));
+    }
+
+    @Test
+    public void testGetByReceiverAndAmountRangeIsHalfOpenAndDescending(){
+        addTransactionsToChainBlock();
+
+        List<Transaction> transactions = new ArrayList<>();
+        chainBlock.getByReceiverAndAmountRange("Aleks", 100.00, 125.50).forEach(transactions::add);
+
+        assertEquals(2, transactions.size());
+        assertSameTransaction(transaction4, transactions.get(0));
+        assertSameTransaction(transaction1, transactions.get(1));
+    }
+
+    @Test
+    public void testGetByTransactionStatusAndMaximumAmountIsEmptyForNaN(){
+        addTransactionsToChainBlock();
+
+        assertTrue(ids(chainBlock.getByTransactionStatusAndMaximumAmount(Status.ABORTED, Double.NaN)).isEmpty());
+        assertTrue(chainBlock.findBySenderAndMinimumAmountDescending("Stan", Double.NaN).isEmpty());
+        assertTrue(chainBlock.findByReceiverAndAmountRange("Aleks", Double.NaN, 200.00).isEmpty());
+    }
+
+    @Test
+    public void testAccountAndStatusQueriesTreatSignedZerosAsEqual(){
+        chainBlock.add(new TransactionImpl(1, Status.ABORTED, "Stan", "Aleks", 0.0));
+        chainBlock.add(new TransactionImpl(2, Status.ABORTED, "Stan", "Aleks", -0.0));
+
+        assertEquals(List.of(1, 2), ids(chainBlock.getByTransactionStatusAndMaximumAmount(Status.ABORTED, -0.0)));
+        assertTrue(chainBlock.findBySenderAndMinimumAmountDescending("Stan", -0.0).isEmpty());
+        assertEquals(List.of(1, 2), ids(chainBlock.getBySenderAndMinimumAmountDescending("Stan", -1.0)));
+        assertEquals(List.of(1, 2), ids(chainBlock.getByReceiverAndAmountRange("Aleks", 0.0, 1.0)));
+        assertTrue(chainBlock.findByReceiverAndAmountRange("Aleks", -1.0, 0.0).isEmpty());
+    }
+
+    @Test
+    public void testMinimumAmountQueriesExcludeNaNAmounts(){
+        chainBlock.add(new TransactionImpl(1, Status.SUCCESSFUL, "Stan", "Aleks", Double.NaN));
+        chainBlock.add(new TransactionImpl(2, Status.SUCCESSFUL, "Stan", "Aleks", 5.0));
+
+        assertEquals(List.of(2), ids(chainBlock.getBySenderAndMinimumAmountDescending("Stan", 1.0)));
+        assertEquals(List.of(2), ids(chainBlock.getBySenderAndMinimumAmountDescending("Stan", 1.0, 5)));
+        assertEquals(List.of(2), ids(chainBlock.findBySenderAndMinimumAmountDescending("Stan", 1.0)));
+        assertEquals(List.of(2), ids(chainBlock.streamBySenderAndMinimumAmountDescending("Stan", 1.0)
+                .collect(Collectors.toList())));
+        assertTrue(chainBlock.findBySenderAndMinimumAmountDescending("Stan", 5.0).isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testGetBySenderOrderedByAmountDescendingFailsAfterLastTransactionRemoved(){
+        chainBlock.add(transaction1);
+        chainBlock.removeTransactionById(1);
+
+        chainBlock.getBySenderOrderedByAmountDescending("Stan");
+    }
+
+    @Test
+    public void testGetAllInAmountRangeIsInclusiveAndOrderedByAmount(){
+        addTransactionsToChainBlock();
+
+        List<Transaction> transactions = new ArrayList<>();
+        chainBlock.getAllInAmountRange(115.25, 125.50).forEach(transactions::add);
+
+        assertEquals(5, transactions.size());
+        assertSameTransaction(transaction4, transactions.get(0));
+        assertSameTransaction(transaction8, transactions.get(1));
+        assertSameTransaction(transaction2, transactions.get(2));
+        assertSameTransaction(transaction3, transactions.get(3));
+        assertSameTransaction(transaction6, transactions.get(4));
+    }
+
+    @Test
+    public void testGetAllInAmountRangeTreatsSignedZerosAsEqual(){
+        chainBlock.add(new TransactionImpl(1, Status.ABORTED, "Stan", "Aleks", 0.0));
+        chainBlock.add(new TransactionImpl(2, Status.ABORTED, "Stan", "Aleks", -0.0));
+
+        assertEquals(List.of(2, 1), ids(chainBlock.getAllInAmountRange(0.0, 0.0)));
+        assertEquals(List.of(2, 1), ids(chainBlock.getAllInAmountRange(-0.0, -0.0)));
+        assertEquals(List.of(2, 1), ids(chainBlock.getAllInAmountRange(-1.0, -0.0)));
+    }
+
+    @Test
+    public void testGetAllInAmountRangeIsEmptyForNaNBounds(){
+        addTransactionsToChainBlock();
+
+        assertTrue(ids(chainBlock.getAllInAmountRange(Double.NaN, 200.00)).isEmpty());
+        assertTrue(ids(chainBlock.getAllInAmountRange(0.0, Double.NaN)).isEmpty());
+    }
+
+    @Test
+    public void testGetAllOrderedByAmountDescendingThenByIdReflectsRemovals(){
+        addTransactionsToChainBlock();
+        chainBlock.removeTransactionById(7);
+
+        Transaction first = chainBlock.getAllOrderedByAmountDescendingThenById().iterator().next();
+
+        assertSameTransaction(transaction6, first);
+    }
+
+    @Test
+    public void testAddAllBuildsTheSameIndexesAsAdd(){
+        chainBlock.addAll(List.of(transaction1, transaction2, transaction3, transaction4));
+        chainBlock.addAll(List.of(transaction5, transaction6, transaction7, transaction8));
+
+        ChainBlockImpl expected = new ChainBlockImpl();
+        chainBlock.forEach(expected::add);
+
+        assertEquals(TRANSACTIONS_COUNT, chainBlock.getCount());
+        assertEquals(ids(expected), ids(chainBlock));
+        assertEquals(ids(expected.getAllOrderedByAmountDescendingThenById()),
+                ids(chainBlock.getAllOrderedByAmountDescendingThenById()));
+        assertEquals(ids(expected.getByTransactionStatus(Status.ABORTED)),
+                ids(chainBlock.getByTransactionStatus(Status.ABORTED)));
+        assertEquals(ids(expected.getBySenderOrderedByAmountDescending("Stan")),
+                ids(chainBlock.getBySenderOrderedByAmountDescending("Stan")));
+        assertEquals(ids(expected.getByReceiverOrderedByAmountThenById("Stan")),
+                ids(chainBlock.getByReceiverOrderedByAmountThenById("Stan")));
+    }
+
+    @Test
+    public void testAddAllOfSmallBatchIntoLargeBlock(){
+        List<Transaction> batch = new ArrayList<>();
+        for (int id = 100; id < 200; id++) {
+            batch.add(new TransactionImpl(id, Status.FAILED, "Stan", "Aleks", id));
+        }
+
+        chainBlock.addAll(batch);
+        chainBlock.addAll(List.of(transaction1));
+
+        assertEquals(101, chainBlock.getCount());
+        assertSameTransaction(transaction1, toList(chainBlock.getByReceiverOrderedByAmountThenById("Aleks")).get(0));
+    }
+
+    @Test
+    public void testAddAllWithDuplicateIdLeavesBlockUnchanged(){
+        chainBlock.add(transaction1);
+
+        try {
+            chainBlock.addAll(List.of(transaction2, transaction3, transaction1));
+            fail();
+        } catch (IllegalArgumentException expected) {
+            assertEquals(1, chainBlock.getCount());
+            assertFalse(chainBlock.contains(2));
+            assertFalse(chainBlock.contains(3));
+        }
+    }
+
+    @Test
+    public void testAddAllWithDuplicateIdForgetsTheBatchAccounts(){
+        chainBlock.add(transaction1);
+
+        assertThrows(IllegalArgumentException.class, () -> chainBlock.addAll(List.of(
+                new TransactionImpl(20, Status.FAILED, "Ghost", "Phantom", 10.00), transaction1)));
+
+        assertEquals(0.0, chainBlock.getVolumeBySender("Ghost"), 0.0);
+        assertEquals(0.0, chainBlock.getVolumeByReceiver("Phantom"), 0.0);
+        assertTrue(chainBlock.findBySenderOrderedByAmountDescending("Ghost").isEmpty());
+
+        chainBlock.add(new TransactionImpl(21, Status.FAILED, "Ghost", "Phantom", 10.00));
+        assertEquals(10.00, chainBlock.getVolumeBySender("Ghost"), 0.0);
+    }
+
+    private static <T> List<T> toList(Iterable<T> iterable) {
+        List<T> list = new ArrayList<>();
+        iterable.forEach(list::add);
+
+        return list;
+    }
+
+    private static List<Integer> ids(Iterable<Transaction> transactions) {
+        List<Integer> ids = new ArrayList<>();
+        transactions.forEach(t -> ids.add(t.getId()));
+
+        return ids;
+    }
+
+    private void assertSameTransaction(Transaction expected, Transaction actual) {
+        if (chainBlock instanceof ChainBlockImpl) {
+            assertSame(expected, actual);
+            return;
+        }
+
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getSender(), actual.getSender());
+        assertEquals(expected.getReceiver(), actual.getReceiver());
+        assertEquals(expected.getAmount(), actual.getAmount(), 0.0);
+    }
+
+    private void assertSameTransactions(List<Transaction> expected, List<Transaction> actual) {
+        assertEquals(expected.size(), actual.size());
+
+        for (int i = 0; i < expected.size(); i++) {
+            assertSameTransaction(expected.get(i), actual.get(i));
+        }
+    }
+
+    @Test
+    public void testStreamBySenderOrderedByAmountDescendingStopsEarly(){
+        addTransactionsToChainBlock();
+
+        List<Transaction> transactions = chainBlock.streamBySenderOrderedByAmountDescending("Aleks")
+                .limit(2)
+                .collect(Collectors.toList());
+
+        assertSameTransactions(List.of(transaction7, transaction6), transactions);
+    }
+
+    @Test
+    public void testStreamsMatchMaterializedQueries(){
+        addTransactionsToChainBlock();
+
+        assertEquals(ids(chainBlock.getAllOrderedByAmountDescendingThenById()),
+                ids(chainBlock.streamAllOrderedByAmountDescendingThenById().collect(Collectors.toList())));
+        assertEquals(ids(chainBlock.getByTransactionStatus(Status.ABORTED)),
+                ids(chainBlock.streamByTransactionStatus(Status.ABORTED).collect(Collectors.toList())));
+        assertEquals(toList(chainBlock.getAllSendersWithTransactionStatus(Status.SUCCESSFUL)),
+                chainBlock.streamAllSendersWithTransactionStatus(Status.SUCCESSFUL).collect(Collectors.toList()));
+        assertEquals(ids(chainBlock.getBySenderAndMinimumAmountDescending("Stan", 110.00)),
+                ids(chainBlock.streamBySenderAndMinimumAmountDescending("Stan", 110.00).collect(Collectors.toList())));
+        assertEquals(ids(chainBlock.getByReceiverAndAmountRange("Stan", 115.25, 200.00)),
+                ids(chainBlock.streamByReceiverAndAmountRange("Stan", 115.25, 200.00).collect(Collectors.toList())));
+        assertEquals(ids(chainBlock.getAllInAmountRange(115.25, 200.00)),
+                ids(chainBlock.streamAllInAmountRange(115.25, 200.00).collect(Collectors.toList())));
+    }
+
+    @Test
+    public void testStreamsAreEmptyInsteadOfFailingWhenNothingMatches(){
+        addTransactionsToChainBlock();
+
+        assertEquals(0, chainBlock.streamByTransactionStatus(Status.UNAUTHORIZED).count());
+        assertEquals(0, chainBlock.streamBySenderOrderedByAmountDescending("I don't exist").count());
+        assertEquals(0, chainBlock.streamByReceiverAndAmountRange("Stan", 200.00, 100.00).count());
+    }
+
+    @Test
+    public void testTopKQueriesArePrefixesOfFullQueries(){
+        addTransactionsToChainBlock();
+
+        assertEquals(ids(chainBlock.getAllOrderedByAmountDescendingThenById()).subList(0, 3),
+                ids(chainBlock.getAllOrderedByAmountDescendingThenById(3)));
+        assertEquals(ids(chainBlock.getByTransactionStatus(Status.ABORTED)).subList(0, 2),
+                ids(chainBlock.getByTransactionStatus(Status.ABORTED, 2)));
+        assertEquals(ids(chainBlock.getBySenderOrderedByAmountDescending("Stan")).subList(0, 1),
+                ids(chainBlock.getBySenderOrderedByAmountDescending("Stan", 1)));
+        assertEquals(ids(chainBlock.getByReceiverOrderedByAmountThenById("Stan")),
+                ids(chainBlock.getByReceiverOrderedByAmountThenById("Stan", 10)));
+        assertTrue(toList(chainBlock.getByTransactionStatusAndMaximumAmount(Status.SUCCESSFUL, 125.50, 0)).isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTopKFailsForNegativeLimit(){
+        addTransactionsToChainBlock();
+
+        chainBlock.getAllOrderedByAmountDescendingThenById(-1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTopKFailsForNoExistingSender(){
+        addTransactionsToChainBlock();
+
+        chainBlock.getBySenderAndMinimumAmountDescending("Someone", 110.00, 5);
+    }
+
+    @Test
+    public void testAccountNamesAreInternedWhenTransactionsEnterTheBlock(){
+        chainBlock.add(new TransactionImpl(1, Status.FAILED, new String("Stan"), new String("Aleks"), 100.00));
+        chainBlock.add(new TransactionImpl(2, Status.FAILED, new String("Stan"), new String("Aleks"), 50.00));
+        chainBlock.removeTransactionById(1);
+        chainBlock.add(new TransactionImpl(3, Status.FAILED, new String("Stan"), new String("Aleks"), 75.00));
+
+        List<String> senders = toList(chainBlock.getAllSendersWithTransactionStatus(Status.FAILED));
+        List<String> receivers = toList(chainBlock.getAllReceiversWithTransactionStatus(Status.FAILED));
+
+        assertEquals(List.of("Stan", "Stan"), senders);
+        assertSame(senders.get(0), senders.get(1));
+        assertSame(receivers.get(0), receivers.get(1));
+        assertEquals(List.of(3, 2), toList(chainBlock.getBySenderOrderedByAmountDescending(new String("Stan")))
+                .stream().map(Transaction::getId).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testAggregatesFollowAddRemoveAndStatusChanges(){
+        addTransactionsToChainBlock();
+
+        assertEquals(3, chainBlock.getCountByTransactionStatus(Status.ABORTED));
+        assertEquals(0, chainBlock.getCountByTransactionStatus(Status.UNAUTHORIZED));
+        assertEquals(466.25, chainBlock.getVolumeBySender("Stan"), 1e-9);
+        assertEquals(540.75, chainBlock.getVolumeByReceiver("Stan"), 1e-9);
+        assertEquals(0, chainBlock.getVolumeBySender("Nobody"), 0.0);
+        assertEquals(100.00, chainBlock.getMinimumAmount(), 0.0);
+        assertEquals(200.00, chainBlock.getMaximumAmount(), 0.0);
+
+        chainBlock.changeTransactionStatus(2, Status.UNAUTHORIZED);
+        chainBlock.removeTransactionById(7);
+
+        assertEquals(2, chainBlock.getCountByTransactionStatus(Status.ABORTED));
+        assertEquals(1, chainBlock.getCountByTransactionStatus(Status.UNAUTHORIZED));
+        assertEquals(2, chainBlock.getCountByTransactionStatus(Status.SUCCESSFUL));
+        assertEquals(340.75, chainBlock.getVolumeByReceiver("Stan"), 1e-9);
+        assertEquals(125.50, chainBlock.getMaximumAmount(), 0.0);
+
+        chainBlock.changeTransactionStatus(2, Status.ABORTED);
+        chainBlock.removeTransactionById(1);
+        chainBlock.removeTransactionById(2);
+        chainBlock.removeTransactionById(3);
+        chainBlock.removeTransactionById(4);
+
+        assertEquals(0, chainBlock.getVolumeBySender("Stan"), 0.0);
+        assertEquals(0, chainBlock.getVolumeByReceiver("Aleks"), 0.0);
+        assertEquals(100.00, chainBlock.getMinimumAmount(), 0.0);
+    }
+
+    @Test
+    public void testAggregatesAreMaintainedByBulkAdd(){
+        chainBlock.add(transaction1);
+        chainBlock.addAll(List.of(transaction2, transaction3, transaction4, transaction5));
+
+        assertEquals(2, chainBlock.getCountByTransactionStatus(Status.FAILED));
+        assertEquals(466.25, chainBlock.getVolumeBySender("Stan"), 1e-9);
+        assertEquals(100.00, chainBlock.getVolumeByReceiver("Stan"), 1e-9);
+    }
+
+    @Test
+    public void testMinimumAndMaximumAmountFollowDoubleCompareOrder(){
+        List<Transaction> transactions = List.of(
+                new TransactionImpl(1, Status.SUCCESSFUL, "Stan", "Aleks", Double.NaN),
+                new TransactionImpl(2, Status.SUCCESSFUL, "Stan", "Aleks", 0.0),
+                new TransactionImpl(3, Status.SUCCESSFUL, "Stan", "Aleks", -0.0),
+                new TransactionImpl(4, Status.SUCCESSFUL, "Stan", "Aleks", 5.0));
+        ChainBlock scanned = new ColumnarChainBlock();
+        ChainBlock sharded = new ShardedChainBlock(3);
+
+        for (ChainBlock block : List.of(chainBlock, scanned, sharded)) {
+            block.addAll(transactions);
+
+            assertEquals(Double.valueOf(-0.0), Double.valueOf(block.getMinimumAmount()));
+            assertEquals(Double.valueOf(Double.NaN), Double.valueOf(block.getMaximumAmount()));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMinimumAmountFailsForEmptyBlock(){
+        chainBlock.getMinimumAmount();
+    }
+
+    @Test
+    public void testFindQueriesMatchTheThrowingQueriesOnHits(){
+        addTransactionsToChainBlock();
+
+        assertSameTransaction(transaction3, chainBlock.findById(3).orElseThrow());
+        assertEquals(ids(chainBlock.getByTransactionStatus(Status.ABORTED)),
+                ids(chainBlock.findByTransactionStatus(Status.ABORTED)));
+        assertEquals(toList(chainBlock.getAllSendersWithTransactionStatus(Status.SUCCESSFUL)),
+                chainBlock.findAllSendersWithTransactionStatus(Status.SUCCESSFUL));
+        assertEquals(toList(chainBlock.getAllReceiversWithTransactionStatus(Status.FAILED)),
+                chainBlock.findAllReceiversWithTransactionStatus(Status.FAILED));
+        assertEquals(ids(chainBlock.getBySenderOrderedByAmountDescending("Stan")),
+                ids(chainBlock.findBySenderOrderedByAmountDescending("Stan")));
+        assertEquals(ids(chainBlock.getByReceiverOrderedByAmountThenById("Stan")),
+                ids(chainBlock.findByReceiverOrderedByAmountThenById("Stan")));
+        assertEquals(ids(chainBlock.getBySenderAndMinimumAmountDescending("Aleks", 110)),
+                ids(chainBlock.findBySenderAndMinimumAmountDescending("Aleks", 110)));
+        assertEquals(ids(chainBlock.getByReceiverAndAmountRange("Aleks", 100, 125.50)),
+                ids(chainBlock.findByReceiverAndAmountRange("Aleks", 100, 125.50)));
+    }
+
+    @Test
+    public void testFindQueriesReturnEmptyResultsInsteadOfThrowing(){
+        addTransactionsToChainBlock();
+
+        assertTrue(chainBlock.findById(99).isEmpty());
+        assertTrue(chainBlock.findByTransactionStatus(Status.UNAUTHORIZED).isEmpty());
+        assertTrue(chainBlock.findAllSendersWithTransactionStatus(Status.UNAUTHORIZED).isEmpty());
+        assertTrue(chainBlock.findAllReceiversWithTransactionStatus(Status.UNAUTHORIZED).isEmpty());
+        assertTrue(chainBlock.findBySenderOrderedByAmountDescending("Someone").isEmpty());
+        assertTrue(chainBlock.findByReceiverOrderedByAmountThenById("Someone").isEmpty());
+        assertTrue(chainBlock.findBySenderAndMinimumAmountDescending("Stan", 200).isEmpty());
+        assertTrue(chainBlock.findByReceiverAndAmountRange("Aleks", 0, 100).isEmpty());
+    }
+
+    @Test
+    public void testRemovalsKeepTheTransactionListLiveAndInArrivalOrder(){
+        assumeTrue(chainBlock instanceof ChainBlockImpl);
+        addTransactionsToChainBlock();
+        List<Transaction> transactions = ((ChainBlockImpl) chainBlock).getTransactions();
+
+        chainBlock.removeTransactionById(2);
+        chainBlock.removeTransactionById(5);
+        chainBlock.removeTransactionById(7);
+
+        assertEquals(5, chainBlock.getCount());
+        assertSameTransactions(List.of(transaction1, transaction3, transaction4, transaction6, transaction8), transactions);
+        assertEquals(transactions, toList(chainBlock));
+
+        chainBlock.removeTransactionById(1);
+        chainBlock.add(transaction7);
+
+        assertSameTransactions(List.of(transaction3, transaction4, transaction6, transaction8, transaction7), transactions);
+    }
+
+    @Test
+    public void testTransactionListReadsPastTombstonesInAnyOrder(){
+        assumeTrue(chainBlock instanceof ChainBlockImpl);
+        addTransactionsToChainBlock();
+        List<Transaction> transactions = ((ChainBlockImpl) chainBlock).getTransactions();
+
+        chainBlock.removeTransactionById(3);
+
+        assertSame(transaction8, transactions.get(6));
+        assertSame(transaction4, transactions.get(2));
+        assertSame(transaction5, transactions.get(3));
+        assertSame(transaction1, transactions.get(0));
+        assertThrows(IndexOutOfBoundsException.class, () -> transactions.get(7));
+
+        chainBlock.removeTransactionById(1);
+
+        assertSame(transaction4, transactions.get(1));
+        assertSame(transaction8, transactions.get(5));
+    }
+
+    @Test
+    public void testRemovalsInterleavedWithAddsPreserveArrivalOrder(){
+        assumeTrue(chainBlock instanceof ChainBlockImpl);
+        List<Transaction> expected = new ArrayList<>();
+
+        for (int id = 0; id < 1_000; id++) {
+            Transaction transaction = new TransactionImpl(id, Status.SUCCESSFUL, "Stan", "Aleks", id);
+            chainBlock.add(transaction);
+            expected.add(transaction);
+
+            if (id % 3 == 0) {
+                int removedId = id / 2;
+                chainBlock.removeTransactionById(removedId);
+                expected.removeIf(t -> t.getId() == removedId);
+            }
+        }
+
+        assertEquals(expected, toList(chainBlock));
+        assertEquals(expected, ((ChainBlockImpl) chainBlock).getTransactions());
+        assertEquals(expected.size(), chainBlock.getCount());
+    }
+
+    @Test
+    public void testRemoveAllPurgesMatchingTransactionsFromEveryIndex(){
+        addTransactionsToChainBlock();
+
+        int removed = chainBlock.removeAll(t -> t.getStatus() == Status.FAILED || t.getStatus() == Status.ABORTED);
+
+        assertEquals(5, removed);
+        assertEquals(List.of(3, 7, 8), ids(chainBlock).stream().sorted().collect(Collectors.toList()));
+        assertFalse(chainBlock.contains(1));
+        assertEquals(0, chainBlock.getCountByTransactionStatus(Status.FAILED));
+        assertTrue(chainBlock.findByTransactionStatus(Status.ABORTED).isEmpty());
+        assertEquals(125.50, chainBlock.getVolumeBySender("Stan"), 0.0);
+        assertSameTransactions(List.of(transaction7, transaction3, transaction8),
+                toList(chainBlock.getAllOrderedByAmountDescendingThenById()));
+        assertEquals(0, chainBlock.removeAll(t -> t.getStatus() == Status.FAILED));
+
+        chainBlock.add(transaction1);
+        assertEquals(4, chainBlock.getCount());
+    }
+
+    @Test
+    public void testPagesWalkTheOrderedQueriesWithoutGapsOrDuplicates(){
+        addTransactionsToChainBlock();
+
+        List<Transaction> all = new ArrayList<>();
+        Page page = chainBlock.pageAllOrderedByAmountDescendingThenById(3);
+        all.addAll(page.getTransactions());
+
+        while (page.hasNext()) {
+            page = chainBlock.pageAllOrderedByAmountDescendingThenById(page.getNextToken().get(), 3);
+            all.addAll(page.getTransactions());
+        }
+
+        assertEquals(ids(chainBlock.getAllOrderedByAmountDescendingThenById()), ids(all));
+
+        Page first = chainBlock.pageByReceiverOrderedByAmountThenById("Aleks", 2);
+        Page second = chainBlock.pageByReceiverOrderedByAmountThenById("Aleks", first.getNextToken().get(), 2);
+
+        assertSameTransactions(List.of(transaction1, transaction4), first.getTransactions());
+        assertSameTransactions(List.of(transaction2, transaction3), second.getTransactions());
+        assertFalse(second.hasNext());
+    }
+
+    @Test
+    public void testPagesStayConsistentWhenTheBlockChangesBetweenPages(){
+        addTransactionsToChainBlock();
+
+        Page first = chainBlock.pageAllOrderedByAmountDescendingThenById(3);
+        assertSameTransactions(List.of(transaction7, transaction6, transaction3), first.getTransactions());
+
+        Transaction early = new TransactionImpl(9, Status.SUCCESSFUL, "Stan", "Aleks", 300.00);
+        Transaction late = new TransactionImpl(10, Status.SUCCESSFUL, "Stan", "Aleks", 50.00);
+        chainBlock.add(early);
+        chainBlock.add(late);
+        chainBlock.removeTransactionById(2);
+        chainBlock.removeTransactionById(3);
+
+        PageToken token = PageToken.decode(first.getNextToken().get().encode());
+        Page second = chainBlock.pageAllOrderedByAmountDescendingThenById(token, 3);
+        Page third = chainBlock.pageAllOrderedByAmountDescendingThenById(second.getNextToken().get(), 3);
+
+        assertSameTransactions(List.of(transaction8, transaction4, transaction5), second.getTransactions());
+        assertSameTransactions(List.of(transaction1, late), third.getTransactions());
+        assertFalse(third.hasNext());
+    }
+
+    @Test
+    public void testPagesOfUnknownReceiverAreEmpty(){
+        addTransactionsToChainBlock();
+
+        Page page = chainBlock.pageByReceiverOrderedByAmountThenById("Someone", 10);
+
+        assertTrue(page.getTransactions().isEmpty());
+        assertFalse(page.hasNext());
+    }
+
+    @Test
+    public void testPageSizeAndTokensAreValidated(){
+        assertThrows(IllegalArgumentException.class, () -> chainBlock.pageAllOrderedByAmountDescendingThenById(0));
+        assertThrows(IllegalArgumentException.class, () -> PageToken.decode("not a token"));
+        assertEquals(new PageToken(-0.5, -7), PageToken.decode(new PageToken(-0.5, -7).encode()));
+    }
 }
@@ -0,0 +1,354 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+public class ColumnarChainBlockTest {
+
+    private static final int TRANSACTIONS_COUNT = 8;
+
+    private ChainBlock chainBlock;
+
+    protected ChainBlock createChainBlock() {
+        return new ColumnarChainBlock(2);
+    }
+
+    @Before
+    public void setUp(){
+        chainBlock = createChainBlock();
+        chainBlock.add(new TransactionImpl(1, Status.FAILED, "Stan", "Aleks", 100.00));
+        chainBlock.add(new TransactionImpl(2, Status.ABORTED, "Stan", "Aleks", 125.50));
+        chainBlock.add(new TransactionImpl(3, Status.SUCCESSFUL, "Stan", "Aleks", 125.50));
+        chainBlock.add(new TransactionImpl(4, Status.ABORTED, "Stan", "Aleks", 115.25));
+        chainBlock.add(new TransactionImpl(5, Status.FAILED, "Aleks", "Stan", 100.00));
+        chainBlock.add(new TransactionImpl(6, Status.ABORTED, "Aleks", "Stan", 125.50));
+        chainBlock.add(new TransactionImpl(7, Status.SUCCESSFUL, "Aleks", "Stan", 200.00));
+        chainBlock.add(new TransactionImpl(8, Status.SUCCESSFUL, "Aleks", "Stan", 115.25));
+    }
+
+    private static List<Integer> ids(Iterable<Transaction> transactions) {
+        List<Integer> ids = new ArrayList<>();
+        transactions.forEach(t -> ids.add(t.getId()));
+
+        return ids;
+    }
+
+    @Test
+    public void testAddAndGetByIdRoundTripAllColumns(){
+        Transaction transaction = chainBlock.getById(4);
+
+        assertEquals(TRANSACTIONS_COUNT, chainBlock.getCount());
+        assertEquals(4, transaction.getId());
+        assertEquals(Status.ABORTED, transaction.getStatus());
+        assertEquals("Stan", transaction.getSender());
+        assertEquals("Aleks", transaction.getReceiver());
+        assertEquals(115.25, transaction.getAmount(), 0.01);
+    }
+
+    @Test
+    public void testContainsComparesIdAndColumns(){
+        assertTrue(chainBlock.contains(3));
+        assertFalse(chainBlock.contains(22));
+        assertTrue(chainBlock.contains(new TransactionImpl(3, Status.SUCCESSFUL, "Stan", "Aleks", 125.50)));
+        assertFalse(chainBlock.contains(new TransactionImpl(3, Status.FAILED, "Stan", "Aleks", 125.50)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testAddFailsForDuplicateId(){
+        chainBlock.add(new TransactionImpl(1, Status.SUCCESSFUL, "Miro", "Tom", 15.50));
+    }
+
+    @Test
+    public void testViewsAreReadOnlySnapshotsOfTheRow(){
+        Transaction view = chainBlock.getById(1);
+        chainBlock.changeTransactionStatus(1, Status.SUCCESSFUL);
+
+        assertEquals(Status.SUCCESSFUL, chainBlock.getById(1).getStatus());
+        assertThrows(UnsupportedOperationException.class, () -> view.setTransactionStatus(Status.UNAUTHORIZED));
+        assertEquals(Status.SUCCESSFUL, chainBlock.getById(1).getStatus());
+    }
+
+    @Test
+    public void testRemoveTransactionByIdKeepsRemainingRowsReachable(){
+        chainBlock.removeTransactionById(2);
+
+        assertEquals(TRANSACTIONS_COUNT - 1, chainBlock.getCount());
+        assertFalse(chainBlock.contains(2));
+
+        for (int id : new int[] {1, 3, 4, 5, 6, 7, 8}) {
+            assertEquals(id, chainBlock.getById(id).getId());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRemoveTransactionByIdFailsForInvalidId(){
+        chainBlock.removeTransactionById(-1);
+    }
+
+    @Test
+    public void testGetByTransactionStatusIsOrderedByAmountDescending(){
+        assertEquals(List.of(7, 3, 8), ids(chainBlock.getByTransactionStatus(Status.SUCCESSFUL)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testGetByTransactionStatusFailsForNoExistingStatus(){
+        chainBlock.getByTransactionStatus(Status.UNAUTHORIZED);
+    }
+
+    @Test
+    public void testGetAllSendersAndReceiversWithTransactionStatusKeepInsertionOrder(){
+        List<String> senders = new ArrayList<>();
+        chainBlock.getAllSendersWithTransactionStatus(Status.SUCCESSFUL).forEach(senders::add);
+
+        List<String> receivers = new ArrayList<>();
+        chainBlock.getAllReceiversWithTransactionStatus(Status.SUCCESSFUL).forEach(receivers::add);
+
+        assertEquals(List.of("Stan", "Aleks", "Aleks"), senders);
+        assertEquals(List.of("Aleks", "Stan", "Stan"), receivers);
+    }
+
+    @Test
+    public void testOrderedQueriesMatchChainBlockImpl(){
+        assertEquals(List.of(7, 6, 3, 2, 8, 4, 5, 1), ids(chainBlock.getAllOrderedByAmountDescendingThenById()));
+        assertEquals(List.of(7, 6, 8, 5), ids(chainBlock.getBySenderOrderedByAmountDescending("Aleks")));
+        assertEquals(List.of(5, 8, 6, 7), ids(chainBlock.getByReceiverOrderedByAmountThenById("Stan")));
+        assertEquals(List.of(2, 6, 4), ids(chainBlock.getByTransactionStatusAndMaximumAmount(Status.ABORTED, 125.50)));
+        assertEquals(List.of(3, 2, 4), ids(chainBlock.getBySenderAndMinimumAmountDescending("Stan", 110.00)));
+        assertEquals(List.of(6, 8), ids(chainBlock.getByReceiverAndAmountRange("Stan", 115.25, 200.00)));
+        assertEquals(List.of(4, 8, 2, 3, 6), ids(chainBlock.getAllInAmountRange(115.25, 125.50)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testGetBySenderOrderedByAmountDescendingFailsForNoExistingSender(){
+        chainBlock.getBySenderOrderedByAmountDescending("I don't exist");
+    }
+
+    @Test
+    public void testIteratorVisitsEveryRow(){
+        List<Integer> ids = ids(chainBlock);
+
+        assertEquals(List.of(1, 2, 3, 4, 5, 6, 7, 8), ids);
+    }
+
+    @Test
+    public void testDefaultStreamsFollowQueryOrderAndTurnMissesIntoEmptyStreams(){
+        assertEquals(List.of(7, 6), chainBlock.streamBySenderOrderedByAmountDescending("Aleks")
+                .limit(2)
+                .map(Transaction::getId)
+                .collect(Collectors.toList()));
+        assertEquals(0, chainBlock.streamByTransactionStatus(Status.UNAUTHORIZED).count());
+    }
+
+    @Test
+    public void testStreamsMatchTheMaterializedQueriesIncludingTies(){
+        for (Status status : Status.values()) {
+            assertEquals(ids(chainBlock.findByTransactionStatus(status)),
+                    ids(chainBlock.streamByTransactionStatus(status)::iterator));
+            assertEquals(chainBlock.findAllSendersWithTransactionStatus(status),
+                    chainBlock.streamAllSendersWithTransactionStatus(status).collect(Collectors.toList()));
+            assertEquals(chainBlock.findAllReceiversWithTransactionStatus(status),
+                    chainBlock.streamAllReceiversWithTransactionStatus(status).collect(Collectors.toList()));
+            assertEquals(ids(chainBlock.getByTransactionStatusAndMaximumAmount(status, 125.50)),
+                    ids(chainBlock.streamByTransactionStatusAndMaximumAmount(status, 125.50)::iterator));
+        }
+
+        assertEquals(ids(chainBlock.getAllOrderedByAmountDescendingThenById()),
+                ids(chainBlock.streamAllOrderedByAmountDescendingThenById()::iterator));
+        assertEquals(ids(chainBlock.findByReceiverOrderedByAmountThenById("Stan")),
+                ids(chainBlock.streamByReceiverOrderedByAmountThenById("Stan")::iterator));
+        assertEquals(ids(chainBlock.findBySenderAndMinimumAmountDescending("Stan", 100.00)),
+                ids(chainBlock.streamBySenderAndMinimumAmountDescending("Stan", 100.00)::iterator));
+        assertEquals(ids(chainBlock.findByReceiverAndAmountRange("Aleks", 100.00, 125.50)),
+                ids(chainBlock.streamByReceiverAndAmountRange("Aleks", 100.00, 125.50)::iterator));
+        assertEquals(ids(chainBlock.getAllInAmountRange(100.00, 125.50)),
+                ids(chainBlock.streamAllInAmountRange(100.00, 125.50)::iterator));
+    }
+
+    @Test
+    public void testAccountMissesAreRejectedBeforeAnyRowIsRead(){
+        int[] reads = new int[1];
+        ChainBlock counting = new ColumnarChainBlock() {
+            @Override
+            protected int senderAt(int row) {
+                reads[0]++;
+                return super.senderAt(row);
+            }
+
+            @Override
+            protected int receiverAt(int row) {
+                reads[0]++;
+                return super.receiverAt(row);
+            }
+        };
+        chainBlock.forEach(counting::add);
+        reads[0] = 0;
+
+        assertEquals(0.0, counting.getVolumeBySender("Nobody"), 0.0);
+        assertEquals(0.0, counting.getVolumeByReceiver("Nobody"), 0.0);
+        assertThrows(IllegalArgumentException.class, () -> counting.getBySenderOrderedByAmountDescending("Nobody", 3));
+        assertThrows(IllegalArgumentException.class,
+                () -> counting.getByReceiverAndAmountRange("Nobody", 0, 1_000, 3));
+        assertTrue(counting.findBySenderOrderedByAmountDescending("Nobody").isEmpty());
+        assertEquals(0, counting.streamByReceiverOrderedByAmountThenById("Nobody").count());
+        assertTrue(counting.pageByReceiverOrderedByAmountThenById("Nobody", 3).getTransactions().isEmpty());
+        assertEquals(0, reads[0]);
+
+        assertEquals(chainBlock.getVolumeBySender("Stan"), counting.getVolumeBySender("Stan"), 0.0);
+        assertEquals(ids(chainBlock.getBySenderOrderedByAmountDescending("Stan", 3)),
+                ids(counting.getBySenderOrderedByAmountDescending("Stan", 3)));
+    }
+
+    @Test
+    public void testDefaultTopKQueriesKeepTieBreakingRules(){
+        assertEquals(List.of(7, 6, 3), ids(chainBlock.getAllOrderedByAmountDescendingThenById(3)));
+        assertEquals(List.of(2, 6), ids(chainBlock.getByTransactionStatus(Status.ABORTED, 2)));
+        assertEquals(List.of(5, 8), ids(chainBlock.getByReceiverOrderedByAmountThenById("Stan", 2)));
+        assertEquals(List.of(3, 2), ids(chainBlock.getBySenderAndMinimumAmountDescending("Stan", 110.00, 2)));
+        assertEquals(List.of(6), ids(chainBlock.getByReceiverAndAmountRange("Stan", 115.25, 200.00, 1)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDefaultTopKFailsForNoExistingStatus(){
+        chainBlock.getByTransactionStatus(Status.UNAUTHORIZED, 5);
+    }
+
+    @Test
+    public void testParallelQueriesMatchSequentialQueries(){
+        ChainBlock parallel = createChainBlock();
+        ChainBlock sequential = createChainBlock();
+        assumeTrue(parallel instanceof AbstractRowChainBlock);
+
+        ((AbstractRowChainBlock) parallel).setParallelism(ForkJoinPool.commonPool(), 0);
+        ((AbstractRowChainBlock) sequential).setParallelism(ForkJoinPool.commonPool(), Integer.MAX_VALUE);
+
+        Random random = new Random(42);
+        for (int id = 0; id < 50_000; id++) {
+            Transaction transaction = new TransactionImpl(id, Status.values()[random.nextInt(4)],
+                    "sender" + random.nextInt(20), "receiver" + random.nextInt(20), random.nextInt(1000));
+            parallel.add(transaction);
+            sequential.add(transaction);
+        }
+
+        assertEquals(ids(sequential.getAllOrderedByAmountDescendingThenById()),
+                ids(parallel.getAllOrderedByAmountDescendingThenById()));
+        assertEquals(ids(sequential.getByTransactionStatus(Status.ABORTED)),
+                ids(parallel.getByTransactionStatus(Status.ABORTED)));
+        assertEquals(ids(sequential.getBySenderOrderedByAmountDescending("sender3")),
+                ids(parallel.getBySenderOrderedByAmountDescending("sender3")));
+        assertEquals(ids(sequential.getAllInAmountRange(100, 200)),
+                ids(parallel.getAllInAmountRange(100, 200)));
+        assertEquals(ids(sequential.getByTransactionStatus(Status.ABORTED)),
+                ids(parallel.streamByTransactionStatus(Status.ABORTED)::iterator));
+        assertEquals(ids(sequential.getAllOrderedByAmountDescendingThenById(100)),
+                ids(parallel.streamAllOrderedByAmountDescendingThenById().limit(100)::iterator));
+
+        List<String> sequentialSenders = new ArrayList<>();
+        sequential.getAllSendersWithTransactionStatus(Status.FAILED).forEach(sequentialSenders::add);
+        List<String> parallelSenders = new ArrayList<>();
+        parallel.getAllSendersWithTransactionStatus(Status.FAILED).forEach(parallelSenders::add);
+
+        assertEquals(sequentialSenders, parallelSenders);
+    }
+
+    @Test
+    public void testAggregatesMatchTheStoredRows(){
+        chainBlock.changeTransactionStatus(2, Status.UNAUTHORIZED);
+        chainBlock.removeTransactionById(7);
+
+        assertEquals(2, chainBlock.getCountByTransactionStatus(Status.ABORTED));
+        assertEquals(1, chainBlock.getCountByTransactionStatus(Status.UNAUTHORIZED));
+        assertEquals(466.25, chainBlock.getVolumeBySender("Stan"), 1e-9);
+        assertEquals(340.75, chainBlock.getVolumeByReceiver("Stan"), 1e-9);
+        assertEquals(100.00, chainBlock.getMinimumAmount(), 0.0);
+        assertEquals(125.50, chainBlock.getMaximumAmount(), 0.0);
+    }
+
+    @Test
+    public void testFindQueriesReturnEmptyResultsInsteadOfThrowing(){
+        assertEquals(4, chainBlock.findById(4).orElseThrow().getId());
+        assertEquals(List.of(3, 2, 4, 1), ids(chainBlock.findBySenderOrderedByAmountDescending("Stan")));
+        assertEquals(List.of(7, 3, 8), ids(chainBlock.findByTransactionStatus(Status.SUCCESSFUL)));
+
+        assertTrue(chainBlock.findById(22).isEmpty());
+        assertTrue(chainBlock.findByTransactionStatus(Status.UNAUTHORIZED).isEmpty());
+        assertTrue(chainBlock.findAllSendersWithTransactionStatus(Status.UNAUTHORIZED).isEmpty());
+        assertTrue(chainBlock.findBySenderOrderedByAmountDescending("Someone").isEmpty());
+        assertTrue(chainBlock.findByReceiverAndAmountRange("Aleks", 0, 100).isEmpty());
+    }
+
+    @Test
+    public void testRemoveAllPurgesMatchingTransactionsInOnePass(){
+        int removed = chainBlock.removeAll(t -> t.getStatus() == Status.FAILED || t.getStatus() == Status.ABORTED);
+
+        assertEquals(5, removed);
+        assertEquals(3, chainBlock.getCount());
+        assertEquals(List.of(3, 7, 8), ids(chainBlock).stream().sorted().collect(Collectors.toList()));
+        assertFalse(chainBlock.contains(2));
+        assertEquals(0, chainBlock.getCountByTransactionStatus(Status.ABORTED));
+        assertEquals(List.of(7, 3, 8), ids(chainBlock.getAllOrderedByAmountDescendingThenById()));
+    }
+
+    @Test
+    public void testPagesWalkTheOrderedQueries(){
+        List<Integer> all = new ArrayList<>();
+
+        for (Page page = chainBlock.pageAllOrderedByAmountDescendingThenById(3); ;
+             page = chainBlock.pageAllOrderedByAmountDescendingThenById(page.getNextToken().get(), 3)) {
+            all.addAll(ids(page.getTransactions()));
+
+            if (!page.hasNext())
+                break;
+        }
+
+        Page first = chainBlock.pageByReceiverOrderedByAmountThenById("Stan", 3);
+        Page second = chainBlock.pageByReceiverOrderedByAmountThenById("Stan", first.getNextToken().get(), 3);
+
+        assertEquals(ids(chainBlock.getAllOrderedByAmountDescendingThenById()), all);
+        assertEquals(List.of(5, 8, 6), ids(first.getTransactions()));
+        assertEquals(List.of(7), ids(second.getTransactions()));
+        assertFalse(second.hasNext());
+    }
+
+    @Test
+    public void testLargeSortedQueriesMatchChainBlockImpl(){
+        ChainBlock rows = createChainBlock();
+        ChainBlock tree = new ChainBlockImpl();
+
+        Random random = new Random(7);
+        for (int id = 0; id < 5_000; id++) {
+            int amountId = random.nextInt(Integer.MAX_VALUE);
+            Transaction transaction = new TransactionImpl(random.nextBoolean() ? amountId : -amountId,
+                    Status.values()[random.nextInt(4)], "sender" + random.nextInt(3), "receiver" + random.nextInt(3),
+                    (random.nextInt(20_000) - 10_000) / 4.0);
+
+            if (!tree.contains(transaction.getId())) {
+                rows.add(transaction);
+                tree.add(transaction);
+            }
+        }
+
+        assertEquals(ids(tree.getAllOrderedByAmountDescendingThenById()),
+                ids(rows.getAllOrderedByAmountDescendingThenById()));
+        assertEquals(ids(tree.getBySenderOrderedByAmountDescending("sender1")),
+                ids(rows.getBySenderOrderedByAmountDescending("sender1")));
+        assertEquals(ids(tree.getByReceiverOrderedByAmountThenById("receiver2")),
+                ids(rows.getByReceiverOrderedByAmountThenById("receiver2")));
+        assertEquals(ids(tree.getAllInAmountRange(-1_000, 1_000)), ids(rows.getAllInAmountRange(-1_000, 1_000)));
+    }
+
+    @Test
+    public void testHugeLimitsReturnEveryMatchWithoutPreallocating(){
+        assertEquals(ids(chainBlock.getAllOrderedByAmountDescendingThenById()),
+                ids(chainBlock.getAllOrderedByAmountDescendingThenById(Integer.MAX_VALUE)));
+        assertEquals(List.of(2, 6, 4), ids(chainBlock.getByTransactionStatus(Status.ABORTED, Integer.MAX_VALUE)));
+        assertEquals(ids(chainBlock.getAllOrderedByAmountDescendingThenById()),
+                ids(chainBlock.pageAllOrderedByAmountDescendingThenById(Integer.MAX_VALUE).getTransactions()));
+    }
+}
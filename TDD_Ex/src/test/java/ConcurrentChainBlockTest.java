@@ -0,0 +1,237 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class ConcurrentChainBlockTest {
+
+    private static final int THREADS = 8;
+    private static final int TRANSACTIONS_PER_THREAD = 10_000;
+
+    private ChainBlock chainBlock;
+    private ExecutorService executor;
+
+    @Before
+    public void setUp(){
+        chainBlock = new ConcurrentChainBlock();
+        executor = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @After
+    public void tearDown(){
+        executor.shutdownNow();
+    }
+
+    private void runInParallel(Worker worker) throws Exception {
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int thread = 0; thread < THREADS; thread++) {
+            int offset = thread * TRANSACTIONS_PER_THREAD;
+            futures.add(executor.submit(() -> {
+                for (int id = offset; id < offset + TRANSACTIONS_PER_THREAD; id++) {
+                    worker.run(id);
+                }
+                return null;
+            }));
+        }
+
+        for (Future<?> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+    }
+
+    private interface Worker {
+        void run(int id);
+    }
+
+    private static List<Integer> ids(Iterable<Transaction> transactions) {
+        List<Integer> ids = new ArrayList<>();
+        transactions.forEach(t -> ids.add(t.getId()));
+
+        return ids;
+    }
+
+    @Test
+    public void testStreamsMatchTheMaterializedQueriesIncludingTies(){
+        Random random = new Random(42);
+        for (int id = 0; id < 1_000; id++) {
+            chainBlock.add(new TransactionImpl(id, Status.values()[random.nextInt(4)],
+                    "sender" + random.nextInt(5), "receiver" + random.nextInt(5), random.nextInt(50)));
+        }
+
+        assertEquals(ids(chainBlock.findByTransactionStatus(Status.ABORTED)),
+                ids(chainBlock.streamByTransactionStatus(Status.ABORTED)::iterator));
+        assertEquals(ids(chainBlock.getByTransactionStatusAndMaximumAmount(Status.FAILED, 25)),
+                ids(chainBlock.streamByTransactionStatusAndMaximumAmount(Status.FAILED, 25)::iterator));
+        assertEquals(ids(chainBlock.findBySenderOrderedByAmountDescending("sender3")),
+                ids(chainBlock.streamBySenderOrderedByAmountDescending("sender3")::iterator));
+        assertEquals(ids(chainBlock.findByReceiverAndAmountRange("receiver1", 10, 40)),
+                ids(chainBlock.streamByReceiverAndAmountRange("receiver1", 10, 40)::iterator));
+        assertEquals(ids(chainBlock.getAllInAmountRange(10, 20)),
+                ids(chainBlock.streamAllInAmountRange(10, 20)::iterator));
+        assertEquals(ids(chainBlock.getAllOrderedByAmountDescendingThenById(10)),
+                ids(chainBlock.streamAllOrderedByAmountDescendingThenById().limit(10)::iterator));
+        assertEquals(chainBlock.findAllSendersWithTransactionStatus(Status.SUCCESSFUL),
+                chainBlock.streamAllSendersWithTransactionStatus(Status.SUCCESSFUL).collect(Collectors.toList()));
+        assertEquals(0, chainBlock.streamBySenderOrderedByAmountDescending("nobody").count());
+    }
+
+    @Test
+    public void testParallelAddsAreAllVisible() throws Exception {
+        runInParallel(id -> chainBlock.add(new TransactionImpl(id, Status.FAILED, "Stan", "Aleks", id)));
+
+        assertEquals(THREADS * TRANSACTIONS_PER_THREAD, chainBlock.getCount());
+
+        for (int id = 0; id < THREADS * TRANSACTIONS_PER_THREAD; id++) {
+            assertTrue(chainBlock.contains(id));
+        }
+    }
+
+    @Test
+    public void testParallelStatusChangesAreAllApplied() throws Exception {
+        for (int id = 0; id < THREADS * TRANSACTIONS_PER_THREAD; id++) {
+            chainBlock.add(new TransactionImpl(id, Status.FAILED, "Stan", "Aleks", id));
+        }
+
+        runInParallel(id -> chainBlock.changeTransactionStatus(id, Status.SUCCESSFUL));
+
+        int successful = 0;
+        for (Transaction ignored : chainBlock.getByTransactionStatus(Status.SUCCESSFUL)) {
+            successful++;
+        }
+
+        assertEquals(THREADS * TRANSACTIONS_PER_THREAD, successful);
+    }
+
+    @Test
+    public void testIteratorToleratesConcurrentRemoval(){
+        for (int id = 0; id < 100; id++) {
+            chainBlock.add(new TransactionImpl(id, Status.FAILED, "Stan", "Aleks", id));
+        }
+
+        int visited = 0;
+        for (Transaction transaction : chainBlock) {
+            chainBlock.removeTransactionById(transaction.getId());
+            visited++;
+        }
+
+        assertEquals(100, visited);
+        assertEquals(0, chainBlock.getCount());
+    }
+
+    @Test
+    public void testQueriesMatchChainBlockImplOrdering(){
+        Transaction transaction1 = new TransactionImpl(1, Status.SUCCESSFUL, "Stan", "Aleks", 125.50);
+        Transaction transaction2 = new TransactionImpl(2, Status.SUCCESSFUL, "Aleks", "Stan", 200.00);
+        Transaction transaction3 = new TransactionImpl(3, Status.SUCCESSFUL, "Aleks", "Stan", 125.50);
+
+        chainBlock.add(transaction1);
+        chainBlock.add(transaction2);
+        chainBlock.add(transaction3);
+
+        List<Transaction> byStatus = new ArrayList<>();
+        chainBlock.getByTransactionStatus(Status.SUCCESSFUL).forEach(byStatus::add);
+
+        List<String> senders = new ArrayList<>();
+        chainBlock.getAllSendersWithTransactionStatus(Status.SUCCESSFUL).forEach(senders::add);
+
+        assertEquals(List.of(2, 1, 3), ids(byStatus));
+        assertEquals(List.of("Stan", "Aleks", "Aleks"), senders);
+    }
+
+    @Test
+    public void testTransactionsAreReturnedWithTheStatusTheyMatched() throws Exception {
+        Transaction transaction = new TransactionImpl(1, Status.FAILED, "Stan", "Aleks", 10);
+        chainBlock.add(transaction);
+
+        Future<?> writer = executor.submit(() -> {
+            for (int i = 0; i < 20_000; i++) {
+                chainBlock.changeTransactionStatus(1, i % 2 == 0 ? Status.SUCCESSFUL : Status.FAILED);
+            }
+        });
+
+        while (!writer.isDone()) {
+            for (Transaction matched : chainBlock.findByTransactionStatus(Status.SUCCESSFUL)) {
+                assertEquals(Status.SUCCESSFUL, matched.getStatus());
+            }
+            chainBlock.streamByTransactionStatus(Status.FAILED)
+                    .forEach(matched -> assertEquals(Status.FAILED, matched.getStatus()));
+        }
+        writer.get();
+
+        assertEquals(Status.FAILED, chainBlock.getById(1).getStatus());
+        assertEquals(Status.FAILED, transaction.getStatus());
+        assertThrows(UnsupportedOperationException.class,
+                () -> chainBlock.getById(1).setTransactionStatus(Status.SUCCESSFUL));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testChangeTransactionStatusFailsForInvalidId(){
+        chainBlock.changeTransactionStatus(-1, Status.SUCCESSFUL);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testAddFailsForDuplicateId(){
+        chainBlock.add(new TransactionImpl(1, Status.FAILED, "Stan", "Aleks", 1));
+        chainBlock.add(new TransactionImpl(1, Status.FAILED, "Stan", "Aleks", 1));
+    }
+
+    @Test
+    public void testRemoveAllRunsAlongsideConcurrentRemovals() throws Exception {
+        runInParallel(id -> chainBlock.add(new TransactionImpl(id, Status.values()[id % 4], "Stan", "Aleks", id)));
+
+        Future<Integer> purge = executor.submit(() -> chainBlock.removeAll(t -> t.getStatus() == Status.FAILED));
+        runInParallel(id -> {
+            if (id % 4 == 1 && chainBlock.contains(id)) {
+                try {
+                    chainBlock.removeTransactionById(id);
+                } catch (IllegalArgumentException ignored) {
+                    // removed by the purge in the meantime
+                }
+            }
+        });
+        purge.get(10, TimeUnit.SECONDS);
+
+        for (Transaction transaction : chainBlock) {
+            assertNotEquals(Status.FAILED, transaction.getStatus());
+        }
+    }
+
+    @Test
+    public void testHugeLimitsReturnEveryMatchWithoutPreallocating(){
+        chainBlock.add(new TransactionImpl(1, Status.FAILED, "Stan", "Aleks", 10));
+
+        assertEquals(1, ((List<Transaction>) chainBlock.getAllOrderedByAmountDescendingThenById(Integer.MAX_VALUE))
+                .size());
+        assertEquals(1, chainBlock.pageAllOrderedByAmountDescendingThenById(Integer.MAX_VALUE)
+                .getTransactions().size());
+    }
+
+    @Test
+    public void testFindByIdNeverThrowsWhileTransactionsAreRemoved() throws Exception {
+        runInParallel(id -> chainBlock.add(new TransactionImpl(id, Status.FAILED, "Stan", "Aleks", id)));
+
+        runInParallel(id -> {
+            if (id % 2 == 0) {
+                chainBlock.removeTransactionById(id);
+            } else {
+                chainBlock.findById(id - 1).ifPresent(t -> assertEquals(id - 1, t.getId()));
+            }
+        });
+
+        assertTrue(chainBlock.findById(0).isEmpty());
+        assertTrue(chainBlock.findBySenderOrderedByAmountDescending("Nobody").isEmpty());
+        assertTrue(chainBlock.findByTransactionStatus(Status.SUCCESSFUL).isEmpty());
+        assertEquals(THREADS * TRANSACTIONS_PER_THREAD / 2, chainBlock.findByTransactionStatus(Status.FAILED).size());
+    }
+}
@@ -0,0 +1,306 @@
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class DurableChainBlockTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static <T> List<T> toList(Iterable<T> iterable) {
+        List<T> list = new ArrayList<>();
+        iterable.forEach(list::add);
+
+        return list;
+    }
+
+    private static void assertTransaction(Transaction transaction, Status status, String sender, String receiver,
+                                          double amount) {
+        assertEquals(status, transaction.getStatus());
+        assertEquals(sender, transaction.getSender());
+        assertEquals(receiver, transaction.getReceiver());
+        assertEquals(amount, transaction.getAmount(), 0);
+    }
+
+    private void writeHistory(Path path, FsyncPolicy fsyncPolicy) throws IOException {
+        try (DurableChainBlock chainBlock = DurableChainBlock.open(path, new ChainBlockImpl(), fsyncPolicy)) {
+            chainBlock.add(new TransactionImpl(1, Status.SUCCESSFUL, "Pesho", "Gosho", 10));
+            chainBlock.addAll(List.of(
+                    new TransactionImpl(2, Status.FAILED, "Pesho", "Ivan", 20),
+                    new TransactionImpl(3, Status.ABORTED, "Gosho", "Ivan", 30)));
+            chainBlock.changeTransactionStatus(2, Status.SUCCESSFUL);
+            chainBlock.removeTransactionById(3);
+        }
+    }
+
+    private void assertReplayed(Path path, FsyncPolicy fsyncPolicy) throws IOException {
+        try (DurableChainBlock chainBlock = DurableChainBlock.open(path, new ChainBlockImpl(), fsyncPolicy)) {
+            assertEquals(2, chainBlock.getCount());
+            assertFalse(chainBlock.contains(3));
+            assertTransaction(chainBlock.getById(1), Status.SUCCESSFUL, "Pesho", "Gosho", 10);
+            assertTransaction(chainBlock.getById(2), Status.SUCCESSFUL, "Pesho", "Ivan", 20);
+            assertEquals(List.of(2, 1), toList(chainBlock.getBySenderOrderedByAmountDescending("Pesho"))
+                    .stream().map(Transaction::getId).collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    public void testReplayRebuildsTheBlockUnderEveryFsyncPolicy() throws IOException {
+        for (FsyncPolicy fsyncPolicy : FsyncPolicy.values()) {
+            Path path = folder.newFile(fsyncPolicy.name() + ".log").toPath();
+
+            writeHistory(path, fsyncPolicy);
+            assertReplayed(path, fsyncPolicy);
+        }
+    }
+
+    @Test
+    public void testReplayTruncatesATornTail() throws IOException {
+        Path path = folder.newFile("torn.log").toPath();
+        writeHistory(path, FsyncPolicy.BATCH);
+        long validLength = Files.size(path);
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.allocate(9).putInt(64).put(new byte[] {1, 2, 3, 4, 5}).flip());
+        }
+
+        assertReplayed(path, FsyncPolicy.BATCH);
+        assertEquals(validLength, Files.size(path));
+    }
+
+    @Test
+    public void testReplayStopsAtACorruptedRecord() throws IOException {
+        Path path = folder.newFile("corrupt.log").toPath();
+        writeHistory(path, FsyncPolicy.ALWAYS);
+        long validLength = Files.size(path);
+
+        try (DurableChainBlock chainBlock = DurableChainBlock.open(path, new ChainBlockImpl(), FsyncPolicy.ALWAYS)) {
+            chainBlock.add(new TransactionImpl(4, Status.FAILED, "Ivan", "Pesho", 40));
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {(byte) 0xFF}), Files.size(path) - 2);
+        }
+
+        assertReplayed(path, FsyncPolicy.ALWAYS);
+        assertEquals(validLength, Files.size(path));
+    }
+
+    @Test
+    public void testRejectedWritesAreNotLogged() throws IOException {
+        Path path = folder.newFile("rejected.log").toPath();
+        writeHistory(path, FsyncPolicy.OS);
+
+        try (DurableChainBlock chainBlock = DurableChainBlock.open(path, new ChainBlockImpl(), FsyncPolicy.OS)) {
+            assertThrows(IllegalArgumentException.class,
+                    () -> chainBlock.add(new TransactionImpl(1, Status.FAILED, "Ivan", "Ivan", 99)));
+            assertThrows(IllegalArgumentException.class, () -> chainBlock.removeTransactionById(3));
+        }
+
+        assertReplayed(path, FsyncPolicy.OS);
+    }
+
+    @Test
+    public void testFlushMakesAppendsVisibleInTheFile() throws IOException {
+        Path path = folder.newFile("flush.log").toPath();
+
+        try (DurableChainBlock chainBlock = DurableChainBlock.open(path, new ChainBlockImpl(), FsyncPolicy.OS)) {
+            chainBlock.add(new TransactionImpl(1, Status.SUCCESSFUL, "Pesho", "Gosho", 10));
+            chainBlock.flush();
+
+            assertTrue(Files.size(path) > 0);
+        }
+    }
+
+    @Test
+    public void testRemoveAllIsReplayedFromTheLog() throws IOException {
+        Path path = folder.getRoot().toPath().resolve("removeAll.log");
+
+        try (DurableChainBlock chainBlock = DurableChainBlock.open(path, new ChainBlockImpl(), FsyncPolicy.OS)) {
+            writeTransactions(chainBlock);
+            assertEquals(2, chainBlock.removeAll(t -> t.getSender().equals("Pesho")));
+        }
+
+        try (DurableChainBlock chainBlock = DurableChainBlock.open(path, new ChainBlockImpl(), FsyncPolicy.OS)) {
+            assertEquals(1, chainBlock.getCount());
+            assertTrue(chainBlock.contains(3));
+        }
+    }
+
+    @Test
+    public void testOsPolicyHandsEveryAppendToTheFileWithoutFlush() throws IOException {
+        Path path = folder.newFile("os.log").toPath();
+
+        try (DurableChainBlock chainBlock = DurableChainBlock.open(path, new ChainBlockImpl(), FsyncPolicy.OS)) {
+            chainBlock.add(new TransactionImpl(1, Status.SUCCESSFUL, "Pesho", "Gosho", 10));
+
+            assertTrue(Files.size(path) > 0);
+        }
+    }
+
+    @Test
+    public void testBatchAppendsAreInTheFileWhenTheWriteReturns() throws Exception {
+        Path path = folder.newFile("batch.log").toPath();
+        int threads = 4;
+        int perThread = 250;
+
+        try (DurableChainBlock chainBlock = DurableChainBlock.open(path, new ChainBlockImpl(), FsyncPolicy.BATCH)) {
+            List<Thread> writers = new ArrayList<>();
+
+            for (int t = 0; t < threads; t++) {
+                int first = t * perThread;
+                Thread writer = new Thread(() -> {
+                    for (int id = first; id < first + perThread; id++) {
+                        chainBlock.add(new TransactionImpl(id, Status.SUCCESSFUL, "Pesho", "Gosho", id));
+                    }
+                });
+                writers.add(writer);
+                writer.start();
+            }
+
+            for (Thread writer : writers) {
+                writer.join();
+            }
+
+            ChainBlock replayed = new ChainBlockImpl();
+
+            try (TransactionLog log = new TransactionLog(path, FsyncPolicy.OS)) {
+                assertEquals(threads * perThread, log.replay(replayed));
+            }
+
+            assertEquals(threads * perThread, replayed.getCount());
+        }
+    }
+
+    @Test
+    public void testAppendBeforeReplayKeepsTheExistingLog() throws IOException {
+        Path path = folder.newFile("append.log").toPath();
+        writeHistory(path, FsyncPolicy.OS);
+
+        try (TransactionLog log = new TransactionLog(path, FsyncPolicy.OS)) {
+            log.appendAdd(new TransactionImpl(4, Status.FAILED, "Ivan", "Pesho", 40));
+        }
+
+        try (DurableChainBlock chainBlock = DurableChainBlock.open(path, new ChainBlockImpl(), FsyncPolicy.OS)) {
+            assertEquals(3, chainBlock.getCount());
+            assertTrue(chainBlock.contains(4));
+        }
+    }
+
+    @Test
+    public void testReplayReadsRecordsLargerThanTheReadChunk() throws IOException {
+        Path path = folder.newFile("large.log").toPath();
+        String sender = "P".repeat(200_000);
+
+        try (DurableChainBlock chainBlock = DurableChainBlock.open(path, new ChainBlockImpl(), FsyncPolicy.OS)) {
+            chainBlock.add(new TransactionImpl(1, Status.SUCCESSFUL, sender, "Gosho", 10));
+            chainBlock.add(new TransactionImpl(2, Status.SUCCESSFUL, "Pesho", "Gosho", 20));
+        }
+
+        try (DurableChainBlock chainBlock = DurableChainBlock.open(path, new ChainBlockImpl(), FsyncPolicy.OS)) {
+            assertEquals(2, chainBlock.getCount());
+            assertEquals(sender, chainBlock.getById(1).getSender());
+        }
+    }
+
+    @Test
+    public void testAFailedAppendLeavesTheBlockUnchangedAndStopsWrites() throws IOException {
+        Path path = folder.newFile("failed.log").toPath();
+        ChainBlock delegate = new ChainBlockImpl();
+        DurableChainBlock chainBlock = DurableChainBlock.open(path, delegate, FsyncPolicy.OS);
+        writeTransactions(chainBlock);
+        chainBlock.close();
+
+        assertThrows(UncheckedIOException.class,
+                () -> chainBlock.add(new TransactionImpl(4, Status.FAILED, "Ivan", "Pesho", 40)));
+        assertFalse(delegate.contains(4));
+
+        assertThrows(IllegalStateException.class, () -> chainBlock.removeTransactionById(1));
+        assertTrue(delegate.contains(1));
+        assertEquals(3, chainBlock.getCount());
+    }
+
+    @Test
+    public void testARejectedApplyAfterTheAppendStopsWrites() throws IOException {
+        Path path = folder.newFile("rejectedApply.log").toPath();
+        ChainBlock delegate = new ChainBlockImpl() {
+            @Override
+            public void changeTransactionStatus(int id, Status newStatus) {
+                throw new UnsupportedOperationException();
+            }
+        };
+
+        try (DurableChainBlock chainBlock = DurableChainBlock.open(path, delegate, FsyncPolicy.OS)) {
+            writeTransactions(chainBlock);
+
+            assertThrows(UnsupportedOperationException.class,
+                    () -> chainBlock.changeTransactionStatus(1, Status.FAILED));
+            assertThrows(IllegalStateException.class, () -> chainBlock.removeTransactionById(1));
+            assertTrue(chainBlock.contains(1));
+        }
+    }
+
+    @Test
+    public void testATornBatchIsReplayedAsNothing() throws IOException {
+        Path path = folder.newFile("tornBatch.log").toPath();
+        long validLength;
+
+        try (DurableChainBlock chainBlock = DurableChainBlock.open(path, new ChainBlockImpl(), FsyncPolicy.OS)) {
+            chainBlock.add(new TransactionImpl(1, Status.SUCCESSFUL, "Pesho", "Gosho", 10));
+            validLength = Files.size(path);
+
+            chainBlock.addAll(List.of(
+                    new TransactionImpl(2, Status.FAILED, "Pesho", "Ivan", 20),
+                    new TransactionImpl(3, Status.ABORTED, "Gosho", "Ivan", 30)));
+            chainBlock.removeAll(t -> t.getId() > 1);
+        }
+
+        try (TransactionLog log = new TransactionLog(path, FsyncPolicy.OS)) {
+            assertEquals(3, log.replay(new ChainBlockImpl()));
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(validLength + 20);
+        }
+
+        try (DurableChainBlock chainBlock = DurableChainBlock.open(path, new ChainBlockImpl(), FsyncPolicy.OS)) {
+            assertEquals(1, chainBlock.getCount());
+            assertFalse(chainBlock.contains(2));
+        }
+
+        assertEquals(validLength, Files.size(path));
+    }
+
+    @Test
+    public void testTransactionsOfARowStoreCannotBypassTheLog() throws IOException {
+        Path path = folder.newFile("rowStore.log").toPath();
+
+        try (DurableChainBlock chainBlock = DurableChainBlock.open(path, new ColumnarChainBlock(), FsyncPolicy.OS)) {
+            writeTransactions(chainBlock);
+            Transaction transaction = chainBlock.getById(2);
+
+            assertThrows(UnsupportedOperationException.class,
+                    () -> transaction.setTransactionStatus(Status.SUCCESSFUL));
+            assertEquals(Status.FAILED, chainBlock.getById(2).getStatus());
+        }
+    }
+
+    private static void writeTransactions(ChainBlock chainBlock) {
+        chainBlock.add(new TransactionImpl(1, Status.SUCCESSFUL, "Pesho", "Gosho", 10));
+        chainBlock.add(new TransactionImpl(2, Status.FAILED, "Pesho", "Ivan", 20));
+        chainBlock.add(new TransactionImpl(3, Status.ABORTED, "Gosho", "Ivan", 30));
+    }
+}
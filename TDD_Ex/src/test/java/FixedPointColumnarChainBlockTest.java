@@ -0,0 +1,50 @@
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class FixedPointColumnarChainBlockTest extends ColumnarChainBlockTest {
+
+    @Override
+    protected ChainBlock createChainBlock() {
+        return ColumnarChainBlock.withFixedPointAmounts(2);
+    }
+
+    private static List<Integer> ids(Iterable<Transaction> transactions) {
+        List<Integer> ids = new ArrayList<>();
+        transactions.forEach(t -> ids.add(t.getId()));
+
+        return ids;
+    }
+
+    @Test
+    public void testAmountRangeBoundariesAreExactInMinorUnits(){
+        ChainBlock chainBlock = createChainBlock();
+        chainBlock.add(new TransactionImpl(1, Status.SUCCESSFUL, "Stan", "Aleks", 0.1 + 0.2));
+        chainBlock.add(new TransactionImpl(2, Status.SUCCESSFUL, "Stan", "Aleks", 0.3));
+        chainBlock.add(new TransactionImpl(3, Status.SUCCESSFUL, "Stan", "Aleks", 0.31));
+
+        assertEquals(List.of(1, 2), ids(chainBlock.getAllInAmountRange(0.3, 0.3)));
+        assertEquals(List.of(1, 2, 3), ids(chainBlock.getAllInAmountRange(0.1 + 0.2, 0.305 + 0.005)));
+        assertEquals(List.of(3), ids(chainBlock.getAllInAmountRange(0.305, 1)));
+        assertEquals(0.3, chainBlock.getById(1).getAmount(), 0.0);
+        assertTrue(chainBlock.contains(new TransactionImpl(1, Status.SUCCESSFUL, "Stan", "Aleks", 0.1 + 0.2)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testAddFailsForAmountsFinerThanTheScale(){
+        createChainBlock().add(new TransactionImpl(1, Status.SUCCESSFUL, "Stan", "Aleks", 1.005));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testAddFailsForAmountsBeyondTheMinorUnitRange(){
+        createChainBlock().add(new TransactionImpl(1, Status.SUCCESSFUL, "Stan", "Aleks", 1e18));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWithFixedPointAmountsFailsForNegativeScale(){
+        ColumnarChainBlock.withFixedPointAmounts(-1);
+    }
+}
@@ -0,0 +1,247 @@
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class InstrumentedChainBlockTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private InstrumentedChainBlock chainBlock;
+
+    @Before
+    public void setUp(){
+        chainBlock = new InstrumentedChainBlock(new ChainBlockImpl());
+
+        chainBlock.add(new TransactionImpl(1, Status.FAILED, "Stan", "Aleks", 100.00));
+        chainBlock.add(new TransactionImpl(2, Status.SUCCESSFUL, "Stan", "Aleks", 125.50));
+        chainBlock.addAll(List.of(
+                new TransactionImpl(3, Status.SUCCESSFUL, "Aleks", "Stan", 200.00),
+                new TransactionImpl(4, Status.SUCCESSFUL, "Aleks", "Stan", 115.25)));
+    }
+
+    @Test
+    public void testCallsAndResultSizesAreCountedPerOperation(){
+        chainBlock.getByTransactionStatus(Status.SUCCESSFUL);
+        chainBlock.getByTransactionStatus(Status.FAILED);
+        chainBlock.getByTransactionStatus(Status.SUCCESSFUL, 2);
+
+        OperationMetrics add = chainBlock.snapshot(InstrumentedChainBlock.Operation.ADD);
+        OperationMetrics addAll = chainBlock.snapshot(InstrumentedChainBlock.Operation.ADD_ALL);
+        OperationMetrics byStatus = chainBlock.snapshot(InstrumentedChainBlock.Operation.GET_BY_TRANSACTION_STATUS);
+
+        assertEquals(2, add.getCalls());
+        assertEquals(1, addAll.getCalls());
+        assertEquals(2, addAll.getResultElements());
+        OperationMetrics byStatusTopK = chainBlock.snapshot(
+                InstrumentedChainBlock.Operation.GET_BY_TRANSACTION_STATUS_TOP_K);
+
+        assertEquals(2, byStatus.getCalls());
+        assertEquals(4, byStatus.getResultElements());
+        assertEquals(2.0, byStatus.getMeanResultSize(), 0.0);
+        assertEquals(1, byStatusTopK.getCalls());
+        assertEquals(2, byStatusTopK.getResultElements());
+        assertEquals(0, chainBlock.snapshot(InstrumentedChainBlock.Operation.GET_BY_ID).getCalls());
+    }
+
+    @Test
+    public void testFailuresAreCountedAndRethrown(){
+        assertThrows(IllegalArgumentException.class, () -> chainBlock.getById(99));
+        assertThrows(IllegalArgumentException.class, () -> chainBlock.getBySenderOrderedByAmountDescending("Nobody"));
+
+        assertEquals(1, chainBlock.snapshot(InstrumentedChainBlock.Operation.GET_BY_ID).getFailures());
+        assertEquals(1, chainBlock.snapshot(
+                InstrumentedChainBlock.Operation.GET_BY_SENDER_ORDERED_BY_AMOUNT_DESCENDING).getFailures());
+        assertEquals(0, chainBlock.snapshot(
+                InstrumentedChainBlock.Operation.GET_BY_SENDER_ORDERED_BY_AMOUNT_DESCENDING).getResultElements());
+    }
+
+    @Test
+    public void testResultsAreForwardedUnchanged(){
+        assertEquals(List.of(3, 2, 4, 1), ids(chainBlock.getAllOrderedByAmountDescendingThenById()));
+        assertEquals(List.of(2, 1), ids(chainBlock.getBySenderOrderedByAmountDescending("Stan")));
+        assertEquals(4, chainBlock.getCount());
+        assertTrue(chainBlock.contains(3));
+    }
+
+    @Test
+    public void testSnapshotIsNotAffectedByLaterCalls(){
+        chainBlock.getById(1);
+        OperationMetrics snapshot = chainBlock.snapshot().get(InstrumentedChainBlock.Operation.GET_BY_ID);
+
+        chainBlock.getById(2);
+
+        assertEquals(1, snapshot.getCalls());
+        assertEquals(2, chainBlock.snapshot(InstrumentedChainBlock.Operation.GET_BY_ID).getCalls());
+    }
+
+    @Test
+    public void testStreamsCountTheElementsTheyYield(){
+        assertEquals(List.of(3, 2), chainBlock.streamAllOrderedByAmountDescendingThenById()
+                .limit(2).map(Transaction::getId).collect(Collectors.toList()));
+        assertEquals(0, chainBlock.streamBySenderOrderedByAmountDescending("Nobody").count());
+
+        OperationMetrics ordered = chainBlock.snapshot(
+                InstrumentedChainBlock.Operation.STREAM_ALL_ORDERED_BY_AMOUNT_DESCENDING_THEN_BY_ID);
+        OperationMetrics bySender = chainBlock.snapshot(
+                InstrumentedChainBlock.Operation.STREAM_BY_SENDER_ORDERED_BY_AMOUNT_DESCENDING);
+
+        assertEquals(1, ordered.getCalls());
+        assertEquals(2, ordered.getResultElements());
+        assertEquals(1, bySender.getCalls());
+        assertEquals(0, bySender.getFailures());
+        assertEquals(0, chainBlock.snapshot(
+                InstrumentedChainBlock.Operation.GET_ALL_ORDERED_BY_AMOUNT_DESCENDING_THEN_BY_ID).getCalls());
+    }
+
+    @Test
+    public void testLazyIterablesCountTheElementsTheyYield(){
+        InstrumentedChainBlock lazy = new InstrumentedChainBlock(new ChainBlockImpl() {
+            @Override
+            public Iterable<Transaction> getAllInAmountRange(double lo, double hi) {
+                Iterable<Transaction> result = super.getAllInAmountRange(lo, hi);
+                return result::iterator;
+            }
+        });
+        lazy.addAll(List.of(
+                new TransactionImpl(1, Status.FAILED, "Stan", "Aleks", 100.00),
+                new TransactionImpl(2, Status.SUCCESSFUL, "Stan", "Aleks", 125.50),
+                new TransactionImpl(3, Status.SUCCESSFUL, "Aleks", "Stan", 200.00)));
+
+        assertEquals(List.of(1, 2), ids(lazy.getAllInAmountRange(100.00, 150.00)));
+
+        OperationMetrics range = lazy.snapshot(InstrumentedChainBlock.Operation.GET_ALL_IN_AMOUNT_RANGE);
+
+        assertEquals(1, range.getCalls());
+        assertEquals(2, range.getResultElements());
+    }
+
+    @Test
+    public void testPagesAreRecordedWithTheirSize(){
+        Page first = chainBlock.pageAllOrderedByAmountDescendingThenById(3);
+        Page second = chainBlock.pageAllOrderedByAmountDescendingThenById(first.getNextToken().get(), 3);
+
+        assertEquals(List.of(1), ids(second.getTransactions()));
+
+        OperationMetrics pages = chainBlock.snapshot(
+                InstrumentedChainBlock.Operation.PAGE_ALL_ORDERED_BY_AMOUNT_DESCENDING_THEN_BY_ID);
+
+        assertEquals(2, pages.getCalls());
+        assertEquals(4, pages.getResultElements());
+    }
+
+    @Test
+    public void testFindQueriesRecordEmptyResultsAsSuccesses(){
+        assertEquals(List.of(2, 1), ids(chainBlock.findBySenderOrderedByAmountDescending("Stan")));
+        assertTrue(chainBlock.findBySenderOrderedByAmountDescending("Nobody").isEmpty());
+        assertFalse(chainBlock.findById(99).isPresent());
+
+        OperationMetrics bySender = chainBlock.snapshot(
+                InstrumentedChainBlock.Operation.FIND_BY_SENDER_ORDERED_BY_AMOUNT_DESCENDING);
+        OperationMetrics byId = chainBlock.snapshot(InstrumentedChainBlock.Operation.FIND_BY_ID);
+
+        assertEquals(2, bySender.getCalls());
+        assertEquals(0, bySender.getFailures());
+        assertEquals(2, bySender.getResultElements());
+        assertEquals(1, byId.getCalls());
+        assertEquals(0, byId.getResultElements());
+        assertEquals(0, chainBlock.snapshot(InstrumentedChainBlock.Operation.GET_BY_ID).getCalls());
+    }
+
+    @Test
+    public void testAggregatesAreRecordedPerOperation(){
+        assertEquals(3, chainBlock.getCountByTransactionStatus(Status.SUCCESSFUL));
+        assertEquals(225.50, chainBlock.getVolumeBySender("Stan"), 0.0);
+        assertEquals(200.00, chainBlock.getMaximumAmount(), 0.0);
+
+        InstrumentedChainBlock empty = new InstrumentedChainBlock(new ChainBlockImpl());
+        assertThrows(IllegalArgumentException.class, empty::getMinimumAmount);
+
+        assertEquals(1, chainBlock.snapshot(
+                InstrumentedChainBlock.Operation.GET_COUNT_BY_TRANSACTION_STATUS).getCalls());
+        assertEquals(1, chainBlock.snapshot(InstrumentedChainBlock.Operation.GET_VOLUME_BY_SENDER).getCalls());
+        assertEquals(1, chainBlock.snapshot(InstrumentedChainBlock.Operation.GET_MAXIMUM_AMOUNT).getCalls());
+        assertEquals(1, empty.snapshot(InstrumentedChainBlock.Operation.GET_MINIMUM_AMOUNT).getFailures());
+    }
+
+    @Test
+    public void testPercentilesAreBoundedByTheRecordedLatencies(){
+        for (int i = 0; i < 1_000; i++) {
+            chainBlock.getById(1 + i % 4);
+        }
+
+        OperationMetrics metrics = chainBlock.snapshot(InstrumentedChainBlock.Operation.GET_BY_ID);
+
+        assertTrue(metrics.getP50Nanos() <= metrics.getP99Nanos());
+        assertTrue(metrics.getP99Nanos() <= metrics.getP999Nanos());
+        assertTrue(metrics.getP999Nanos() <= metrics.getMaximumNanos());
+        assertTrue(metrics.getMeanNanos() <= metrics.getMaximumNanos());
+    }
+
+    @Test
+    public void testHistogramBucketsKeepARelativeErrorBelowOneSixteenth(){
+        for (long value : new long[] {0, 1, 15, 16, 17, 31, 32, 33, 1_000, 123_456_789, 1L << 40}) {
+            long highest = LatencyHistogram.highestValueIn(LatencyHistogram.bucketOf(value));
+
+            assertTrue(highest >= value);
+            assertTrue(highest - value <= value / 16);
+        }
+
+        assertEquals(LatencyHistogram.BUCKET_COUNT - 1, LatencyHistogram.bucketOf(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void testJfrEventsAreEmittedWhenEnabled() throws IOException {
+        InstrumentedChainBlock traced = new InstrumentedChainBlock(new ChainBlockImpl(), true);
+        Path dump = folder.getRoot().toPath().resolve("calls.jfr");
+
+        try (Recording recording = new Recording()) {
+            recording.enable("ChainBlock.Call");
+            recording.start();
+
+            traced.add(new TransactionImpl(1, Status.FAILED, "Stan", "Aleks", 100.00));
+            assertThrows(IllegalArgumentException.class, () -> traced.getById(2));
+
+            recording.stop();
+            recording.dump(dump);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(dump).stream()
+                .filter(e -> e.getEventType().getName().equals("ChainBlock.Call"))
+                .collect(Collectors.toList());
+
+        assertEquals(List.of("ADD", "GET_BY_ID"),
+                events.stream().map(e -> e.getString("operation")).collect(Collectors.toList()));
+        assertTrue(events.get(1).getBoolean("failed"));
+    }
+
+    private static List<Integer> ids(Iterable<Transaction> transactions) {
+        List<Integer> ids = new ArrayList<>();
+        transactions.forEach(t -> ids.add(t.getId()));
+
+        return ids;
+    }
+
+    @Test
+    public void testRemoveAllRecordsTheNumberOfRemovedTransactions(){
+        assertEquals(3, chainBlock.removeAll(t -> t.getStatus() == Status.SUCCESSFUL));
+
+        OperationMetrics removeAll = chainBlock.snapshot(InstrumentedChainBlock.Operation.REMOVE_ALL);
+
+        assertEquals(1, removeAll.getCalls());
+        assertEquals(3, removeAll.getResultElements());
+        assertEquals(1, chainBlock.getCount());
+    }
+}
@@ -0,0 +1,178 @@
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class MappedChainBlockTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private ChainBlock reference;
+    private Path path;
+
+    @Before
+    public void setUp() throws IOException {
+        reference = new ChainBlockImpl();
+
+        Random random = new Random(11);
+        for (int id = 0; id < 1_000; id++) {
+            reference.add(new TransactionImpl(id * 7 - 3_000, Status.values()[random.nextInt(4)],
+                    "sender" + random.nextInt(10), "receiver\u00e9" + random.nextInt(10), random.nextInt(100)));
+        }
+
+        path = folder.getRoot().toPath().resolve("block.snapshot");
+    }
+
+    private static <T> List<T> toList(Iterable<T> iterable) {
+        List<T> list = new ArrayList<>();
+        iterable.forEach(list::add);
+
+        return list;
+    }
+
+    private static List<Integer> ids(Iterable<Transaction> transactions) {
+        List<Integer> ids = new ArrayList<>();
+        transactions.forEach(transaction -> ids.add(transaction.getId()));
+
+        return ids;
+    }
+
+    private void assertSameQueries(ChainBlock chainBlock) {
+        assertEquals(reference.getCount(), chainBlock.getCount());
+        assertEquals(ids(reference), ids(chainBlock));
+        assertEquals(ids(reference.getAllOrderedByAmountDescendingThenById()),
+                ids(chainBlock.getAllOrderedByAmountDescendingThenById()));
+        assertEquals(ids(reference.getByTransactionStatus(Status.FAILED)),
+                ids(chainBlock.getByTransactionStatus(Status.FAILED)));
+        assertEquals(toList(reference.getAllSendersWithTransactionStatus(Status.SUCCESSFUL)),
+                toList(chainBlock.getAllSendersWithTransactionStatus(Status.SUCCESSFUL)));
+        assertEquals(ids(reference.getByReceiverOrderedByAmountThenById("receiver\u00e94")),
+                ids(chainBlock.getByReceiverOrderedByAmountThenById("receiver\u00e94")));
+        assertEquals(ids(reference.getAllInAmountRange(20, 40)), ids(chainBlock.getAllInAmountRange(20, 40)));
+
+        for (Transaction transaction : reference) {
+            Transaction mapped = chainBlock.getById(transaction.getId());
+            assertEquals(transaction.getSender(), mapped.getSender());
+            assertEquals(transaction.getReceiver(), mapped.getReceiver());
+            assertEquals(transaction.getStatus(), mapped.getStatus());
+            assertEquals(transaction.getAmount(), mapped.getAmount(), 0);
+        }
+
+        assertFalse(chainBlock.contains(1));
+        assertThrows(IllegalArgumentException.class, () -> chainBlock.getById(1));
+    }
+
+    @Test
+    public void testMappedSnapshotAnswersQueriesLikeTheSourceBlock() throws IOException {
+        MappedChainBlock.write(reference, path);
+
+        assertSameQueries(MappedChainBlock.open(path));
+    }
+
+    @Test
+    public void testSnapshotWithoutIdIndexRebuildsItOnOpen() throws IOException {
+        MappedChainBlock.write(reference, path, false);
+
+        assertSameQueries(MappedChainBlock.open(path));
+        assertTrue(Files.size(path) < 1_000 * 32);
+    }
+
+    @Test
+    public void testRecordsAndIndexSpanningSeveralMappingsAnswerLikeASingleOne() throws IOException {
+        MappedChainBlock.write(reference, path);
+        assertSameQueries(MappedChainBlock.open(path, 4));
+
+        MappedChainBlock.write(reference, path, false);
+        assertSameQueries(MappedChainBlock.open(path, 7));
+    }
+
+    @Test
+    public void testOpenRejectsASnapshotTruncatedInsideItsRecords() throws IOException {
+        MappedChainBlock.write(reference, path);
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(Files.size(path) / 2);
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> MappedChainBlock.open(path));
+    }
+
+    @Test
+    public void testIdFilterRejectsMissesWithoutLosingHits() throws IOException {
+        MappedChainBlock.write(reference, path);
+        ChainBlock chainBlock = MappedChainBlock.open(path);
+
+        for (int id = -3_100; id < 4_100; id++) {
+            assertEquals(reference.contains(id), chainBlock.contains(id));
+            assertEquals(reference.contains(id), chainBlock.findById(id).isPresent());
+        }
+    }
+
+    @Test
+    public void testMappedSnapshotIsReadOnly() throws IOException {
+        MappedChainBlock.write(reference, path);
+        ChainBlock chainBlock = MappedChainBlock.open(path);
+
+        assertThrows(UnsupportedOperationException.class,
+                () -> chainBlock.add(new TransactionImpl(1, Status.FAILED, "a", "b", 1)));
+        assertThrows(UnsupportedOperationException.class, () -> chainBlock.removeTransactionById(-3_000));
+        assertThrows(UnsupportedOperationException.class,
+                () -> chainBlock.changeTransactionStatus(-3_000, Status.FAILED));
+    }
+
+    @Test
+    public void testRejectedAddsLeaveTheSymbolTableUnchanged() throws IOException {
+        MappedChainBlock.write(reference, path);
+        MappedChainBlock chainBlock = MappedChainBlock.open(path);
+        int symbols = chainBlock.accounts.size();
+
+        assertThrows(UnsupportedOperationException.class,
+                () -> chainBlock.add(new TransactionImpl(1, Status.FAILED, "a", "b", 1)));
+        assertThrows(UnsupportedOperationException.class,
+                () -> chainBlock.addAll(List.of(new TransactionImpl(2, Status.FAILED, "c", "d", 1))));
+
+        assertEquals(symbols, chainBlock.accounts.size());
+        assertEquals(SymbolTable.MISSING, chainBlock.accounts.codeOf("a"));
+    }
+
+    @Test
+    public void testLoadRestoresAWritableChainBlockImpl() throws IOException {
+        MappedChainBlock.write(reference, path);
+        ChainBlockImpl chainBlock = MappedChainBlock.load(path);
+
+        assertSameQueries(chainBlock);
+
+        chainBlock.changeTransactionStatus(-3_000, Status.UNAUTHORIZED);
+        assertEquals(Status.UNAUTHORIZED, chainBlock.getById(-3_000).getStatus());
+    }
+
+    @Test
+    public void testWriteReplacesAnExistingSnapshotAtomically() throws IOException {
+        MappedChainBlock.write(new ChainBlockImpl(), path);
+        assertEquals(0, MappedChainBlock.open(path).getCount());
+
+        MappedChainBlock.write(reference, path);
+
+        assertSameQueries(MappedChainBlock.open(path));
+        assertFalse(Files.exists(path.resolveSibling("block.snapshot.tmp")));
+    }
+
+    @Test
+    public void testOpenRejectsAFileThatIsNotASnapshot() throws IOException {
+        Files.write(path, new byte[64]);
+
+        assertThrows(IllegalArgumentException.class, () -> MappedChainBlock.open(path));
+    }
+}
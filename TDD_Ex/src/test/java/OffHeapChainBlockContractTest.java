@@ -0,0 +1,7 @@
+public class OffHeapChainBlockContractTest extends ChainBlockImplTest {
+
+    @Override
+    protected ChainBlock createChainBlock() {
+        return new OffHeapChainBlock();
+    }
+}
@@ -0,0 +1,61 @@
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.*;
+
+public class OffHeapChainBlockTest extends ColumnarChainBlockTest {
+
+    private static final int PAGE_CROSSING_COUNT = 200_000;
+
+    @Override
+    protected ChainBlock createChainBlock() {
+        return new OffHeapChainBlock();
+    }
+
+    @Test
+    public void testRecordsSpanningSeveralPagesStayAddressable(){
+        ChainBlock chainBlock = createChainBlock();
+
+        for (int id = 0; id < PAGE_CROSSING_COUNT; id++) {
+            chainBlock.add(new TransactionImpl(id, Status.values()[id % 4], "Stan", "Aleks", id / 100.0));
+        }
+
+        for (int id = 0; id < PAGE_CROSSING_COUNT; id += 3) {
+            chainBlock.removeTransactionById(id);
+        }
+
+        assertEquals(PAGE_CROSSING_COUNT - (PAGE_CROSSING_COUNT + 2) / 3, chainBlock.getCount());
+
+        for (int id = 0; id < PAGE_CROSSING_COUNT; id++) {
+            assertEquals(id % 3 != 0, chainBlock.contains(id));
+        }
+
+        Transaction transaction = chainBlock.getById(PAGE_CROSSING_COUNT - 1);
+        assertEquals(Status.values()[(PAGE_CROSSING_COUNT - 1) % 4], transaction.getStatus());
+        assertEquals((PAGE_CROSSING_COUNT - 1) / 100.0, transaction.getAmount(), 0.0);
+    }
+
+    @Test
+    public void testRowsLiveInDirectBuffersAndLeaveTheHeapFlat(){
+        OffHeapChainBlock chainBlock = new OffHeapChainBlock();
+        Transaction[] transactions = new Transaction[PAGE_CROSSING_COUNT];
+
+        for (int id = 0; id < PAGE_CROSSING_COUNT; id++) {
+            transactions[id] = new TransactionImpl(id, Status.values()[id % 4], "Stan", "Aleks", id);
+        }
+
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long before = threads.getCurrentThreadAllocatedBytes();
+
+        for (Transaction transaction : transactions) {
+            chainBlock.add(transaction);
+        }
+
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+
+        assertTrue(chainBlock.directCapacity() >= PAGE_CROSSING_COUNT * 24L);
+        assertTrue("allocated " + allocated + " heap bytes", allocated < PAGE_CROSSING_COUNT);
+    }
+}
@@ -0,0 +1,275 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+public class ShardedChainBlockTest {
+
+    private static final int SHARDS = 4;
+
+    private ChainBlock chainBlock;
+    private ChainBlock reference;
+
+    @Before
+    public void setUp(){
+        chainBlock = new ShardedChainBlock(SHARDS);
+        reference = new ChainBlockImpl();
+
+        Random random = new Random(7);
+        for (int id = 0; id < 2_000; id++) {
+            Transaction transaction = new TransactionImpl(id, Status.values()[random.nextInt(3)],
+                    "sender" + random.nextInt(10), "receiver" + random.nextInt(10), random.nextInt(100));
+            chainBlock.add(transaction);
+            reference.add(transaction);
+        }
+    }
+
+    private static <T> List<T> toList(Iterable<T> iterable) {
+        List<T> list = new ArrayList<>();
+        iterable.forEach(list::add);
+
+        return list;
+    }
+
+    @Test
+    public void testIdOperationsGoToTheOwningShard(){
+        assertEquals(2_000, chainBlock.getCount());
+        assertEquals(reference.getById(1234), chainBlock.getById(1234));
+
+        chainBlock.changeTransactionStatus(1234, Status.UNAUTHORIZED);
+        assertEquals(List.of(reference.getById(1234)), toList(chainBlock.getByTransactionStatus(Status.UNAUTHORIZED)));
+
+        chainBlock.removeTransactionById(1234);
+        assertFalse(chainBlock.contains(1234));
+        assertEquals(1_999, chainBlock.getCount());
+    }
+
+    @Test
+    public void testTotallyOrderedQueriesMergeToTheSameOrderAsOneBlock(){
+        assertEquals(toList(reference.getAllOrderedByAmountDescendingThenById()),
+                toList(chainBlock.getAllOrderedByAmountDescendingThenById()));
+        assertEquals(toList(reference.getBySenderOrderedByAmountDescending("sender3")),
+                toList(chainBlock.getBySenderOrderedByAmountDescending("sender3")));
+        assertEquals(toList(reference.getByReceiverOrderedByAmountThenById("receiver5")),
+                toList(chainBlock.getByReceiverOrderedByAmountThenById("receiver5")));
+        assertEquals(toList(reference.getBySenderAndMinimumAmountDescending("sender1", 50)),
+                toList(chainBlock.getBySenderAndMinimumAmountDescending("sender1", 50)));
+        assertEquals(toList(reference.getByReceiverAndAmountRange("receiver2", 10, 60)),
+                toList(chainBlock.getByReceiverAndAmountRange("receiver2", 10, 60)));
+        assertEquals(toList(reference.getAllInAmountRange(20, 40)),
+                toList(chainBlock.getAllInAmountRange(20, 40)));
+    }
+
+    @Test
+    public void testStatusQueriesAreOrderedByAmount(){
+        List<Transaction> transactions = toList(chainBlock.getByTransactionStatusAndMaximumAmount(Status.FAILED, 70));
+
+        assertEquals(toList(reference.getByTransactionStatusAndMaximumAmount(Status.FAILED, 70)).size(),
+                transactions.size());
+
+        for (int i = 1; i < transactions.size(); i++) {
+            assertTrue(transactions.get(i - 1).getAmount() >= transactions.get(i).getAmount());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testGetBySenderOrderedByAmountDescendingFailsForNoExistingSender(){
+        chainBlock.getBySenderOrderedByAmountDescending("I don't exist");
+    }
+
+    @Test
+    public void testIteratorVisitsEveryShard(){
+        assertEquals(2_000, toList(chainBlock).size());
+    }
+
+    @Test
+    public void testAggregatesCombineEveryShard(){
+        for (Status status : Status.values()) {
+            assertEquals(reference.getCountByTransactionStatus(status), chainBlock.getCountByTransactionStatus(status));
+        }
+
+        assertEquals(reference.getVolumeBySender("sender3"), chainBlock.getVolumeBySender("sender3"), 1e-6);
+        assertEquals(reference.getVolumeByReceiver("receiver5"), chainBlock.getVolumeByReceiver("receiver5"), 1e-6);
+        assertEquals(reference.getMinimumAmount(), chainBlock.getMinimumAmount(), 0.0);
+        assertEquals(reference.getMaximumAmount(), chainBlock.getMaximumAmount(), 0.0);
+        assertThrows(IllegalArgumentException.class, () -> new ShardedChainBlock(SHARDS).getMaximumAmount());
+    }
+
+    @Test
+    public void testFindQueriesMergeShardsWithoutThrowing(){
+        assertEquals(toList(reference.getBySenderOrderedByAmountDescending("sender3")),
+                chainBlock.findBySenderOrderedByAmountDescending("sender3"));
+        assertEquals(reference.getById(42), chainBlock.findById(42).orElseThrow());
+        assertTrue(chainBlock.findById(-1).isEmpty());
+        assertTrue(chainBlock.findBySenderOrderedByAmountDescending("I don't exist").isEmpty());
+    }
+
+    @Test
+    public void testAddAllWithDuplicateIdLeavesBlockUnchanged(){
+        List<Transaction> batch = new ArrayList<>();
+        for (int id = 2_000; id < 2_100; id++) {
+            batch.add(new TransactionImpl(id, Status.SUCCESSFUL, "sender1", "receiver1", id));
+        }
+        batch.add(reference.getById(1234));
+
+        assertThrows(IllegalArgumentException.class, () -> chainBlock.addAll(batch));
+        assertThrows(IllegalArgumentException.class, () -> chainBlock.addAll(List.of(batch.get(0), batch.get(0))));
+
+        assertEquals(2_000, chainBlock.getCount());
+        assertFalse(chainBlock.contains(2_000));
+        assertFalse(chainBlock.contains(2_099));
+        assertEquals(toList(reference.getAllOrderedByAmountDescendingThenById()),
+                toList(chainBlock.getAllOrderedByAmountDescendingThenById()));
+    }
+
+    @Test
+    public void testAddAllRollsBackShardsWrittenBeforeAFailingShard(){
+        List<ChainBlock> blocks = new ArrayList<>();
+        ShardedChainBlock sharded = new ShardedChainBlock(SHARDS, () -> {
+            ChainBlock block = blocks.size() == SHARDS - 1 ? new ChainBlockImpl() {
+                @Override
+                public void addAll(Collection<? extends Transaction> transactions) {
+                    super.addAll(transactions);
+                    throw new IllegalStateException();
+                }
+            } : new ChainBlockImpl();
+            blocks.add(block);
+
+            return block;
+        });
+
+        List<Transaction> batch = new ArrayList<>();
+        for (int id = 0; id < 100; id++) {
+            batch.add(new TransactionImpl(id, Status.SUCCESSFUL, "sender1", "receiver1", id));
+        }
+
+        assertThrows(IllegalStateException.class, () -> sharded.addAll(batch));
+
+        assertEquals(0, sharded.getCount());
+        blocks.forEach(block -> assertEquals(0, block.getCount()));
+    }
+
+    @Test
+    public void testAddAllLeavesShardsWithoutABatchToConcurrentWriters() throws Exception {
+        List<ChainBlock> probes = new ArrayList<>();
+        ShardedChainBlock probe = new ShardedChainBlock(SHARDS, () -> {
+            ChainBlock block = new ChainBlockImpl();
+            probes.add(block);
+
+            return block;
+        });
+
+        List<List<Transaction>> transactionsByShard = new ArrayList<>();
+        for (int shard = 0; shard < SHARDS; shard++) {
+            transactionsByShard.add(new ArrayList<>());
+        }
+        for (int id = 0; id < 4_000; id++) {
+            Transaction transaction = new TransactionImpl(id, Status.SUCCESSFUL, "sender", "receiver", id % 7);
+            probe.add(transaction);
+
+            for (int shard = 0; shard < SHARDS; shard++) {
+                if (probes.get(shard).contains(id))
+                    transactionsByShard.get(shard).add(transaction);
+            }
+        }
+
+        AtomicBoolean emptyBatch = new AtomicBoolean();
+        List<ChainBlock> blocks = new ArrayList<>();
+        ShardedChainBlock sharded = new ShardedChainBlock(SHARDS, () -> {
+            ChainBlock block = new ChainBlockImpl() {
+                @Override
+                public void addAll(Collection<? extends Transaction> transactions) {
+                    if (transactions.isEmpty())
+                        emptyBatch.set(true);
+
+                    super.addAll(transactions);
+                }
+            };
+            blocks.add(block);
+
+            return block;
+        });
+
+        List<Transaction> batched = transactionsByShard.get(0);
+        List<Transaction> batchedToo = transactionsByShard.get(1);
+        List<Transaction> single = new ArrayList<>(transactionsByShard.get(2));
+        single.addAll(transactionsByShard.get(3));
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> batches = executor.submit(() -> {
+                int rounds = Math.min(batched.size(), batchedToo.size());
+                for (int i = 0; i < rounds; i++) {
+                    sharded.addAll(List.of(batched.get(i), batchedToo.get(i)));
+                }
+            });
+            Future<?> singles = executor.submit(() -> single.forEach(sharded::add));
+
+            batches.get();
+            singles.get();
+        } finally {
+            executor.shutdown();
+        }
+
+        assertFalse(emptyBatch.get());
+        for (int shard = 2; shard < SHARDS; shard++) {
+            ChainBlock block = blocks.get(shard);
+
+            assertEquals(transactionsByShard.get(shard).size(), block.getCount());
+            assertEquals(block.getCount(), toList(block.getAllInAmountRange(0, 7)).size());
+        }
+    }
+
+    @Test
+    public void testTransactionsOfARowStoreCannotBypassTheShardLock(){
+        ShardedChainBlock sharded = new ShardedChainBlock(SHARDS, ColumnarChainBlock::new);
+        sharded.add(new TransactionImpl(1, Status.FAILED, "sender1", "receiver1", 10));
+        Transaction transaction = sharded.getById(1);
+
+        assertThrows(UnsupportedOperationException.class, () -> transaction.setTransactionStatus(Status.SUCCESSFUL));
+        assertEquals(Status.FAILED, sharded.getById(1).getStatus());
+    }
+
+    @Test
+    public void testRemoveAllPurgesEveryShard(){
+        int removed = chainBlock.removeAll(t -> t.getStatus() == Status.FAILED);
+
+        assertEquals(reference.removeAll(t -> t.getStatus() == Status.FAILED), removed);
+        assertEquals(reference.getCount(), chainBlock.getCount());
+        assertEquals(0, chainBlock.getCountByTransactionStatus(Status.FAILED));
+        assertEquals(toList(reference.getAllOrderedByAmountDescendingThenById()),
+                toList(chainBlock.getAllOrderedByAmountDescendingThenById()));
+    }
+
+    @Test
+    public void testPagesMergeShardsInGlobalOrder(){
+        Page page = chainBlock.pageAllOrderedByAmountDescendingThenById(100);
+        Page expected = reference.pageAllOrderedByAmountDescendingThenById(100);
+
+        while (expected.hasNext()) {
+            assertEquals(expected.getTransactions(), page.getTransactions());
+            assertEquals(expected.getNextToken(), page.getNextToken());
+
+            page = chainBlock.pageAllOrderedByAmountDescendingThenById(page.getNextToken().get(), 100);
+            expected = reference.pageAllOrderedByAmountDescendingThenById(expected.getNextToken().get(), 100);
+        }
+
+        assertEquals(expected.getTransactions(), page.getTransactions());
+        assertFalse(page.hasNext());
+
+        Page receiverPage = chainBlock.pageByReceiverOrderedByAmountThenById("receiver3", 50);
+        Page receiverExpected = reference.pageByReceiverOrderedByAmountThenById("receiver3", 50);
+
+        assertEquals(receiverExpected.getTransactions(), receiverPage.getTransactions());
+        assertEquals(receiverExpected.getNextToken(), receiverPage.getNextToken());
+    }
+}
@@ -0,0 +1,108 @@
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class SnapshotChainBlockTest extends ColumnarChainBlockTest {
+
+    @Override
+    protected ChainBlock createChainBlock() {
+        return new SnapshotChainBlock();
+    }
+
+    @Test
+    public void testRemovingWhileIteratingVisitsEveryTransactionOnce(){
+        SnapshotChainBlock chainBlock = new SnapshotChainBlock();
+
+        for (int id = 0; id < 100; id++) {
+            chainBlock.add(new TransactionImpl(id, Status.FAILED, "Stan", "Aleks", id));
+        }
+
+        List<Integer> visited = new ArrayList<>();
+        for (Transaction transaction : chainBlock) {
+            chainBlock.removeTransactionById(transaction.getId());
+            visited.add(transaction.getId());
+        }
+
+        assertEquals(100, visited.size());
+        assertEquals(0, chainBlock.getCount());
+
+        for (int id = 0; id < 100; id++) {
+            assertEquals(id, (int) visited.get(id));
+        }
+    }
+
+    @Test
+    public void testIteratorSeesStatusAtTheTimeItWasCreated(){
+        SnapshotChainBlock chainBlock = new SnapshotChainBlock();
+        chainBlock.add(new TransactionImpl(1, Status.FAILED, "Stan", "Aleks", 100.00));
+
+        Iterator<Transaction> iterator = chainBlock.iterator();
+        chainBlock.changeTransactionStatus(1, Status.SUCCESSFUL);
+        chainBlock.add(new TransactionImpl(2, Status.FAILED, "Stan", "Aleks", 100.00));
+
+        assertEquals(Status.FAILED, iterator.next().getStatus());
+        assertFalse(iterator.hasNext());
+        assertEquals(Status.SUCCESSFUL, chainBlock.getById(1).getStatus());
+    }
+
+    @Test
+    public void testSnapshotIsUnaffectedByLaterWrites(){
+        SnapshotChainBlock chainBlock = new SnapshotChainBlock();
+        chainBlock.add(new TransactionImpl(1, Status.FAILED, "Stan", "Aleks", 100.00));
+        chainBlock.add(new TransactionImpl(2, Status.FAILED, "Stan", "Aleks", 150.00));
+
+        ChainBlock snapshot = chainBlock.snapshot();
+
+        chainBlock.removeTransactionById(1);
+        chainBlock.changeTransactionStatus(2, Status.ABORTED);
+
+        assertEquals(2, snapshot.getCount());
+        assertTrue(snapshot.contains(1));
+        assertEquals(Status.FAILED, snapshot.getById(2).getStatus());
+        assertEquals(1, chainBlock.getCount());
+    }
+
+    @Test
+    public void testDerivedQueriesAnswerFromOneVersion(){
+        SnapshotChainBlock chainBlock = new SnapshotChainBlock() {
+            @Override
+            public int getCount() {
+                int count = super.getCount();
+                removeAll(t -> true);
+
+                return count;
+            }
+        };
+        chainBlock.addAll(List.of(
+                new TransactionImpl(1, Status.FAILED, "Stan", "Aleks", 100.00),
+                new TransactionImpl(2, Status.FAILED, "Stan", "Aleks", 150.00)));
+
+        assertEquals(100.00, chainBlock.getMinimumAmount(), 0);
+        assertEquals(150.00, chainBlock.getMaximumAmount(), 0);
+    }
+
+    @Test
+    public void testAddAllPublishesTheBatchAsOneVersion(){
+        SnapshotChainBlock chainBlock = new SnapshotChainBlock();
+        chainBlock.add(new TransactionImpl(1, Status.FAILED, "Stan", "Aleks", 100.00));
+        ChainBlock before = chainBlock.snapshot();
+
+        assertThrows(IllegalArgumentException.class, () -> chainBlock.addAll(List.of(
+                new TransactionImpl(2, Status.FAILED, "Stan", "Aleks", 150.00),
+                new TransactionImpl(1, Status.FAILED, "Stan", "Aleks", 100.00))));
+        assertSame(before, chainBlock.snapshot());
+
+        chainBlock.addAll(List.of(new TransactionImpl(2, Status.FAILED, "Stan", "Aleks", 150.00)));
+        assertEquals(2, chainBlock.snapshot().getCount());
+        assertEquals(2, chainBlock.getByTransactionStatus(Status.FAILED, 1).iterator().next().getId());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testSnapshotIsReadOnly(){
+        new SnapshotChainBlock().snapshot().add(new TransactionImpl(1, Status.FAILED, "Stan", "Aleks", 100.00));
+    }
+}